@@ -0,0 +1,57 @@
+package com.petrovoleh.benchmark;
+
+import com.petrovoleh.model.OrderRecord;
+import com.petrovoleh.service.StatsAccumulator;
+import com.petrovoleh.service.StatsService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарк агрегації без парсингу: додавання готових записів до накопичувача потоку
+ * та об'єднання накопичувача із загальною статистикою {@link StatsService}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AggregationBenchmark {
+    private static final int RECORDS = 100_000;
+
+    @Param({"orderId", "orderDate", "amount", "client", "item", "all"})
+    public String attribute;
+
+    private OrderRecord[] records;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        records = new OrderRecord[RECORDS];
+        for (int i = 0; i < RECORDS; i++) {
+            records[i] = BenchmarkData.createRecord(i);
+        }
+    }
+
+    @Benchmark
+    public StatsService aggregate() {
+        StatsService statsService = new StatsService(attribute);
+        StatsAccumulator accumulator = statsService.newAccumulator();
+        for (OrderRecord record : records) {
+            accumulator.addRecord(record);
+        }
+        statsService.merge(accumulator);
+        return statsService;
+    }
+}
@@ -0,0 +1,138 @@
+package com.petrovoleh.benchmark;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.petrovoleh.filecreator.GeneratorOptions;
+import com.petrovoleh.filecreator.JsonFileCreator;
+import com.petrovoleh.model.OrderRecord;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * Допоміжний клас для створення наборів даних для бенчмарків.
+ * Вміст детермінований: замовлення з номером i завжди однакове, тому результати можна порівнювати між комітами.
+ */
+public class BenchmarkData {
+    public static final long START_DATE_MILLIS = 1672531200000L;
+
+    /**
+     * Форма набору даних.
+     */
+    public enum Shape {
+        MANY_FILES(100, 2_000), // Багато дрібних файлів
+        ONE_LARGE(1, 500_000), // Один великий файл (більший за поріг розбиття)
+        SKEWED(100, 10_000); // Різні файли з популярністю товарів і клієнтів за розподілом Ципфа і 100 000 клієнтів
+
+        private final int files; // Кількість файлів
+        private final int ordersPerFile; // Кількість замовлень у файлі
+
+        Shape(int files, int ordersPerFile) {
+            this.files = files;
+            this.ordersPerFile = ordersPerFile;
+        }
+    }
+
+    private static final JsonFactory jsonFactory = new JsonFactory();
+
+    /**
+     * Створює тимчасову директорію з файлами замовлень вказаної форми.
+     *
+     * @param shape форма набору даних
+     * @return директорія з файлами
+     * @throws IOException у випадку помилки вводу/виводу
+     */
+    public static Path createDirectory(Shape shape) throws IOException {
+        Path directory = Files.createTempDirectory("orders_" + shape.name().toLowerCase());
+        if (shape == Shape.SKEWED) {
+            JsonFileCreator.createJsonFiles(directory.toString(), shape.ordersPerFile, shape.files, skewedOptions());
+            return directory;
+        }
+        for (int i = 0; i < shape.files; i++) {
+            writeOrders(directory.resolve("orders_" + i + ".json").toFile(), i * shape.ordersPerFile, shape.ordersPerFile);
+        }
+        return directory;
+    }
+
+    /**
+     * Повертає налаштування генератора для набору {@link Shape#SKEWED} з фіксованим початковим значенням.
+     *
+     * @return налаштування генерації
+     */
+    private static GeneratorOptions skewedOptions() {
+        GeneratorOptions options = new GeneratorOptions();
+        options.setUniqueFiles(true);
+        options.setSeed(42L);
+        options.setClientCount(100_000);
+        options.setClientSkew(0.8);
+        options.setItemCount(5_000);
+        options.setItemSkew(1.0);
+        options.setItemsPerOrder(1, 10);
+        return options;
+    }
+
+    /**
+     * Записує у файл масив замовлень з номерами від first до first + count - 1.
+     *
+     * @param file  файл для запису
+     * @param first номер першого замовлення
+     * @param count кількість замовлень
+     * @throws IOException у випадку помилки вводу/виводу
+     */
+    public static void writeOrders(File file, int first, int count) throws IOException {
+        try (JsonGenerator generator = jsonFactory.createGenerator(file, JsonEncoding.UTF8)) {
+            generator.useDefaultPrettyPrinter();
+            generator.writeStartArray();
+            for (int i = first; i < first + count; i++) {
+                OrderRecord record = createRecord(i);
+                generator.writeStartObject();
+                generator.writeNumberField("orderId", record.getOrderId());
+                generator.writeNumberField("orderDate", record.getOrderDate());
+                generator.writeStringField("client", record.getClient());
+                generator.writeNumberField("amount", record.getAmount());
+                generator.writeArrayFieldStart("items");
+                for (String item : record.getItems()) {
+                    generator.writeString(item);
+                }
+                generator.writeEndArray();
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+        }
+    }
+
+    /**
+     * Створює запис замовлення з номером i: 1000 клієнтів, 1000 сум, від одного до трьох товарів з 5000.
+     *
+     * @param i номер замовлення
+     * @return запис замовлення
+     */
+    public static OrderRecord createRecord(int i) {
+        OrderRecord record = new OrderRecord();
+        record.setOrderId(i);
+        record.setOrderDate(START_DATE_MILLIS + i * 60_000L);
+        record.setClient("Client " + i % 1000);
+        record.setAmount(i % 1000);
+        for (int j = 0; j <= i % 3; j++) {
+            record.addItem("Item " + (i * 7 + j) % 5000);
+        }
+        return record;
+    }
+
+    /**
+     * Видаляє директорію з усім вмістом.
+     *
+     * @param directory директорія
+     * @throws IOException у випадку помилки вводу/виводу
+     */
+    public static void delete(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+}
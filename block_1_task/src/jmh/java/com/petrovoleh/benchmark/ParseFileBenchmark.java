@@ -0,0 +1,73 @@
+package com.petrovoleh.benchmark;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.petrovoleh.parser.FileRange;
+import com.petrovoleh.parser.InputMode;
+import com.petrovoleh.parser.Parser;
+import com.petrovoleh.service.StatsAccumulator;
+import com.petrovoleh.service.StatsService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарк парсингу одного файлу в одному потоці. Час майже повністю припадає на читання замовлень
+ * (Parser.readOrder з проекцією полів) та додавання їх до накопичувача.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParseFileBenchmark {
+    private static final int ORDERS = 10_000;
+
+    @Param({"orderId", "amount", "client", "item", "all"})
+    public String attribute;
+
+    @Param({"STREAM", "MAPPED", "BUFFERED"})
+    public InputMode inputMode;
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private Path directory;
+    private FileRange range;
+    private StatsService statsService;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("orders_file");
+        File file = directory.resolve("orders.json").toFile();
+        BenchmarkData.writeOrders(file, 0, ORDERS);
+        range = FileRange.wholeFile(file);
+        statsService = new StatsService(attribute);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        BenchmarkData.delete(directory);
+    }
+
+    @Benchmark
+    public StatsAccumulator parseFile() throws IOException {
+        StatsAccumulator accumulator = statsService.newAccumulator();
+        Parser.parseRange(jsonFactory, range, accumulator, inputMode);
+        return accumulator;
+    }
+}
@@ -0,0 +1,70 @@
+package com.petrovoleh.benchmark;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.petrovoleh.parser.ExecutionMode;
+import com.petrovoleh.parser.Parser;
+import com.petrovoleh.parser.ParserOptions;
+import com.petrovoleh.service.StatsService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарк повного парсингу директорії ({@link Parser#parseOrders}) для різної кількості потоків,
+ * способу їх використання, атрибутів і форм набору даних. Файли створюються один раз на запуск і читаються з файлового кешу ОС.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParseOrdersBenchmark {
+
+    @Param({"1", "4", "10"})
+    public int threads;
+
+    @Param({"amount", "client", "item", "all"})
+    public String attribute;
+
+    @Param({"MANY_FILES", "ONE_LARGE", "SKEWED"})
+    public BenchmarkData.Shape shape;
+
+    @Param({"POOL", "VIRTUAL", "PIPELINE"})
+    public ExecutionMode executionMode;
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private Path directory;
+    private ParserOptions options;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = BenchmarkData.createDirectory(shape);
+        options = new ParserOptions(threads);
+        options.setExecutionMode(executionMode);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        BenchmarkData.delete(directory);
+    }
+
+    @Benchmark
+    public StatsService parseOrders() {
+        return Parser.parseOrders(jsonFactory, directory.toString(), attribute, options);
+    }
+}
@@ -0,0 +1,71 @@
+package com.petrovoleh.benchmark;
+
+import com.petrovoleh.model.Attribute;
+import com.petrovoleh.model.OrderRecord;
+import com.petrovoleh.service.StatsAccumulator;
+import com.petrovoleh.service.StatsService;
+import com.petrovoleh.util.XmlWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарк запису статистики в XML для різної кількості різних значень.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class XmlWriterBenchmark {
+
+    @Param({"1000", "100000"})
+    public int distinctValues;
+
+    @Param({"orderId", "client"})
+    public String attribute;
+
+    private Path directory;
+    private StatsService statsService;
+    private Attribute target;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("orders_xml");
+        target = Attribute.fromName(attribute);
+        statsService = new StatsService(attribute);
+        StatsAccumulator accumulator = statsService.newAccumulator();
+        for (int i = 0; i < distinctValues; i++) {
+            OrderRecord record = BenchmarkData.createRecord(i);
+            record.setClient("Client " + i); // Кожен клієнт - окреме значення
+            accumulator.addRecord(record);
+        }
+        statsService.merge(accumulator);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        BenchmarkData.delete(directory);
+    }
+
+    @Benchmark
+    public void writeStatistics() {
+        XmlWriter.writeStatisticsToXML(directory.toString(), statsService, target);
+    }
+}
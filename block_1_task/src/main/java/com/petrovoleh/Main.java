@@ -1,10 +1,30 @@
 package com.petrovoleh;
 
 import com.fasterxml.jackson.core.JsonFactory;
+import com.petrovoleh.model.Attribute;
+import com.petrovoleh.parser.ColumnarStore;
+import com.petrovoleh.parser.DirectoryWatcher;
+import com.petrovoleh.parser.ExecutionMode;
+import com.petrovoleh.parser.FileShard;
+import com.petrovoleh.parser.InputMode;
 import com.petrovoleh.parser.Parser;
+import com.petrovoleh.parser.ParserOptions;
+import com.petrovoleh.parser.ParserProgress;
+import com.petrovoleh.service.HyperLogLog;
+import com.petrovoleh.service.PartialStats;
+import com.petrovoleh.service.StatsCache;
+import com.petrovoleh.service.StatsOptions;
 import com.petrovoleh.service.StatsService;
+import com.petrovoleh.service.TimeBucket;
 import com.petrovoleh.util.XmlWriter;
 
+import javax.management.JMException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -12,34 +32,287 @@ import java.util.Map;
  */
 public class Main {
     private static final JsonFactory jsonFactory = new JsonFactory();
+    private static final long DEFAULT_PROGRESS_SECONDS = 10; // Інтервал рядка прогресу за замовчуванням
+    private static final String MERGE_COMMAND = "merge"; // Команда злиття файлів часткової статистики
+    private static final String MERGE_USAGE = "Usage: java -jar Main.java merge <output_directory> <partial_file|directory[,...]> [--spill-mb=N [--spill-dir=DIR]] [--sort-by-count]";
 
     /**
      * Головний метод програми.
      *
      * @param args аргументи командного рядка
-     *             args[0] - шлях до папки
-     *             args[1] - атрибут по якому робити статистику
+     *             args[0] - шлях до папки (або "merge" - злиття файлів часткової статистики, див. {@link #merge})
+     *             args[1] - атрибут по якому робити статистику (кілька атрибутів через кому або "all")
+     *             далі - необов'язкові параметри --threads=N, --executor=pool|virtual|pipeline, --stages=R,P,A,
+     *             --input=stream|mapped|buffered, --split-mb=N,
+     *             --cache=DIR, --cache-mb=N, --columnar=DIR, --top-items=N, --cardinality[=P], --date-bucket=hour|day|week|month, --amount-histogram, --spill-mb=N, --spill-dir=DIR, --sort-by-count, --progress[=SECONDS], --watch, --debounce-ms=N,
+     *             --shard=I/N, --shard-mode=index|modulo, --files=NAME[,NAME...]|@LIST, --partial=FILE
      */
     public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals(MERGE_COMMAND)) {
+            merge(args);
+            return;
+        }
         // Перевірка наявності необхідної кількості аргументів
         if (args.length < 2) {
-            System.out.println("Usage: java -jar Main.java <directory_path> <attribute>");
+            System.out.println("Usage: java -jar Main.java <directory_path> <attribute[,attribute...]|all> [--threads=N] [--executor=pool|virtual|pipeline [--stages=R,P,A]] [--input=stream|mapped|buffered] [--split-mb=N] [--cache=DIR [--cache-mb=N]] [--columnar=DIR] [--top-items=N] [--cardinality[=P]] [--date-bucket=hour|day|week|month] [--amount-histogram] [--spill-mb=N [--spill-dir=DIR]] [--sort-by-count] [--progress[=SECONDS]] [--watch [--debounce-ms=N]] [--shard=I/N [--shard-mode=index|modulo] | --files=NAME[,NAME...]|@LIST] [--partial=FILE]");
+            System.out.println(MERGE_USAGE);
             return;
         }
         // Отримання шляху до директорії та атрибуту з аргументів командного рядка
         String directoryPath = args[0];
         String attribute = args[1];
+        Map<String, String> arguments = parseArguments(args, 2);
+        ParserOptions options;
+        try {
+            options = createParserOptions(arguments);
+        } catch (IOException e) {
+            System.err.println("Error: " + e.getMessage());
+            return;
+        }
+        StatsOptions statsOptions = createStatsOptions(arguments);
+        boolean sortByCount = arguments.remove("--sort-by-count") != null;
+        if (sortByCount && statsOptions.isSpillMode()) {
+            // Сортування за кількістю потребує всіх значень у пам'яті
+            throw new IllegalArgumentException("--sort-by-count cannot be combined with --spill-mb.");
+        }
+        String progressInterval = arguments.remove("--progress");
+        boolean watch = arguments.remove("--watch") != null;
+        String partial = arguments.remove("--partial");
+        if (partial != null && sortByCount) {
+            throw new IllegalArgumentException("--sort-by-count applies to the merge command, not to --partial.");
+        }
+        if (watch && (partial != null || options.getShard() != null)) {
+            throw new IllegalArgumentException("--watch cannot be combined with --shard, --files or --partial.");
+        }
+        String debounce = arguments.remove("--debounce-ms");
+        long debounceMillis = debounce != null ? Long.parseLong(debounce) : DirectoryWatcher.DEFAULT_DEBOUNCE_MILLIS;
+        if (!arguments.isEmpty()) {
+            throw new IllegalArgumentException("Unknown option: " + arguments.keySet().iterator().next());
+        }
+        // Показники ходу парсингу доступні через JMX завжди, а в консолі - з параметром --progress
+        ParserProgress progress = options.getProgress();
+        try {
+            progress.registerMBean();
+        } catch (JMException e) {
+            System.err.println("Error: " + e.getMessage());
+        }
+        if (progressInterval != null) {
+            long seconds = progressInterval.equals("true") ? DEFAULT_PROGRESS_SECONDS : Long.parseLong(progressInterval);
+            progress.startConsoleReport(seconds * 1000);
+        }
+
+        if (watch) {
+            // Спостереження за директорією, доки програму не буде зупинено
+            try {
+                DirectoryWatcher watcher = new DirectoryWatcher(jsonFactory, directoryPath, Attribute.parseList(attribute), statsOptions, options, debounceMillis);
+                watcher.setSortByCount(sortByCount);
+                watcher.run();
+            } catch (IOException e) {
+                System.err.println("Error: " + e.getMessage());
+            }
+            return;
+        }
 
         // Розбір всіх замовлень з JSON-файлів у директорії
         System.out.println("Parsing files and calculating order statistics...");
-        Parser.parseOrders(jsonFactory, directoryPath, attribute, 10);
-        Map<String, Integer> orderStatistics = StatsService.getStatistics();
-        if (orderStatistics.isEmpty()) {
+        StatsService statsService = new StatsService(Attribute.parseList(attribute), statsOptions);
+        try {
+            // Якщо потік завершився винятком, статистика неповна, тому програма завершується з помилкою без запису результатів
+            Parser.parseOrders(jsonFactory, directoryPath, statsService, options);
+        } finally {
+            progress.stopConsoleReport();
+        }
+        if (partial != null) {
+            // Часткова статистика записується і для порожньої частини, щоб злиття мало файл від кожного процесу
+            System.out.println("Writing partial statistics to file...");
+            try {
+                PartialStats.write(Path.of(partial), statsService, Parser.listFiles(directoryPath, options));
+            } catch (IOException e) {
+                System.err.println("Error: " + e.getMessage());
+            }
+            return;
+        }
+        boolean hasStatistics = statsService.getAttributes().stream().anyMatch(target -> !statsService.isEmpty(target));
+        if (hasStatistics) {
+            System.out.println("Writing statistics to file...");
+            XmlWriter.writeStatisticsToXML(directoryPath, statsService, sortByCount);
+        } else {
             System.err.println("No orders found in the directory.");
+        }
+    }
 
-        } else {
+    /**
+     * Об'єднує файли часткової статистики, записані процесами з параметром --partial, і записує загальну статистику у файли XML.
+     * Атрибути і налаштування статистики беруться з файлів часткової статистики.
+     *
+     * @param args аргументи командного рядка
+     *             args[1] - шлях до папки для запису статистики
+     *             args[2] - файли часткової статистики або директорії з ними через кому
+     *             далі - необов'язкові параметри --spill-mb=N, --spill-dir=DIR, --sort-by-count
+     */
+    private static void merge(String[] args) {
+        if (args.length < 3) {
+            System.out.println(MERGE_USAGE);
+            return;
+        }
+        String outputPath = args[1];
+        Map<String, String> arguments = parseArguments(args, 3);
+        StatsOptions statsOptions = new StatsOptions();
+        setSpillOptions(arguments, statsOptions);
+        boolean sortByCount = arguments.remove("--sort-by-count") != null;
+        if (sortByCount && statsOptions.isSpillMode()) {
+            throw new IllegalArgumentException("--sort-by-count cannot be combined with --spill-mb.");
+        }
+        if (!arguments.isEmpty()) {
+            throw new IllegalArgumentException("Unknown option: " + arguments.keySet().iterator().next());
+        }
+        List<Path> paths = new ArrayList<>();
+        for (String path : args[2].split(",")) {
+            paths.add(Path.of(path.trim()));
+        }
+
+        StatsService statsService;
+        try {
+            List<Path> partials = PartialStats.resolve(paths);
+            System.out.println("Merging " + partials.size() + " partial statistics file(s)...");
+            statsService = PartialStats.merge(partials, statsOptions);
+        } catch (IOException e) {
+            System.err.println("Error: " + e.getMessage());
+            return;
+        }
+        boolean hasStatistics = statsService.getAttributes().stream().anyMatch(target -> !statsService.isEmpty(target));
+        if (hasStatistics) {
             System.out.println("Writing statistics to file...");
-            XmlWriter.writeStatisticsToXML(directoryPath, orderStatistics, attribute);
+            XmlWriter.writeStatisticsToXML(outputPath, statsService, sortByCount);
+        } else {
+            System.err.println("No orders found in the partial statistics files.");
+        }
+    }
+
+    /**
+     * Розбирає необов'язкові параметри командного рядка у вигляді --name=value або --name.
+     *
+     * @param args  аргументи командного рядка
+     * @param first індекс першого необов'язкового параметра
+     * @return параметри (назва -> значення; для параметрів без значення - "true")
+     */
+    private static Map<String, String> parseArguments(String[] args, int first) {
+        Map<String, String> arguments = new HashMap<>();
+        for (int i = first; i < args.length; i++) {
+            String[] option = args[i].split("=", 2);
+            if (!option[0].startsWith("--")) {
+                throw new IllegalArgumentException("Invalid option: " + args[i]);
+            }
+            arguments.put(option[0], option.length == 2 ? option[1] : "true");
+        }
+        return arguments;
+    }
+
+    /**
+     * Створює налаштування парсера і видаляє використані параметри.
+     *
+     * @param arguments параметри командного рядка
+     * @return налаштування парсера
+     * @throws IllegalArgumentException у разі некоректного значення параметра
+     * @throws IOException              якщо директорію кешу неможливо створити або список файлів неможливо прочитати
+     */
+    private static ParserOptions createParserOptions(Map<String, String> arguments) throws IOException {
+        ParserOptions options = new ParserOptions();
+        String value;
+        if ((value = arguments.remove("--threads")) != null) {
+            options.setThreadCount(Integer.parseInt(value));
+        }
+        if ((value = arguments.remove("--executor")) != null) {
+            options.setExecutionMode(ExecutionMode.valueOf(value.toUpperCase()));
+        }
+        if ((value = arguments.remove("--stages")) != null) {
+            String[] threads = value.split(",");
+            if (threads.length != 3) {
+                throw new IllegalArgumentException("--stages expects reader,parser,aggregator thread counts: " + value);
+            }
+            options.setPipelineThreads(Integer.parseInt(threads[0]), Integer.parseInt(threads[1]), Integer.parseInt(threads[2]));
+        }
+        if ((value = arguments.remove("--input")) != null) {
+            options.setInputMode(InputMode.valueOf(value.toUpperCase()));
+        }
+        if ((value = arguments.remove("--split-mb")) != null) {
+            options.setSplitThreshold(Long.parseLong(value) * 1024 * 1024);
+        }
+        String cacheSize = arguments.remove("--cache-mb");
+        if ((value = arguments.remove("--cache")) != null) {
+            long maxSize = cacheSize != null ? Long.parseLong(cacheSize) * 1024 * 1024 : StatsCache.DEFAULT_MAX_SIZE;
+            options.setCache(new StatsCache(Path.of(value), maxSize));
+        }
+        if ((value = arguments.remove("--columnar")) != null) {
+            options.setColumnarStore(new ColumnarStore(Path.of(value)));
+        }
+        String shardMode = arguments.remove("--shard-mode");
+        if (shardMode != null && !shardMode.equals("index") && !shardMode.equals("modulo")) {
+            throw new IllegalArgumentException("--shard-mode expects index or modulo: " + shardMode);
+        }
+        if ((value = arguments.remove("--shard")) != null) {
+            String[] shard = value.split("/");
+            if (shard.length != 2) {
+                throw new IllegalArgumentException("--shard expects I/N: " + value);
+            }
+            int index = Integer.parseInt(shard[0]);
+            int count = Integer.parseInt(shard[1]);
+            options.setShard("modulo".equals(shardMode) ? FileShard.byModulo(index, count) : FileShard.byIndex(index, count));
+        }
+        if ((value = arguments.remove("--files")) != null) {
+            if (options.getShard() != null) {
+                throw new IllegalArgumentException("--shard cannot be combined with --files.");
+            }
+            // Список назв через кому або @файл з назвою на кожному рядку
+            List<String> names = new ArrayList<>();
+            for (String name : value.startsWith("@") ? Files.readAllLines(Path.of(value.substring(1))) : List.of(value.split(","))) {
+                if (!name.isBlank()) {
+                    names.add(name.trim());
+                }
+            }
+            options.setShard(FileShard.ofFiles(names));
+        }
+        return options;
+    }
+
+    /**
+     * Створює налаштування обчислення статистики і видаляє використані параметри.
+     *
+     * @param arguments параметри командного рядка
+     * @return налаштування обчислення статистики
+     * @throws IllegalArgumentException у разі некоректного значення параметра
+     */
+    private static StatsOptions createStatsOptions(Map<String, String> arguments) {
+        StatsOptions options = new StatsOptions();
+        String value;
+        if ((value = arguments.remove("--top-items")) != null) {
+            options.setTopItems(Integer.parseInt(value));
+        }
+        if ((value = arguments.remove("--date-bucket")) != null) {
+            options.setDateBucket(TimeBucket.valueOf(value.toUpperCase()));
+        }
+        options.setAmountHistogram(arguments.remove("--amount-histogram") != null);
+        if ((value = arguments.remove("--cardinality")) != null) {
+            options.setCardinalityPrecision(value.equals("true") ? HyperLogLog.DEFAULT_PRECISION : Integer.parseInt(value));
+        }
+        setSpillOptions(arguments, options);
+        return options;
+    }
+
+    /**
+     * Встановлює налаштування вивантаження на диск і видаляє використані параметри.
+     *
+     * @param arguments параметри командного рядка
+     * @param options   налаштування обчислення статистики
+     * @throws IllegalArgumentException у разі некоректного значення параметра
+     */
+    private static void setSpillOptions(Map<String, String> arguments, StatsOptions options) {
+        String value;
+        if ((value = arguments.remove("--spill-mb")) != null) {
+            options.setSpillBudget(Long.parseLong(value) * 1024 * 1024);
+        }
+        if ((value = arguments.remove("--spill-dir")) != null) {
+            options.setSpillDirectory(Path.of(value));
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,101 @@
+package com.petrovoleh.filecreator;
+
+/**
+ * Цей клас містить налаштування генерації файлів замовлень.
+ * За замовчуванням створюється один файл з 10 клієнтами і 1000 товарами, що вибираються рівномірно,
+ * від 1 до 10 товарів у замовленні, а решта файлів є його копіями.
+ */
+public class GeneratorOptions {
+    public static final int DEFAULT_ITEM_COUNT = 1000;
+
+    private boolean uniqueFiles; // Чи генерувати кожен файл окремо (інакше - копії першого)
+    private int clientCount = OrderGenerator.CLIENT_NAMES.length; // Кількість різних клієнтів
+    private int itemCount = DEFAULT_ITEM_COUNT; // Кількість різних товарів
+    private double clientSkew; // Показник розподілу Ципфа для популярності клієнтів (0 - рівномірний)
+    private double itemSkew; // Показник розподілу Ципфа для популярності товарів (0 - рівномірний)
+    private int minItems = 1; // Мінімальна кількість товарів у замовленні
+    private int maxItems = 10; // Максимальна кількість товарів у замовленні
+    private Long seed; // Початкове значення генератора випадкових чисел (null - випадкове)
+
+    /* Гетери і сетери */
+    public boolean isUniqueFiles() {
+        return uniqueFiles;
+    }
+
+    public void setUniqueFiles(boolean uniqueFiles) {
+        this.uniqueFiles = uniqueFiles;
+    }
+
+    public int getClientCount() {
+        return clientCount;
+    }
+
+    public void setClientCount(int clientCount) {
+        if (clientCount <= 0) {
+            throw new IllegalArgumentException("The number of clients must be a positive number.");
+        }
+        this.clientCount = clientCount;
+    }
+
+    public int getItemCount() {
+        return itemCount;
+    }
+
+    public void setItemCount(int itemCount) {
+        if (itemCount <= 0) {
+            throw new IllegalArgumentException("The number of items must be a positive number.");
+        }
+        this.itemCount = itemCount;
+    }
+
+    public double getClientSkew() {
+        return clientSkew;
+    }
+
+    public void setClientSkew(double clientSkew) {
+        if (!(clientSkew >= 0)) {
+            throw new IllegalArgumentException("The skew must not be negative.");
+        }
+        this.clientSkew = clientSkew;
+    }
+
+    public double getItemSkew() {
+        return itemSkew;
+    }
+
+    public void setItemSkew(double itemSkew) {
+        if (!(itemSkew >= 0)) {
+            throw new IllegalArgumentException("The skew must not be negative.");
+        }
+        this.itemSkew = itemSkew;
+    }
+
+    public int getMinItems() {
+        return minItems;
+    }
+
+    public int getMaxItems() {
+        return maxItems;
+    }
+
+    /**
+     * Встановлює діапазон кількості товарів у замовленні.
+     * @param minItems мінімальна кількість товарів
+     * @param maxItems максимальна кількість товарів (включно)
+     */
+    public void setItemsPerOrder(int minItems, int maxItems) {
+        if (minItems < 0 || maxItems < minItems) {
+            throw new IllegalArgumentException("The items per order range must be 0 <= min <= max.");
+        }
+        this.minItems = minItems;
+        this.maxItems = maxItems;
+    }
+
+    public Long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(Long seed) {
+        this.seed = seed;
+    }
+}
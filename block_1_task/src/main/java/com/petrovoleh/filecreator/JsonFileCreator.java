@@ -3,185 +3,330 @@ package com.petrovoleh.filecreator;
 import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.util.DefaultPrettyPrinter;
+import com.fasterxml.jackson.core.util.Separators;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.petrovoleh.model.Order;
 
 import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
-import java.util.ArrayList;
-import java.util.Date;
-import java.util.List;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.ThreadLocalRandom;
-import java.util.stream.IntStream;
 
 /**
  * Цей клас призначений для створення JSON файлу для проєкту.
  * @param args[0] кількість об'єктів в файлі
  * @param args[1] шлях до директорії
  * @param args[2] кількість файлів
+ * далі - необов'язкові параметри --unique, --seed=N, --clients=N, --items=N, --client-skew=S, --item-skew=S, --items-per-order=MIN-MAX
  */
 public class JsonFileCreator {
     private static final ObjectMapper MAPPER = new ObjectMapper(); // Об'єкт ObjectMapper для серіалізації об'єктів в JSON
     private static final JsonFactory FACTORY = new JsonFactory(); // Фабрика JsonFactory для створення JsonGenerator
-    private static final String[] NAMES = {"John", "Jane", "Michael", "Emma", "William", "Olivia", "James", "Sophia", "Benjamin", "Isabella"}; // Масив імен клієнтів
-    private static final long START_DATE_MILLIS = 1672531200000L; // Початкова дата у мілісекундах з января 2023 року
-    private static final long END_DATE_MILLIS = 1704067199000L;   // Кінцева дата у мілісекундах з грудня 2023 року
-    private static int percentDone = 0;
+    private static final int CHUNK_ORDERS = 4096; // Кількість замовлень в одній частині файлу
+    private static final int BUFFERS_PER_THREAD = 2; // Кількість буферів частин на потік (частин, що генеруються або очікують запису)
+    private static final byte[] ARRAY_START = "[ ".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] ARRAY_SEPARATOR = ", ".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] ARRAY_END = " ]".getBytes(StandardCharsets.UTF_8);
 
     /**
-     * Генерує випадкову дату між заданими початковою та кінцевою датами.
+     * Генерує частину файлу із замовленнями з вказаними номерами у вільний буфер з пулу.
+     * Кожна частина має власні генератор JSON і генератор випадкових чисел, тому потоки не блокують один одного,
+     * а вміст частини не залежить від того, який потік її генерує.
+     * Замовлення записуються як окремі кореневі значення, розділені ", ", тому частина має той самий вигляд,
+     * що й відповідний фрагмент масиву.
      *
-     * @return випадкова дата
+     * @param first     номер першого замовлення
+     * @param last      номер останнього замовлення (включно)
+     * @param generator генератор замовлень
+     * @param seed      початкове значення генератора випадкових чисел частини
+     * @param buffers   пул буферів частин
+     * @return буфер із частиною файлу
+     * @throws IOException          якщо виникає помилка запису
+     * @throws InterruptedException якщо потік перервано під час очікування буфера
      */
-    private static Date generateRandomDate() {
-        long randomMillisSinceEpoch = ThreadLocalRandom.current().nextLong(START_DATE_MILLIS, END_DATE_MILLIS);
-        return new Date(randomMillisSinceEpoch);
-    }
-
-    /**
-     * Генерує список випадкових товарів.
-     *
-     * @return список випадкових товарів
-     */
-    private static List<String> generateRandomItems() {
-        List<String> items = new ArrayList<>();
-        int numberOfItems = ThreadLocalRandom.current().nextInt(1, 11); // Випадкова кількість товарів від 1 до 10
-        IntStream.rangeClosed(1, numberOfItems)
-                .forEach(i -> items.add("Item " + ThreadLocalRandom.current().nextInt(1, 1001))); // Додавання випадкового товару до списку
-        return items;
+    private static ChunkBuffer writeChunk(int first, int last, OrderGenerator generator, long seed,
+                                          BlockingQueue<ChunkBuffer> buffers) throws IOException, InterruptedException {
+        SplittableRandom random = new SplittableRandom(seed);
+        ChunkBuffer buffer = buffers.take();
+        buffer.reset();
+        try (JsonGenerator jsonGenerator = FACTORY.createGenerator(buffer)) {
+            jsonGenerator.setPrettyPrinter(createPrettyPrinter().withSeparators(new Separators().withRootSeparator(", ")));
+            for (int i = first; i <= last; i++) {
+                MAPPER.writeValue(jsonGenerator, generator.generate(i, random));
+            }
+        } catch (IOException e) {
+            buffers.add(buffer);
+            throw e;
+        }
+        return buffer;
     }
 
     /**
-     * Вибирає випадкове ім'я клієнта.
+     * Створює форматування JSON: масиви в один рядок, поля об'єктів - з нового рядка.
      *
-     * @return випадкове ім'я клієнта
+     * @return форматування JSON
      */
-    private static String getRandomClientName() {
-        return NAMES[ThreadLocalRandom.current().nextInt(0, NAMES.length)];
+    private static DefaultPrettyPrinter createPrettyPrinter() {
+        DefaultPrettyPrinter printer = new DefaultPrettyPrinter();
+        printer.indentArraysWith(DefaultPrettyPrinter.FixedSpaceIndenter.instance);
+        return printer;
     }
 
     /**
-     * Записує замовлення в формат JSON.
+     * Виводить прогрес створення JSON файлів кожні 10%.
      *
-     * @param generator генератор JSON
-     * @param order     замовлення для запису
-     * @throws IOException якщо виникає помилка запису
+     * @param chunksDone кількість записаних частин
+     * @param chunks     загальна кількість частин
      */
-    private static void writeOrderToJson(JsonGenerator generator, Order order) throws IOException {
-        synchronized (generator) {
-            MAPPER.writeValue(generator, order);
+    private static void printProgress(long chunksDone, long chunks) {
+        if (chunksDone * 10 / chunks > (chunksDone - 1) * 10 / chunks) {
+            System.out.println("Progress: " + chunksDone * 10 / chunks * 10 + "%");
         }
     }
 
     /**
-     * Обробляє замовлення: генерує дані та записує у формат JSON.
+     * Головний метод програми, який створює JSON файли.
      *
-     * @param i               номер замовлення
-     * @param numberOfEntries загальна кількість замовлень
-     * @param generator       генератор JSON
+     * @param args аргументи командного рядка (кількість записів, шлях до дректорії, кількість файлів і необов'язкові параметри)
      */
-    private static void processOrder(int i, int numberOfEntries, JsonGenerator generator) {
-        Order order = new Order();
+    public static void main(String[] args) {
+        if (args.length < 3) {
+            throw new IllegalArgumentException("Please specify the number of entries, the path where to save files, and the number of files to create.");
+        }
 
-        order.setOrderId(i);
-        order.setOrderDate(generateRandomDate());
-        order.setAmount(ThreadLocalRandom.current().nextInt(1, 101)); // Випадкова сума замовлення від 1 до 100
-        order.setItems(generateRandomItems());
-        order.setClient(getRandomClientName());
+        int numberOfEntries = Integer.parseInt(args[0]);
+        String basePath = args[1];
+        int numberOfFiles = Integer.parseInt(args[2]);
+        GeneratorOptions options = createGeneratorOptions(parseArguments(args));
 
         try {
-            writeOrderToJson(generator, order); // Запис замовлення у формат JSON
-            printProgress(i, numberOfEntries); // Вивід прогресу
+            createJsonFiles(basePath, numberOfEntries, numberOfFiles, options);
         } catch (IOException e) {
-            throw new RuntimeException("Error writing order to JSON format", e);
+            throw new RuntimeException("Error creating JSON files", e);
         }
     }
 
     /**
-     * Виводить прогрес створення JSON файлу.
+     * Розбирає необов'язкові параметри командного рядка у вигляді --name=value або --name.
      *
-     * @param i               номер замовлення
-     * @param numberOfEntries загальна кількість замовлень
+     * @param args аргументи командного рядка
+     * @return параметри (назва -> значення; для параметрів без значення - "true")
      */
-    private static void printProgress(int i, int numberOfEntries) {
-        if (i % (numberOfEntries / 10) == 0) {
-            percentDone += 10;
-            System.out.println("Progress: " + percentDone + "%");
+    private static Map<String, String> parseArguments(String[] args) {
+        Map<String, String> arguments = new HashMap<>();
+        for (int i = 3; i < args.length; i++) {
+            String[] option = args[i].split("=", 2);
+            if (!option[0].startsWith("--")) {
+                throw new IllegalArgumentException("Invalid option: " + args[i]);
+            }
+            arguments.put(option[0], option.length == 2 ? option[1] : "true");
         }
+        return arguments;
     }
 
     /**
-     * Головний метод програми, який створює JSON файл.
+     * Створює налаштування генерації з параметрів командного рядка.
      *
-     * @param args аргументи командного рядка (кількість записів, шлях до дректорії та кількість файлів)
+     * @param arguments параметри командного рядка
+     * @return налаштування генерації
+     * @throws IllegalArgumentException у разі невідомого параметра або некоректного значення
      */
-    public static void main(String[] args) {
-        if (args.length != 3) {
-            throw new IllegalArgumentException("Please specify the number of entries, the path where to save files, and the number of files to create.");
+    private static GeneratorOptions createGeneratorOptions(Map<String, String> arguments) {
+        GeneratorOptions options = new GeneratorOptions();
+        String value;
+        options.setUniqueFiles(arguments.remove("--unique") != null);
+        if ((value = arguments.remove("--seed")) != null) {
+            options.setSeed(Long.parseLong(value));
+        }
+        if ((value = arguments.remove("--clients")) != null) {
+            options.setClientCount(Integer.parseInt(value));
         }
+        if ((value = arguments.remove("--items")) != null) {
+            options.setItemCount(Integer.parseInt(value));
+        }
+        if ((value = arguments.remove("--client-skew")) != null) {
+            options.setClientSkew(Double.parseDouble(value));
+        }
+        if ((value = arguments.remove("--item-skew")) != null) {
+            options.setItemSkew(Double.parseDouble(value));
+        }
+        if ((value = arguments.remove("--items-per-order")) != null) {
+            String[] range = value.split("-", 2);
+            if (range.length != 2) {
+                throw new IllegalArgumentException("--items-per-order expects MIN-MAX: " + value);
+            }
+            options.setItemsPerOrder(Integer.parseInt(range[0]), Integer.parseInt(range[1]));
+        }
+        if (!arguments.isEmpty()) {
+            throw new IllegalArgumentException("Unknown option: " + arguments.keySet().iterator().next());
+        }
+        return options;
+    }
 
-        int numberOfEntries = Integer.parseInt(args[0]);
+    /**
+     * Створює файли orders_1.json ... orders_N.json у вказаній директорії. Без режиму унікальних файлів
+     * генерується лише перший файл, а решта є його копіями; в режимі унікальних файлів кожен файл генерується окремо,
+     * а ідентифікатори замовлень продовжуються з файлу у файл. З однаковим початковим значенням генератора
+     * випадкових чисел файли однакові незалежно від кількості ядер.
+     *
+     * @param basePath        шлях до директорії
+     * @param numberOfEntries кількість записів у файлі
+     * @param numberOfFiles   кількість файлів
+     * @param options         налаштування генерації
+     * @throws IOException якщо під час створення файлів виникає помилка введення-виведення
+     */
+    public static void createJsonFiles(String basePath, int numberOfEntries, int numberOfFiles, GeneratorOptions options) throws IOException {
         if (numberOfEntries <= 0) {
             throw new IllegalArgumentException("The number of entries must be a positive number.");
         }
-
-        int numberOfFiles = Integer.parseInt(args[2]);
         if (numberOfFiles <= 0) {
             throw new IllegalArgumentException("The number of files must be a positive number.");
         }
+        if (options.isUniqueFiles() && (long) numberOfEntries * numberOfFiles > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("The total number of unique orders must not exceed " + Integer.MAX_VALUE + ".");
+        }
+        long seed = options.getSeed() != null ? options.getSeed() : ThreadLocalRandom.current().nextLong();
+        System.out.println("Seed: " + seed);
 
-        String basePath = args[1];
-
-        try {
-            // Create the directory if it doesn't exist
-            File directory = new File(basePath);
-            if (!directory.exists()) {
-                directory.mkdirs(); // Create directories along the path if they don't exist
-            }
+        // Create the directory if it doesn't exist
+        File directory = new File(basePath);
+        if (!directory.exists()) {
+            directory.mkdirs(); // Create directories along the path if they don't exist
+        }
 
-            // Create the initial JSON file
-            String initialFilePath = basePath + "/orders_1.json";
-            createJsonFile(initialFilePath, numberOfEntries);
+        OrderGenerator generator = new OrderGenerator(options);
+        if (options.isUniqueFiles()) {
+            createJsonFiles(basePath, numberOfEntries, numberOfFiles, generator, seed);
+            return;
+        }
+        // Create the initial JSON file
+        createJsonFiles(basePath, numberOfEntries, 1, generator, seed);
 
-            // Copy the initial file multiple times
-            for (int fileIndex = 2; fileIndex <= numberOfFiles; fileIndex++) {
-                String filePath = basePath + "/orders_" + fileIndex + ".json";
-                copyFile(initialFilePath, filePath);
-                System.out.println("JSON file created successfully: " + filePath);
-            }
-        } catch (IOException e) {
-            throw new RuntimeException("Error creating JSON files", e);
+        // Copy the initial file multiple times
+        String initialFilePath = filePath(basePath, 1);
+        for (int fileIndex = 2; fileIndex <= numberOfFiles; fileIndex++) {
+            String filePath = filePath(basePath, fileIndex);
+            copyFile(initialFilePath, filePath);
+            System.out.println("JSON file created successfully: " + filePath);
         }
     }
 
+    private static String filePath(String basePath, int fileIndex) {
+        return basePath + "/orders_" + fileIndex + ".json";
+    }
+
     /**
-     Створює файл JSON із вказаною кількістю записів.
+     * Створює файли JSON із вказаною кількістю записів у кожному. Кожен файл ділиться на частини по {@link #CHUNK_ORDERS},
+     * які паралельно генеруються у власні буфери в кількості потоків, що дорівнює кількості ядер. Частини всіх файлів
+     * генеруються підряд, тому потоки зайняті і для невеликих файлів. Поточний потік записує готові частини через FileChannel
+     * у порядку файлів і номерів замовлень. Кількість буферів обмежена, тому пам'ять не залежить від розміру файлів.
+     * Генератор випадкових чисел кожної частини отримує початкове значення, обчислене з загального значення, номера файлу і номера частини.
      *
-     * @param filePath шлях до файлу JSON для створення
-     * @param numberOfEntries кількість записів для включення у файл
+     * @param basePath        шлях до директорії
+     * @param numberOfEntries кількість записів у файлі
+     * @param numberOfFiles   кількість файлів
+     * @param generator       генератор замовлень
+     * @param seed            початкове значення генератора випадкових чисел
      * @throws IOException, якщо під час створення файлу виникає помилка введення-виведення
      * */
-    private static void createJsonFile(String filePath, int numberOfEntries) throws IOException {
-        try (FileOutputStream fos = new FileOutputStream(filePath);
-             BufferedOutputStream bos = new BufferedOutputStream(fos);
-             JsonGenerator generator = FACTORY.createGenerator(bos)) {
-
-            DefaultPrettyPrinter printer = new DefaultPrettyPrinter();
-            printer.indentArraysWith(DefaultPrettyPrinter.FixedSpaceIndenter.instance);
-            generator.setPrettyPrinter(printer);
-
-            generator.writeStartArray();
-            percentDone = 0;
-            System.out.println("Started creating JSON file: " + filePath);
-            IntStream.rangeClosed(1, numberOfEntries)
-                    .parallel()
-                    .forEach(i -> processOrder(i, numberOfEntries, generator));
-            generator.writeEndArray();
+    private static void createJsonFiles(String basePath, int numberOfEntries, int numberOfFiles, OrderGenerator generator, long seed) throws IOException {
+        int threads = Runtime.getRuntime().availableProcessors();
+        int window = threads * BUFFERS_PER_THREAD;
+        int chunksPerFile = (numberOfEntries - 1) / CHUNK_ORDERS + 1;
+        long chunks = (long) chunksPerFile * numberOfFiles;
+        BlockingQueue<ChunkBuffer> buffers = new ArrayBlockingQueue<>(window);
+        for (int i = 0; i < window; i++) {
+            buffers.add(new ChunkBuffer());
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        Deque<Future<ChunkBuffer>> pending = new ArrayDeque<>();
+        FileChannel channel = null;
+        String filePath = null;
+        try {
+            long submitted = 0;
+            for (long chunk = 0; chunk < chunks; chunk++) {
+                // Частин у роботі не більше, ніж буферів, тому кожна частина отримає буфер
+                while (submitted < chunks && pending.size() < window) {
+                    int fileIndex = (int) (submitted / chunksPerFile);
+                    int chunkIndex = (int) (submitted % chunksPerFile);
+                    int first = fileIndex * numberOfEntries + chunkIndex * CHUNK_ORDERS + 1;
+                    int last = Math.min(fileIndex * numberOfEntries + numberOfEntries, first + CHUNK_ORDERS - 1);
+                    long chunkSeed = seed ^ ((long) fileIndex << 32 | chunkIndex);
+                    pending.add(executor.submit(() -> writeChunk(first, last, generator, chunkSeed, buffers)));
+                    submitted++;
+                }
+                ChunkBuffer buffer = pending.poll().get();
+                int chunkIndex = (int) (chunk % chunksPerFile);
+                if (chunkIndex == 0) {
+                    filePath = filePath(basePath, (int) (chunk / chunksPerFile) + 1);
+                    System.out.println("Started creating JSON file: " + filePath);
+                    channel = FileChannel.open(Path.of(filePath),
+                            StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+                    writeFully(channel, ByteBuffer.wrap(ARRAY_START));
+                } else {
+                    writeFully(channel, ByteBuffer.wrap(ARRAY_SEPARATOR));
+                }
+                writeFully(channel, buffer.toByteBuffer());
+                buffers.add(buffer);
+                if (chunkIndex == chunksPerFile - 1) {
+                    writeFully(channel, ByteBuffer.wrap(ARRAY_END));
+                    channel.close();
+                    channel = null;
+                    System.out.println("JSON file created successfully: " + filePath);
+                }
+                printProgress(chunk + 1, chunks);
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw new RuntimeException("Error writing order to JSON format", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while creating JSON file: " + filePath);
+        } finally {
+            executor.shutdownNow();
+            if (channel != null) {
+                channel.close();
+            }
+        }
+    }
 
-            System.out.println("JSON file created successfully: " + filePath);
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Буфер частини файлу, що перевикористовується без копіювання вмісту під час запису.
+     */
+    private static class ChunkBuffer extends ByteArrayOutputStream {
+        ChunkBuffer() {
+            super(1 << 20);
+        }
+
+        ByteBuffer toByteBuffer() {
+            return ByteBuffer.wrap(buf, 0, count);
         }
     }
 
@@ -0,0 +1,76 @@
+package com.petrovoleh.filecreator;
+
+import com.petrovoleh.model.Order;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Цей клас генерує замовлення з випадковими даними відповідно до налаштувань генерації.
+ * Не має змінного стану, тому використовується всіма потоками одночасно: кожен потік передає власний генератор випадкових чисел,
+ * і однакові генератори дають однакові замовлення.
+ */
+class OrderGenerator {
+    static final String[] CLIENT_NAMES = {"John", "Jane", "Michael", "Emma", "William", "Olivia", "James", "Sophia", "Benjamin", "Isabella"}; // Масив імен клієнтів
+    private static final long START_DATE_MILLIS = 1672531200000L; // Початкова дата у мілісекундах з января 2023 року
+    private static final long END_DATE_MILLIS = 1704067199000L;   // Кінцева дата у мілісекундах з грудня 2023 року
+
+    private final GeneratorOptions options; // Налаштування генерації
+    private final ZipfSampler clients; // Вибірка номерів клієнтів
+    private final ZipfSampler items; // Вибірка номерів товарів
+
+    /**
+     * Створює генератор замовлень.
+     * @param options налаштування генерації
+     */
+    OrderGenerator(GeneratorOptions options) {
+        this.options = options;
+        this.clients = new ZipfSampler(options.getClientCount(), options.getClientSkew());
+        this.items = new ZipfSampler(options.getItemCount(), options.getItemSkew());
+    }
+
+    /**
+     * Генерує замовлення з випадковими датою, сумою, клієнтом і товарами.
+     *
+     * @param orderId ідентифікатор замовлення
+     * @param random  генератор випадкових чисел поточного потоку
+     * @return замовлення
+     */
+    Order generate(int orderId, SplittableRandom random) {
+        Order order = new Order();
+
+        order.setOrderId(orderId);
+        order.setOrderDate(new Date(random.nextLong(START_DATE_MILLIS, END_DATE_MILLIS)));
+        order.setAmount(random.nextInt(1, 101)); // Випадкова сума замовлення від 1 до 100
+        order.setItems(generateItems(random));
+        order.setClient(clientName(clients.next(random)));
+        return order;
+    }
+
+    /**
+     * Генерує список випадкових товарів з кількістю в межах налаштувань.
+     *
+     * @param random генератор випадкових чисел
+     * @return список випадкових товарів
+     */
+    private List<String> generateItems(SplittableRandom random) {
+        int numberOfItems = random.nextInt(options.getMinItems(), options.getMaxItems() + 1);
+        List<String> result = new ArrayList<>(numberOfItems);
+        for (int i = 0; i < numberOfItems; i++) {
+            result.add("Item " + (items.next(random) + 1));
+        }
+        return result;
+    }
+
+    /**
+     * Повертає ім'я клієнта за номером: одне з імен, якщо клієнтів не більше, ніж імен, інакше - "Client N".
+     *
+     * @param index номер клієнта
+     * @return ім'я клієнта
+     */
+    private String clientName(int index) {
+        return options.getClientCount() <= CLIENT_NAMES.length ? CLIENT_NAMES[index] : "Client " + (index + 1);
+    }
+}
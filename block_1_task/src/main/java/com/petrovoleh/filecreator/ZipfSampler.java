@@ -0,0 +1,50 @@
+package com.petrovoleh.filecreator;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Цей клас вибирає номери значень від 0 до size - 1 за розподілом Ципфа: ймовірність номера k пропорційна 1 / (k + 1)^skew,
+ * тобто номер 0 найпопулярніший. При нульовому показнику номери вибираються рівномірно без додаткової пам'яті,
+ * інакше зберігається накопичена ймовірність кожного номера (8 байтів на значення), а номер знаходиться двійковим пошуком.
+ */
+class ZipfSampler {
+    private final int size; // Кількість значень
+    private final double[] cumulative; // Накопичена ймовірність номерів (null - рівномірний розподіл)
+
+    /**
+     * Створює вибірку значень.
+     * @param size кількість значень
+     * @param skew показник розподілу (0 - рівномірний)
+     */
+    ZipfSampler(int size, double skew) {
+        this.size = size;
+        if (skew == 0) {
+            this.cumulative = null;
+            return;
+        }
+        this.cumulative = new double[size];
+        double sum = 0;
+        for (int k = 0; k < size; k++) {
+            sum += Math.pow(k + 1, -skew);
+            cumulative[k] = sum;
+        }
+        for (int k = 0; k < size; k++) {
+            cumulative[k] /= sum;
+        }
+        cumulative[size - 1] = 1; // Захист від похибки округлення
+    }
+
+    /**
+     * Вибирає номер значення.
+     * @param random генератор випадкових чисел
+     * @return номер від 0 до size - 1
+     */
+    int next(SplittableRandom random) {
+        if (cumulative == null) {
+            return random.nextInt(size);
+        }
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        return index >= 0 ? index : -index - 1;
+    }
+}
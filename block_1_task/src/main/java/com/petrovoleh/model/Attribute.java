@@ -0,0 +1,64 @@
+package com.petrovoleh.model;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Цей перелік представляє атрибути замовлення, за якими може обчислюватись статистика.
+ */
+public enum Attribute {
+    ORDER_ID("orderId", "orderId"),
+    ORDER_DATE("orderDate", "orderDate"),
+    AMOUNT("amount", "amount"),
+    CLIENT("client", "client"),
+    ITEM("item", "items");
+
+    private final String name; // Назва атрибута в командному рядку та у файлі статистики
+    private final String fieldName; // Назва поля в JSON-файлі
+
+    Attribute(String name, String fieldName) {
+        this.name = name;
+        this.fieldName = fieldName;
+    }
+
+    /**
+     * Повертає атрибут за його назвою.
+     * @param name назва атрибута ("item", "orderId", "orderDate", "amount", "client")
+     * @return атрибут
+     * @throws IllegalArgumentException у разі невідомої назви
+     */
+    public static Attribute fromName(String name) {
+        for (Attribute attribute : values()) {
+            if (attribute.name.equals(name)) {
+                return attribute;
+            }
+        }
+        throw new IllegalArgumentException("Error: Invalid attribute value: " + name + "\nValid attributes: orderId, orderDate, amount, client, item");
+    }
+
+    /**
+     * Повертає атрибути за списком назв.
+     * @param names назви атрибутів через кому або "all" для всіх атрибутів
+     * @return множина атрибутів
+     * @throws IllegalArgumentException у разі невідомої назви
+     */
+    public static Set<Attribute> parseList(String names) {
+        if (names.trim().equals("all")) {
+            return EnumSet.allOf(Attribute.class);
+        }
+        Set<Attribute> attributes = EnumSet.noneOf(Attribute.class);
+        for (String name : names.split(",")) {
+            attributes.add(fromName(name.trim()));
+        }
+        return attributes;
+    }
+
+    /* Гетери */
+    public String getName() {
+        return name;
+    }
+
+    public String getFieldName() {
+        return fieldName;
+    }
+}
@@ -0,0 +1,97 @@
+package com.petrovoleh.model;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Цей клас представляє пакет записів замовлень, що передається між потоками конвеєра.
+ * Значення кожного атрибута зберігаються в окремому масиві (числа - у примітивних), тому пакет
+ * перевикористовується без створення об'єктів на кожне замовлення, а накопичувач обходить його по стовпцях.
+ */
+public class OrderBatch {
+    public static final int CAPACITY = 1024; // Максимальна кількість замовлень у пакеті
+
+    private final int[] orderIds = new int[CAPACITY];
+    private final long[] orderDates = new long[CAPACITY];
+    private final int[] amounts = new int[CAPACITY];
+    private final String[] clients = new String[CAPACITY];
+    private final int[] clientSymbols = new int[CAPACITY]; // Номери клієнтів у таблиці символів (-1 - номера немає)
+    private String[] items = new String[CAPACITY * 2]; // Товари всіх замовлень підряд
+    private int[] itemSymbols = new int[CAPACITY * 2]; // Номери товарів у таблиці символів
+    private int size; // Кількість замовлень
+    private int itemCount; // Кількість товарів
+
+    /**
+     * Додає запис замовлення до пакета.
+     * @param record запис замовлення
+     * @return true, якщо пакет заповнено
+     */
+    public boolean add(OrderRecord record) {
+        orderIds[size] = record.getOrderId();
+        orderDates[size] = record.getOrderDate();
+        amounts[size] = record.getAmount();
+        clients[size] = record.getClient();
+        clientSymbols[size] = record.getClientSymbol();
+        List<String> recordItems = record.getItems();
+        for (int i = 0; i < recordItems.size(); i++) {
+            if (itemCount == items.length) {
+                items = Arrays.copyOf(items, items.length * 2);
+                itemSymbols = Arrays.copyOf(itemSymbols, itemSymbols.length * 2);
+            }
+            items[itemCount] = recordItems.get(i);
+            itemSymbols[itemCount++] = record.getItemSymbol(i);
+        }
+        return ++size == CAPACITY;
+    }
+
+    /**
+     * Очищає пакет перед повторним використанням.
+     */
+    public void clear() {
+        Arrays.fill(clients, 0, size, null);
+        Arrays.fill(items, 0, itemCount, null);
+        size = 0;
+        itemCount = 0;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /* Гетери */
+    public int size() {
+        return size;
+    }
+
+    public int getItemCount() {
+        return itemCount;
+    }
+
+    public int getOrderId(int index) {
+        return orderIds[index];
+    }
+
+    public long getOrderDate(int index) {
+        return orderDates[index];
+    }
+
+    public int getAmount(int index) {
+        return amounts[index];
+    }
+
+    public String getClient(int index) {
+        return clients[index];
+    }
+
+    public int getClientSymbol(int index) {
+        return clientSymbols[index];
+    }
+
+    public String getItem(int index) {
+        return items[index];
+    }
+
+    public int getItemSymbol(int index) {
+        return itemSymbols[index];
+    }
+}
@@ -0,0 +1,95 @@
+package com.petrovoleh.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Цей клас представляє компактний запис замовлення, який парсер заповнює лише потрібними для статистики полями.
+ * На відміну від {@link Order}, запис перевикористовується для всіх замовлень файлу,
+ * а дата зберігається як кількість мілісекунд без створення об'єкта Date.
+ * Для текстових значень, знайдених у таблиці символів, запис містить також їх номери (-1 - номера немає).
+ */
+public class OrderRecord {
+    private int orderId; // Ідентифікатор замовлення
+    private long orderDate; // Дата замовлення в мілісекундах
+    private String client; // Ім'я клієнта
+    private int amount; // Сума замовлення
+    private final List<String> items = new ArrayList<>(); // Список товарів
+    private int clientSymbol = -1; // Номер клієнта в таблиці символів
+    private int[] itemSymbols = new int[8]; // Номери товарів у таблиці символів
+
+    /**
+     * Очищає запис перед читанням наступного замовлення.
+     */
+    public void clear() {
+        orderId = 0;
+        orderDate = 0;
+        client = null;
+        clientSymbol = -1;
+        amount = 0;
+        items.clear();
+    }
+
+    /* Гетери і сетери */
+    public int getOrderId() {
+        return orderId;
+    }
+
+    public void setOrderId(int orderId) {
+        this.orderId = orderId;
+    }
+
+    public long getOrderDate() {
+        return orderDate;
+    }
+
+    public void setOrderDate(long orderDate) {
+        this.orderDate = orderDate;
+    }
+
+    public String getClient() {
+        return client;
+    }
+
+    public void setClient(String client) {
+        setClient(client, -1);
+    }
+
+    public void setClient(String client, int symbol) {
+        this.client = client;
+        this.clientSymbol = symbol;
+    }
+
+    public int getClientSymbol() {
+        return clientSymbol;
+    }
+
+    public int getAmount() {
+        return amount;
+    }
+
+    public void setAmount(int amount) {
+        this.amount = amount;
+    }
+
+    public List<String> getItems() {
+        return items;
+    }
+
+    public void addItem(String item) {
+        addItem(item, -1);
+    }
+
+    public void addItem(String item, int symbol) {
+        if (items.size() == itemSymbols.length) {
+            itemSymbols = Arrays.copyOf(itemSymbols, itemSymbols.length * 2);
+        }
+        itemSymbols[items.size()] = symbol;
+        items.add(item);
+    }
+
+    public int getItemSymbol(int index) {
+        return itemSymbols[index];
+    }
+}
@@ -0,0 +1,375 @@
+package com.petrovoleh.parser;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.petrovoleh.model.Attribute;
+import com.petrovoleh.service.StatsAccumulator;
+import com.petrovoleh.service.StatsService;
+import com.petrovoleh.util.XmlWriter;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Сховище замовлень по стовпцях для повторних запусків статистики по тій самій директорії.
+ * JSON-файли один раз перетворюються на окремий файл для кожного атрибута: orderId і amount - стовпці int,
+ * orderDate - стовпець long, client та items - стовпці номерів у словнику значень (товари всіх замовлень підряд).
+ * Подальші запуски читають лише стовпці потрібних атрибутів через відображення файлів у пам'ять, без парсингу JSON.
+ * Числа записуються в порядку байтів little-endian. Опис сховища (manifest.bin) містить кількість замовлень і товарів
+ * та шлях, розмір і час зміни кожного вихідного файлу; він записується останнім, тому його наявність означає,
+ * що перетворення завершене. Сховище перестворюється повністю, якщо набір файлів змінився.
+ */
+public class ColumnarStore {
+    private static final int MAGIC = 0x434F4C31; // "COL1" - ознака опису сховища і версія формату
+    private static final String MANIFEST = "manifest.bin";
+    private static final String COLUMN_SUFFIX = ".col";
+    private static final String DICTIONARY_SUFFIX = ".dict";
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+    private static final long MAX_SEGMENT_BYTES = 256L * 1024 * 1024; // Найбільша частина стовпця, що відображається за раз
+    private static final long MIN_SEGMENT_BYTES = 1024 * 1024; // Менші стовпці не діляться між потоками
+    private static final int NO_VALUE = -1; // Номер відсутнього значення в стовпці словника
+
+    private final Path directory; // Директорія сховища
+
+    /**
+     * Створює сховище у вказаній директорії (створює її, якщо потрібно).
+     *
+     * @param directory директорія сховища
+     * @throws IOException якщо директорію неможливо створити
+     */
+    public ColumnarStore(Path directory) throws IOException {
+        this.directory = Files.createDirectories(directory);
+    }
+
+    /**
+     * Опис сховища.
+     *
+     * @param orders кількість замовлень
+     * @param items  кількість товарів усіх замовлень
+     * @param files  вихідні файли у вигляді "шлях розмір час_зміни"
+     */
+    private record Manifest(long orders, long items, List<String> files) {}
+
+    /**
+     * Перевіряє, чи сховище створене з тих самих файлів, і жоден з них не змінився.
+     *
+     * @param files файли директорії
+     * @return true, якщо сховище можна читати замість файлів
+     */
+    public boolean isUpToDate(List<File> files) {
+        try {
+            return readManifest().files().equals(describe(orderFiles(files)));
+        } catch (NoSuchFileException e) {
+            return false;
+        } catch (IOException e) {
+            Parser.logError(directory.resolve(MANIFEST).toFile(), e);
+            return false;
+        }
+    }
+
+    /**
+     * Перетворює файли замовлень на стовпці. Файли статистики (результати програми) пропускаються.
+     * Помилки окремих файлів лише виводяться, як і під час звичайного парсингу; замовлення, прочитані до помилки, зберігаються.
+     *
+     * @param jsonFactory фабрика JSON
+     * @param files       файли директорії
+     * @throws IOException якщо стовпці неможливо записати
+     */
+    public void convert(JsonFactory jsonFactory, List<File> files) throws IOException {
+        List<File> orderFiles = orderFiles(files);
+        Files.deleteIfExists(directory.resolve(MANIFEST));
+        Dictionary clients = new Dictionary();
+        Dictionary items = new Dictionary();
+        long orders;
+        long itemCount;
+        try (ColumnWriter orderIds = new ColumnWriter(column(Attribute.ORDER_ID));
+             ColumnWriter orderDates = new ColumnWriter(column(Attribute.ORDER_DATE));
+             ColumnWriter amounts = new ColumnWriter(column(Attribute.AMOUNT));
+             ColumnWriter clientIds = new ColumnWriter(column(Attribute.CLIENT));
+             ColumnWriter itemIds = new ColumnWriter(column(Attribute.ITEM))) {
+            for (File file : orderFiles) {
+                FileRange range = FileRange.wholeFile(file);
+                try (JsonParser jsonParser = Parser.createParser(jsonFactory, range, InputMode.STREAM)) {
+                    Parser.readOrders(jsonParser, range, EnumSet.allOf(Attribute.class), record -> {
+                        orderIds.putInt(record.getOrderId());
+                        orderDates.putLong(record.getOrderDate());
+                        amounts.putInt(record.getAmount());
+                        clientIds.putInt(clients.id(record.getClient()));
+                        for (String item : record.getItems()) {
+                            itemIds.putInt(items.id(item));
+                        }
+                    });
+                } catch (UncheckedIOException e) {
+                    throw e.getCause();
+                } catch (IOException e) {
+                    Parser.logError(file, e);
+                }
+            }
+            orders = orderIds.count();
+            itemCount = itemIds.count();
+        }
+        clients.write(dictionary(Attribute.CLIENT));
+        items.write(dictionary(Attribute.ITEM));
+        writeManifest(new Manifest(orders, itemCount, describe(orderFiles)));
+    }
+
+    /**
+     * Обчислює статистику за атрибутами сервісу зі стовпців. Кожен стовпець ділиться на частини між потоками,
+     * кожна частина відображається в пам'ять і рахується в окремий накопичувач, який потім об'єднується із загальною статистикою.
+     *
+     * @param statsService сервіс, в який додається статистика
+     * @param threadCount  кількість потоків
+     * @return кількість замовлень у сховищі
+     * @throws IOException якщо сховище неможливо прочитати
+     */
+    public long scan(StatsService statsService, int threadCount) throws IOException {
+        Manifest manifest = readManifest();
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        List<Future<?>> results = new ArrayList<>();
+        for (Attribute attribute : statsService.getAttributes()) {
+            int valueSize = attribute == Attribute.ORDER_DATE ? Long.BYTES : Integer.BYTES;
+            long count = attribute == Attribute.ITEM ? manifest.items() : manifest.orders();
+            String[] dictionary = attribute == Attribute.CLIENT || attribute == Attribute.ITEM ? readDictionary(attribute) : null;
+            long bytes = count * valueSize;
+            int segments = (int) Math.max((bytes + MAX_SEGMENT_BYTES - 1) / MAX_SEGMENT_BYTES,
+                    Math.min(threadCount, bytes / MIN_SEGMENT_BYTES));
+            segments = Math.max(1, segments);
+            long perSegment = (count + segments - 1) / segments;
+            for (long first = 0; first < count; first += perSegment) {
+                long start = first * valueSize;
+                long length = Math.min(perSegment, count - first) * valueSize;
+                results.add(executor.submit(() -> {
+                    StatsAccumulator accumulator = statsService.newAccumulator();
+                    scanSegment(attribute, dictionary, start, length, accumulator);
+                    statsService.merge(accumulator);
+                    accumulator.release();
+                    return null;
+                }));
+            }
+        }
+        executor.shutdown();
+        try {
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            executor.shutdownNow();
+            throw new IOException("Interrupted while scanning columnar store", e);
+        } catch (ExecutionException e) {
+            executor.shutdownNow();
+            throw e.getCause() instanceof IOException cause ? cause : new IOException(e.getCause());
+        }
+        return manifest.orders();
+    }
+
+    /**
+     * Відображає частину стовпця в пам'ять і додає її значення до накопичувача.
+     */
+    private void scanSegment(Attribute attribute, String[] dictionary, long start, long length, StatsAccumulator accumulator) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(column(attribute), StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+        }
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        switch (attribute) {
+            case ORDER_ID, AMOUNT -> accumulator.addIntColumn(attribute, buffer.asIntBuffer());
+            case ORDER_DATE -> accumulator.addDateColumn(buffer.asLongBuffer());
+            case CLIENT, ITEM -> {
+                long[] counts = new long[dictionary.length];
+                IntBuffer ids = buffer.asIntBuffer();
+                while (ids.hasRemaining()) {
+                    int id = ids.get();
+                    if (id != NO_VALUE) {
+                        counts[id]++;
+                    }
+                }
+                accumulator.addTextCounts(attribute, dictionary, counts);
+            }
+        }
+    }
+
+    /**
+     * Залишає лише файли замовлень, впорядковані за шляхом.
+     */
+    private static List<File> orderFiles(List<File> files) {
+        List<File> orderFiles = new ArrayList<>();
+        for (File file : files) {
+            if (!XmlWriter.isStatisticsFile(file.toPath())) {
+                orderFiles.add(file);
+            }
+        }
+        orderFiles.sort(Comparator.comparing(File::getAbsolutePath));
+        return orderFiles;
+    }
+
+    private static List<String> describe(List<File> files) {
+        List<String> descriptions = new ArrayList<>();
+        for (File file : files) {
+            descriptions.add(file.getAbsolutePath() + " " + file.length() + " " + file.lastModified());
+        }
+        return descriptions;
+    }
+
+    private Path column(Attribute attribute) {
+        return directory.resolve(attribute.getName() + COLUMN_SUFFIX);
+    }
+
+    private Path dictionary(Attribute attribute) {
+        return directory.resolve(attribute.getName() + DICTIONARY_SUFFIX);
+    }
+
+    private Manifest readManifest() throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(directory.resolve(MANIFEST))))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a columnar store manifest or unsupported version");
+            }
+            long orders = in.readLong();
+            long items = in.readLong();
+            int fileCount = in.readInt();
+            List<String> files = new ArrayList<>(fileCount);
+            for (int i = 0; i < fileCount; i++) {
+                files.add(in.readUTF());
+            }
+            return new Manifest(orders, items, files);
+        }
+    }
+
+    private void writeManifest(Manifest manifest) throws IOException {
+        // Запис у тимчасовий файл і перейменування, щоб незавершений опис не вважався дійсним
+        Path temporary = directory.resolve(MANIFEST + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+            out.writeInt(MAGIC);
+            out.writeLong(manifest.orders());
+            out.writeLong(manifest.items());
+            out.writeInt(manifest.files().size());
+            for (String file : manifest.files()) {
+                out.writeUTF(file);
+            }
+        }
+        Files.move(temporary, directory.resolve(MANIFEST), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private String[] readDictionary(Attribute attribute) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(dictionary(attribute))))) {
+            String[] values = new String[in.readInt()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = in.readUTF();
+            }
+            return values;
+        }
+    }
+
+    /**
+     * Словник значень текстового атрибута: кожне нове значення отримує наступний номер.
+     */
+    private static class Dictionary {
+        private final Map<String, Integer> ids = new HashMap<>(); // Значення -> номер
+        private final List<String> values = new ArrayList<>(); // Значення за номерами
+
+        int id(String value) {
+            if (value == null) {
+                return NO_VALUE;
+            }
+            Integer id = ids.get(value);
+            if (id == null) {
+                id = values.size();
+                ids.put(value, id);
+                values.add(value);
+            }
+            return id;
+        }
+
+        void write(Path path) throws IOException {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+                out.writeInt(values.size());
+                for (String value : values) {
+                    out.writeUTF(value);
+                }
+            }
+        }
+    }
+
+    /**
+     * Послідовний запис чисел у файл стовпця через буфер. Помилки запису передаються як {@link UncheckedIOException},
+     * бо запис виконується з дії, яку викликає парсер.
+     */
+    private static class ColumnWriter implements Closeable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        private long count; // Кількість записаних значень
+
+        ColumnWriter(Path path) throws IOException {
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        }
+
+        void putInt(int value) {
+            ensureRemaining(Integer.BYTES);
+            buffer.putInt(value);
+            count++;
+        }
+
+        void putLong(long value) {
+            ensureRemaining(Long.BYTES);
+            buffer.putLong(value);
+            count++;
+        }
+
+        long count() {
+            return count;
+        }
+
+        private void ensureRemaining(int bytes) {
+            if (buffer.remaining() < bytes) {
+                try {
+                    flush();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                flush();
+            } finally {
+                channel.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package com.petrovoleh.parser;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.petrovoleh.model.Attribute;
+import com.petrovoleh.service.StatsAccumulator;
+import com.petrovoleh.service.StatsOptions;
+import com.petrovoleh.service.StatsService;
+import com.petrovoleh.util.XmlWriter;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Цей клас стежить за директорією з файлами замовлень і підтримує статистику в актуальному стані.
+ * Парсяться лише нові та змінені файли; файл обробляється після того, як протягом інтервалу затримки
+ * для нього не було нових подій (тобто його запис завершено). Статистика кожного файлу зберігається окремо,
+ * тому зміна чи видалення файлу замінює лише його внесок. XML-файли перезаписуються не частіше одного разу за інтервал.
+ * Замінена або видалена статистика звільняє свої файли вивантаження на диск.
+ * Крок спостереження ({@link #onEvent}, {@link #processSettledFiles}) можна виконувати без {@link WatchService} і з власним годинником,
+ * що використовується в тестах.
+ */
+public class DirectoryWatcher {
+    public static final long DEFAULT_DEBOUNCE_MILLIS = 2000;
+
+    private final JsonFactory jsonFactory; // Фабрика JSON
+    private final Path directory; // Директорія, за якою ведеться спостереження
+    private final Set<Attribute> attributes; // Атрибути для обчислення статистики
+    private final StatsOptions statsOptions; // Налаштування обчислення статистики
+    private final ParserOptions options; // Налаштування парсера
+    private final long debounceMillis; // Інтервал затримки в мілісекундах
+    private boolean sortByCount; // Чи сортувати значення в XML за кількістю
+
+    private final Map<Path, StatsAccumulator> partials = new HashMap<>(); // Статистика кожного файлу
+    private final Map<Path, Long> pending = new HashMap<>(); // Файли, що очікують обробки -> час останньої події (Long.MIN_VALUE - обробити без затримки)
+    private volatile StatsService statistics; // Загальна статистика
+    private boolean dirty; // Чи змінилась статистика після останнього запису XML
+    private long lastWriteMillis; // Час останнього запису XML
+    private LongSupplier clock = System::currentTimeMillis; // Джерело поточного часу в мілісекундах
+
+    /**
+     * Створює спостерігача за директорією.
+     *
+     * @param jsonFactory    фабрика JSON
+     * @param directoryPath  шлях до директорії
+     * @param attributes     атрибути для обчислення статистики
+     * @param statsOptions   налаштування обчислення статистики
+     * @param options        налаштування парсера
+     * @param debounceMillis інтервал затримки в мілісекундах
+     */
+    public DirectoryWatcher(JsonFactory jsonFactory, String directoryPath, Set<Attribute> attributes,
+                            StatsOptions statsOptions, ParserOptions options, long debounceMillis) {
+        this.jsonFactory = jsonFactory;
+        this.directory = Path.of(directoryPath);
+        this.attributes = attributes;
+        this.statsOptions = statsOptions;
+        this.options = options;
+        this.debounceMillis = debounceMillis;
+        this.statistics = new StatsService(attributes, statsOptions);
+    }
+
+    /**
+     * Запускає спостереження. Спочатку обробляються всі наявні файли, далі - лише нові та змінені.
+     * Метод працює, доки потік не буде перервано.
+     *
+     * @throws IOException у випадку помилки вводу/виводу
+     */
+    public void run() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            throw new IOException("Directory does not exist: " + directory);
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(options.getThreadCount());
+        try (WatchService watchService = FileSystems.getDefault().newWatchService()) {
+            directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+            scan();
+            System.out.println("Watching " + directory.toAbsolutePath() + " for new order files...");
+            while (!Thread.currentThread().isInterrupted()) {
+                WatchKey key = watchService.poll(debounceMillis, TimeUnit.MILLISECONDS);
+                if (key != null) {
+                    collectEvents(key);
+                }
+                processSettledFiles(executor);
+                writeStatisticsIfDue();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Додає всі наявні файли директорії до черги обробки без затримки.
+     *
+     * @throws IOException у випадку помилки вводу/виводу
+     */
+    public void scan() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                pending.put(file, Long.MIN_VALUE);
+            }
+        }
+    }
+
+    /**
+     * Записує події спостереження в чергу файлів, що очікують обробки.
+     *
+     * @param key ключ спостереження з подіями
+     */
+    private void collectEvents(WatchKey key) {
+        for (WatchEvent<?> event : key.pollEvents()) {
+            onEvent(event.kind(), (Path) event.context());
+        }
+        key.reset();
+    }
+
+    /**
+     * Обробляє одну подію спостереження: файл потрапляє в чергу обробки з часом події.
+     * Власні XML-файли ігноруються, а при переповненні ({@link StandardWatchEventKinds#OVERFLOW}) повторно перевіряються всі відомі файли.
+     *
+     * @param kind тип події
+     * @param name назва файлу в директорії (для переповнення - null)
+     */
+    public void onEvent(WatchEvent.Kind<?> kind, Path name) {
+        long now = clock.getAsLong();
+        if (kind == StandardWatchEventKinds.OVERFLOW) {
+            // Частину подій втрачено - перевіряємо всі файли повторно
+            partials.keySet().forEach(file -> pending.put(file, now));
+            return;
+        }
+        Path file = directory.resolve(name);
+        if (!XmlWriter.isStatisticsFile(file)) {
+            pending.put(file, now);
+        }
+    }
+
+    /**
+     * Парсить файли, для яких протягом інтервалу затримки не було нових подій, і оновлює статистику.
+     *
+     * @param executor пул потоків для парсингу
+     * @throws InterruptedException якщо потік було перервано
+     */
+    public void processSettledFiles(ExecutorService executor) throws InterruptedException {
+        long now = clock.getAsLong();
+        List<Path> removed = new ArrayList<>();
+        Map<Path, Future<StatsAccumulator>> parsed = new HashMap<>();
+        for (Iterator<Map.Entry<Path, Long>> it = pending.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<Path, Long> entry = it.next();
+            if (entry.getValue() != Long.MIN_VALUE && now - entry.getValue() < debounceMillis) {
+                continue;
+            }
+            it.remove();
+            Path file = entry.getKey();
+            if (!Files.isRegularFile(file)) {
+                removed.add(file);
+            } else if (!XmlWriter.isStatisticsFile(file)) {
+                parsed.put(file, executor.submit(() -> parseFile(file.toFile())));
+            }
+        }
+
+        boolean rebuild = false;
+        for (Path file : removed) {
+            StatsAccumulator previous = partials.remove(file);
+            if (previous != null) {
+                previous.release();
+                rebuild = true;
+            }
+        }
+        for (Map.Entry<Path, Future<StatsAccumulator>> entry : parsed.entrySet()) {
+            try {
+                StatsAccumulator partial = entry.getValue().get();
+                StatsAccumulator previous = partials.put(entry.getKey(), partial);
+                if (previous != null) {
+                    previous.release();
+                    rebuild = true;
+                } else {
+                    statistics.merge(partial);
+                }
+            } catch (ExecutionException e) {
+                // Файл ще дописується або некоректний - він буде оброблений при наступній події
+                System.err.println("Error: " + e.getCause().getMessage() + " in file: " + entry.getKey().toAbsolutePath());
+            }
+        }
+        if (rebuild) {
+            // Внесок зміненого або видаленого файлу неможливо відняти, тому загальна статистика збирається заново
+            StatsService rebuilt = new StatsService(attributes, statsOptions);
+            partials.values().forEach(rebuilt::merge);
+            StatsService previous = statistics;
+            statistics = rebuilt;
+            previous.release();
+        }
+        dirty |= rebuild || !parsed.isEmpty();
+    }
+
+    /**
+     * Парсить один файл у власний накопичувач.
+     *
+     * @param file файл для парсингу
+     * @return статистика файлу
+     * @throws IOException у випадку помилки вводу/виводу
+     */
+    private StatsAccumulator parseFile(File file) throws IOException {
+        StatsAccumulator accumulator = statistics.newAccumulator();
+        Parser.parseRange(jsonFactory, FileRange.wholeFile(file), accumulator, options.getInputMode());
+        return accumulator;
+    }
+
+    /**
+     * Перезаписує XML-файли, якщо статистика змінилась і з останнього запису минув інтервал затримки.
+     */
+    private void writeStatisticsIfDue() {
+        long now = clock.getAsLong();
+        if (!dirty || now - lastWriteMillis < debounceMillis) {
+            return;
+        }
+        XmlWriter.writeStatisticsToXML(directory.toString(), statistics, sortByCount);
+        dirty = false;
+        lastWriteMillis = now;
+    }
+
+    /* Гетери і сетери */
+    public StatsService getStatistics() {
+        return statistics;
+    }
+
+    public void setSortByCount(boolean sortByCount) {
+        this.sortByCount = sortByCount;
+    }
+
+    public void setClock(LongSupplier clock) {
+        this.clock = clock;
+    }
+}
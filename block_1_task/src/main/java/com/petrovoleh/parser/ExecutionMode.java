@@ -0,0 +1,24 @@
+package com.petrovoleh.parser;
+
+/**
+ * Спосіб розподілу завдань парсера (файлів або їх діапазонів) між потоками.
+ */
+public enum ExecutionMode {
+    /**
+     * Фіксований пул з {@link ParserOptions#getThreadCount()} потоків, кожен з яких забирає завдання зі спільної черги
+     * і рахує статистику у власному накопичувачі.
+     */
+    POOL,
+    /**
+     * Окремий віртуальний потік на кожне завдання. Файл спочатку читається в пам'ять без обмеження кількості потоків,
+     * що одночасно чекають на диск чи мережеву файлову систему (лише в межах бюджету пам'яті), а парсинг обмежується
+     * семафором з кількістю дозволів, що дорівнює кількості ядер. Якщо віртуальні потоки недоступні (Java до 21),
+     * завдання виконуються пулом звичайних потоків.
+     */
+    VIRTUAL,
+    /**
+     * Конвеєр з трьох етапів з окремою кількістю потоків: читання файлів у буфери, парсинг у пакети записів
+     * і підрахунок статистики (див. {@link Pipeline}). Файли не розбиваються на діапазони, кеш не підтримується.
+     */
+    PIPELINE
+}
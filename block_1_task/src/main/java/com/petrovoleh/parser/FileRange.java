@@ -0,0 +1,223 @@
+package com.petrovoleh.parser;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Цей клас представляє діапазон байтів JSON-файлу, який парситься одним потоком.
+ * Діапазон починається на початку файлу або на початку об'єкта замовлення верхнього рівня
+ * і містить усі замовлення, що починаються до його кінця.
+ */
+public class FileRange {
+    private static final int SCAN_BUFFER_SIZE = 64 * 1024; // Розмір буфера для пошуку меж об'єктів
+    private static final int LOOK_BEHIND = 256; // Скільки байтів перевіряється перед кандидатом на межу
+    private static final long MIN_RANGE_SIZE = 1024 * 1024; // Мінімальний розмір діапазону
+    private static final byte[] ARRAY_START = {'['};
+
+    private final File file; // Файл
+    private final long start; // Початок діапазону (включно)
+    private final long end; // Кінець діапазону (не включно)
+
+    /**
+     * Створює діапазон файлу.
+     * @param file  файл
+     * @param start початок діапазону
+     * @param end   кінець діапазону
+     */
+    public FileRange(File file, long start, long end) {
+        this.file = file;
+        this.start = start;
+        this.end = end;
+    }
+
+    /**
+     * Створює діапазон, що охоплює весь файл.
+     * @param file файл
+     * @return діапазон
+     */
+    public static FileRange wholeFile(File file) {
+        return new FileRange(file, 0, file.length());
+    }
+
+    /**
+     * Розбиває файл з масивом замовлень на вказану кількість діапазонів приблизно однакового розміру.
+     * Межі зсуваються вперед до найближчого початку об'єкта верхнього рівня, тому кожне замовлення
+     * потрапляє рівно в один діапазон.
+     *
+     * @param jsonFactory фабрика JSON
+     * @param file        файл для розбиття
+     * @param parts       бажана кількість діапазонів
+     * @return список діапазонів (один, якщо файл замалий або межі не знайдено)
+     * @throws IOException у випадку помилки вводу/виводу
+     */
+    public static List<FileRange> split(JsonFactory jsonFactory, File file, int parts) throws IOException {
+        long length = file.length();
+        parts = (int) Math.max(1, Math.min(parts, length / MIN_RANGE_SIZE));
+        List<Long> starts = new ArrayList<>();
+        starts.add(0L);
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            for (int i = 1; i < parts; i++) {
+                long from = Math.max(length / parts * i, starts.get(starts.size() - 1) + 1);
+                long boundary = findObjectStart(jsonFactory, channel, from);
+                if (boundary < 0) {
+                    break;
+                }
+                if (boundary > starts.get(starts.size() - 1)) {
+                    starts.add(boundary);
+                }
+            }
+        }
+        List<FileRange> ranges = new ArrayList<>();
+        for (int i = 0; i < starts.size(); i++) {
+            long rangeEnd = i + 1 < starts.size() ? starts.get(i + 1) : length;
+            ranges.add(new FileRange(file, starts.get(i), rangeEnd));
+        }
+        return ranges;
+    }
+
+    /**
+     * Шукає початок першого об'єкта верхнього рівня, що починається не раніше вказаної позиції.
+     * Кандидат - це '{', перед яким (з точністю до пробілів) стоять "}," і за яким коректно парситься цілий об'єкт,
+     * після якого йде наступний елемент масиву або кінець масиву. Перевірка відсікає збіги всередині рядків.
+     *
+     * @param jsonFactory фабрика JSON
+     * @param channel     канал файлу
+     * @param from        позиція, з якої починається пошук
+     * @return позиція початку об'єкта або -1, якщо об'єкт не знайдено
+     * @throws IOException у випадку помилки вводу/виводу
+     */
+    static long findObjectStart(JsonFactory jsonFactory, FileChannel channel, long from) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+        long position = from;
+        while (channel.read(buffer.clear(), position) > 0) {
+            buffer.flip();
+            for (int i = 0; i < buffer.limit(); i++) {
+                if (buffer.get(i) == '{') {
+                    long candidate = position + i;
+                    if (isPrecededByElementSeparator(channel, candidate) && isObjectStart(jsonFactory, channel, candidate)) {
+                        return candidate;
+                    }
+                }
+            }
+            position += buffer.limit();
+        }
+        return -1;
+    }
+
+    /**
+     * Перевіряє, що перед позицією (з точністю до пробілів) стоять символи "}" та ",".
+     */
+    private static boolean isPrecededByElementSeparator(FileChannel channel, long position) throws IOException {
+        int size = (int) Math.min(LOOK_BEHIND, position);
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        channel.read(buffer, position - size);
+        int i = skipWhitespaceBackwards(buffer, size - 1);
+        if (i < 0 || buffer.get(i) != ',') {
+            return false;
+        }
+        i = skipWhitespaceBackwards(buffer, i - 1);
+        return i >= 0 && buffer.get(i) == '}';
+    }
+
+    private static int skipWhitespaceBackwards(ByteBuffer buffer, int i) {
+        while (i >= 0 && isWhitespace(buffer.get(i))) {
+            i--;
+        }
+        return i;
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+    }
+
+    /**
+     * Перевіряє, що з позиції починається цілий JSON-об'єкт, за яким іде наступний елемент масиву або кінець масиву.
+     */
+    private static boolean isObjectStart(JsonFactory jsonFactory, FileChannel channel, long position) {
+        try (JsonParser jsonParser = jsonFactory.createParser(openArrayStream(channel, position))) {
+            jsonParser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+            if (jsonParser.nextToken() != JsonToken.START_ARRAY || jsonParser.nextToken() != JsonToken.START_OBJECT) {
+                return false;
+            }
+            jsonParser.skipChildren();
+            JsonToken next = jsonParser.nextToken();
+            return next == JsonToken.START_OBJECT || next == JsonToken.END_ARRAY;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Відкриває потік, що читає файл з вказаної позиції. Для діапазонів не з початку файлу
+     * перед даними додається '[', щоб послідовність об'єктів "{...}, {...}" була коректним JSON-масивом.
+     *
+     * @return потік байтів діапазону
+     * @throws IOException у випадку помилки вводу/виводу
+     */
+    public InputStream openStream() throws IOException {
+        if (start == 0) {
+            return Channels.newInputStream(FileChannel.open(file.toPath(), StandardOpenOption.READ));
+        }
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        return openArrayStream(channel, start);
+    }
+
+    private static InputStream openArrayStream(FileChannel channel, long position) throws IOException {
+        return withArrayStart(Channels.newInputStream(channel.position(position)));
+    }
+
+    /**
+     * Додає '[' перед даними потоку.
+     * @param input потік, що починається з об'єкта верхнього рівня
+     * @return потік, що починається з '['
+     */
+    static InputStream withArrayStart(InputStream input) {
+        return new SequenceInputStream(new ByteArrayInputStream(ARRAY_START), input);
+    }
+
+    /**
+     * Повертає зсув, який треба додати до позиції токена в потоці, щоб отримати позицію у файлі.
+     * @return зсув
+     */
+    public long getStreamOffset() {
+        return start == 0 ? 0 : start - ARRAY_START.length;
+    }
+
+    /**
+     * Перевіряє, чи діапазон охоплює весь файл.
+     * @return true, якщо діапазон охоплює весь файл
+     */
+    public boolean isWholeFile() {
+        return start == 0 && end >= file.length();
+    }
+
+    public long length() {
+        return end - start;
+    }
+
+    /* Гетери */
+    public File getFile() {
+        return file;
+    }
+
+    public long getStart() {
+        return start;
+    }
+
+    public long getEnd() {
+        return end;
+    }
+}
@@ -0,0 +1,109 @@
+package com.petrovoleh.parser;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Частина файлів директорії, яку обробляє один процес при розподіленій обробці (див. {@link com.petrovoleh.service.PartialStats}).
+ * Файли розподіляються за номером у впорядкованому за назвою списку (суцільними блоками), за залишком від ділення хешу назви
+ * або явним списком назв. Розподіл залежить лише від назв файлів, тому процеси на різних машинах зі спільною файловою системою
+ * незалежно вибирають частини, що не перетинаються і разом покривають усі файли.
+ */
+public class FileShard {
+    private final int index; // Номер частини (від 0)
+    private final int count; // Кількість частин (0 - явний список файлів)
+    private final boolean modulo; // Чи розподіляти за залишком від ділення хешу назви (інакше - суцільними блоками)
+    private final Set<String> fileNames; // Назви файлів частини (null - розподіл за номером)
+
+    private FileShard(int index, int count, boolean modulo, Set<String> fileNames) {
+        this.index = index;
+        this.count = count;
+        this.modulo = modulo;
+        this.fileNames = fileNames;
+    }
+
+    /**
+     * Створює частину з суцільного блоку файлів: файли впорядковуються за назвою і діляться на count блоків майже однакового розміру.
+     * @param index номер частини (від 0 до count - 1)
+     * @param count кількість частин
+     * @return частина файлів
+     */
+    public static FileShard byIndex(int index, int count) {
+        validate(index, count);
+        return new FileShard(index, count, false, null);
+    }
+
+    /**
+     * Створює частину з файлів, у яких залишок від ділення хешу назви на count дорівнює index.
+     * На відміну від {@link #byIndex}, нові файли не змінюють частин, до яких належать наявні.
+     * @param index номер частини (від 0 до count - 1)
+     * @param count кількість частин
+     * @return частина файлів
+     */
+    public static FileShard byModulo(int index, int count) {
+        validate(index, count);
+        return new FileShard(index, count, true, null);
+    }
+
+    /**
+     * Створює частину з файлів з вказаними назвами.
+     * @param fileNames назви файлів у директорії
+     * @return частина файлів
+     */
+    public static FileShard ofFiles(List<String> fileNames) {
+        if (fileNames.isEmpty()) {
+            throw new IllegalArgumentException("The file list must not be empty.");
+        }
+        return new FileShard(0, 0, false, new HashSet<>(fileNames));
+    }
+
+    private static void validate(int index, int count) {
+        if (count <= 0 || index < 0 || index >= count) {
+            throw new IllegalArgumentException("The shard must be I/N with 0 <= I < N: " + index + "/" + count);
+        }
+    }
+
+    /**
+     * Вибирає файли частини. Назви зі списку, яких немає в директорії, виводяться як помилки.
+     * @param files усі файли директорії
+     * @return файли частини, впорядковані за назвою
+     */
+    public List<File> select(List<File> files) {
+        List<File> sorted = new ArrayList<>(files);
+        sorted.sort(Comparator.comparing(File::getName));
+        if (fileNames != null) {
+            List<File> selected = new ArrayList<>();
+            Set<String> missing = new HashSet<>(fileNames);
+            for (File file : sorted) {
+                if (missing.remove(file.getName())) {
+                    selected.add(file);
+                }
+            }
+            for (String name : missing) {
+                Parser.logError(null, new IOException("File of the shard not found in directory: " + name));
+            }
+            return selected;
+        }
+        if (modulo) {
+            // Хеш рядка визначений специфікацією мови, тому однаковий для всіх процесів
+            sorted.removeIf(file -> Math.floorMod(file.getName().hashCode(), count) != index);
+            return sorted;
+        }
+        int from = (int) ((long) sorted.size() * index / count);
+        int to = (int) ((long) sorted.size() * (index + 1) / count);
+        return new ArrayList<>(sorted.subList(from, to));
+    }
+
+    @Override
+    public String toString() {
+        if (fileNames != null) {
+            return fileNames.size() + " listed file(s)";
+        }
+        return index + "/" + count + (modulo ? " (modulo)" : " (index)");
+    }
+}
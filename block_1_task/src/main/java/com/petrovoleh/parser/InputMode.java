@@ -0,0 +1,104 @@
+package com.petrovoleh.parser;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Спосіб читання файлу парсером. Усі режими подають Jackson байти UTF-8 (без декодування в символи до парсера),
+ * різниця лише в тому, звідки ці байти беруться.
+ */
+public enum InputMode {
+    /**
+     * Потокове читання файлу через системні виклики read().
+     */
+    STREAM {
+        @Override
+        JsonParser createParser(JsonFactory jsonFactory, FileRange range) throws IOException {
+            if (range.isWholeFile()) {
+                return jsonFactory.createParser(range.getFile());
+            }
+            return jsonFactory.createParser(range.openStream());
+        }
+    },
+    /**
+     * Відображення файлу в пам'ять. Jackson копіює байти напряму зі сторінок файлового кешу у свій буфер,
+     * без системних викликів на кожен блок. Ділянки, більші за 2 ГБ, читаються потоково.
+     */
+    MAPPED {
+        @Override
+        JsonParser createParser(JsonFactory jsonFactory, FileRange range) throws IOException {
+            long size = range.getFile().length() - range.getStart();
+            if (size > Integer.MAX_VALUE) {
+                return STREAM.createParser(jsonFactory, range);
+            }
+            MappedByteBuffer buffer;
+            try (FileChannel channel = FileChannel.open(range.getFile().toPath(), StandardOpenOption.READ)) {
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, range.getStart(), size);
+            }
+            InputStream input = new ByteBufferBackedInputStream(buffer);
+            return jsonFactory.createParser(range.getStart() == 0 ? input : FileRange.withArrayStart(input));
+        }
+    },
+    /**
+     * Читання цілого файлу в буфер потоку, який перевикористовується між файлами.
+     * Jackson парсить масив байтів напряму, без жодного проміжного копіювання.
+     * Діапазони великих файлів та файли, більші за {@link #MAX_BUFFER_SIZE}, відображаються в пам'ять.
+     * Потік зберігає буфер не більше {@link #MAX_RETAINED_BUFFER_SIZE}; для більших файлів буфер створюється на один файл,
+     * тому постійно зайнято не більше кількості потоків × 16 МБ, а під час читання великих файлів - до кількості потоків × 256 МБ.
+     */
+    BUFFERED {
+        @Override
+        JsonParser createParser(JsonFactory jsonFactory, FileRange range) throws IOException {
+            long size = range.getFile().length();
+            if (!range.isWholeFile() || size > MAX_BUFFER_SIZE) {
+                return MAPPED.createParser(jsonFactory, range);
+            }
+            byte[] buffer = BUFFERS.get();
+            if (buffer.length < size) {
+                buffer = new byte[(int) size];
+                if (size <= MAX_RETAINED_BUFFER_SIZE) {
+                    BUFFERS.set(buffer);
+                }
+            }
+            int length = 0;
+            try (FileChannel channel = FileChannel.open(range.getFile().toPath(), StandardOpenOption.READ)) {
+                ByteBuffer target = ByteBuffer.wrap(buffer, 0, (int) size);
+                while (target.hasRemaining() && channel.read(target) > 0) {
+                    length = target.position();
+                }
+            }
+            return jsonFactory.createParser(buffer, 0, length);
+        }
+    };
+
+    /**
+     * Максимальний розмір файлу, який читається в буфер повністю.
+     */
+    public static final int MAX_BUFFER_SIZE = 256 * 1024 * 1024;
+
+    /**
+     * Максимальний розмір буфера, який потік зберігає для наступних файлів.
+     */
+    public static final int MAX_RETAINED_BUFFER_SIZE = 16 * 1024 * 1024;
+
+    // Буфер кожного потоку, який росте до розміру найбільшого прочитаного файлу, але не більше MAX_RETAINED_BUFFER_SIZE
+    private static final ThreadLocal<byte[]> BUFFERS = ThreadLocal.withInitial(() -> new byte[0]);
+
+    /**
+     * Створює парсер JSON для діапазону файлу.
+     *
+     * @param jsonFactory фабрика JSON
+     * @param range       діапазон файлу
+     * @return парсер JSON, позиції токенів якого відраховуються від {@link FileRange#getStreamOffset()}
+     * @throws IOException у випадку помилки вводу/виводу
+     */
+    abstract JsonParser createParser(JsonFactory jsonFactory, FileRange range) throws IOException;
+}
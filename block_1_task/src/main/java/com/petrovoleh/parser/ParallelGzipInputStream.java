@@ -0,0 +1,464 @@
+package com.petrovoleh.parser;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * Потік розпакованих байтів gzip-файлу. Розпаковування виконується в окремих потоках, тому воно йде одночасно з парсингом.
+ * Файл з кількох gzip-блоків (member), наприклад склеєний з кількох .gz або записаний bgzip/pigz, розпаковується
+ * кількома блоками паралельно: межі блоків заздалегідь невідомі, тому кожна позиція із заголовком gzip вважається
+ * кандидатом на початок блока. Кандидати шукаються лише після того, як перший блок закінчився раніше кінця файлу,
+ * і лише від кінця попереднього блока, тому звичайний файл з одного блока читається один раз. Кандидат, що виявився випадковим збігом усередині стиснених даних, відкидається,
+ * бо справжній блок закінчується перевіркою CRC32 і довжини, а наступний блок починається точно після нього.
+ * Розпаковані дані кожного блока передаються через обмежену чергу, тому пам'ять не залежить від розміру файлу.
+ */
+public class ParallelGzipInputStream extends InputStream {
+    private static final int CHUNK_SIZE = 64 * 1024; // Розмір частини розпакованих даних
+    private static final int QUEUE_CAPACITY = 4; // Скільки частин блока може чекати на парсер
+    private static final int SCAN_BUFFER_SIZE = 64 * 1024; // Розмір буфера для пошуку заголовків блоків
+    private static final int HEADER_SIZE = 10; // Розмір обов'язкової частини заголовка gzip
+    private static final int TRAILER_SIZE = 8; // CRC32 і довжина розпакованих даних
+    private static final int FLAG_HCRC = 2;
+    private static final int FLAG_EXTRA = 4;
+    private static final int FLAG_NAME = 8;
+    private static final int FLAG_COMMENT = 16;
+    private static final int FLAG_RESERVED = 0xE0;
+    private static final byte[] END = new byte[0]; // Ознака кінця блока в черзі
+
+    // Потоків розпаковування не більше, ніж ядер, а без роботи вони завершуються. Блоки виконуються в порядку додавання,
+    // тому поточний блок кожного файлу вже розпаковується, і блоки, що чекають на свого парсера, не блокують інші файли
+    private static final AtomicInteger threadNumber = new AtomicInteger();
+    private static final ThreadPoolExecutor executor = newExecutor(Runtime.getRuntime().availableProcessors());
+
+    private final File file; // Стиснений файл
+    private final FileChannel channel; // Канал файлу (позиційне читання безпечне для кількох потоків)
+    private final long length; // Розмір стисненого файлу
+    private final int window; // Скільки блоків розпаковується одночасно
+    private final ArrayDeque<Member> members = new ArrayDeque<>(); // Кандидати, що розпаковуються, за зростанням позиції
+    private final ByteBuffer scanBuffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+    private long scanStart; // Позиція файлу, з якої прочитано буфер пошуку
+    private long scanPosition; // Позиція, з якої продовжується пошук кандидатів
+    private long expected; // Позиція, з якої починається наступний справжній блок
+    private Member current; // Блок, дані якого зараз читаються
+    private byte[] chunk; // Поточна частина розпакованих даних
+    private int chunkPosition; // Позиція в поточній частині
+    private boolean finished; // Чи прочитано всі блоки
+    private boolean multiMember; // Чи закінчився перший блок раніше кінця файлу (лише тоді шукаються кандидати)
+
+    /**
+     * Відкриває gzip-файл, розпаковуючи до {@code Runtime.availableProcessors()} блоків одночасно.
+     *
+     * @param file стиснений файл
+     * @throws IOException якщо файл неможливо відкрити
+     */
+    public ParallelGzipInputStream(File file) throws IOException {
+        this(file, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Відкриває gzip-файл.
+     *
+     * @param file   стиснений файл
+     * @param window скільки блоків розпаковується одночасно (не менше одного)
+     * @throws IOException якщо файл неможливо відкрити
+     */
+    public ParallelGzipInputStream(File file, int window) throws IOException {
+        if (window < 1) {
+            throw new IllegalArgumentException("The number of members decompressed at once must be positive.");
+        }
+        this.file = file;
+        this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        this.length = channel.size();
+        this.window = window;
+        scanBuffer.limit(0);
+    }
+
+    private static ThreadPoolExecutor newExecutor(int threads) {
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), task -> {
+            Thread thread = new Thread(task, "gzip-inflater-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    /**
+     * Перевіряє, чи файл стиснений gzip: за розширенням .gz, а для файлів з розширенням, відмінним від .json,
+     * - за першими байтами. Файли .json не відкриваються, щоб не додавати зайвого читання для звичайних файлів.
+     *
+     * @param file файл
+     * @return true, якщо файл стиснений gzip
+     */
+    public static boolean isGzip(File file) {
+        String name = file.getName();
+        if (name.endsWith(".gz")) {
+            return true;
+        }
+        if (name.endsWith(".json")) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(4);
+            while (magic.hasRemaining() && channel.read(magic) > 0) {
+                // Читання перших байтів
+            }
+            return magic.position() == magic.capacity() && isHeader(magic.array(), 0);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] single = new byte[1];
+        return read(single, 0, 1) < 0 ? -1 : single[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int count) throws IOException {
+        if (count == 0) {
+            return 0;
+        }
+        while (chunk == null || chunkPosition == chunk.length) {
+            if (!advance()) {
+                return -1;
+            }
+        }
+        int n = Math.min(count, chunk.length - chunkPosition);
+        System.arraycopy(chunk, chunkPosition, buffer, offset, n);
+        chunkPosition += n;
+        return n;
+    }
+
+    @Override
+    public void close() throws IOException {
+        finished = true;
+        if (current != null) {
+            current.cancel();
+        }
+        for (Member member : members) {
+            member.cancel();
+        }
+        members.clear();
+        channel.close();
+    }
+
+    /**
+     * Переходить до наступної частини розпакованих даних або до наступного блока.
+     *
+     * @return false, якщо всі блоки прочитано
+     * @throws IOException якщо блок пошкоджений
+     */
+    private boolean advance() throws IOException {
+        if (finished) {
+            return false;
+        }
+        if (current == null && !nextMember()) {
+            finished = true;
+            return false;
+        }
+        byte[] next;
+        try {
+            next = current.chunks.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for decompressed data");
+        }
+        if (next == END) {
+            if (current.error != null) {
+                throw new IOException("Corrupted GZIP member at offset " + current.offset + ": " + current.error.getMessage(), current.error);
+            }
+            expected = current.end;
+            current = null;
+            chunk = null;
+        } else {
+            chunk = next;
+            chunkPosition = 0;
+        }
+        return true;
+    }
+
+    /**
+     * Вибирає блок, що починається точно після попереднього. Перший блок починається на початку файлу і розпаковується без пошуку;
+     * якщо він закінчився раніше кінця файлу, далі кандидати шукаються від кінця попереднього блока. Кандидати перед
+     * очікуваною позицією (збіги всередині попереднього блока) скасовуються, а вікно кандидатів доповнюється.
+     *
+     * @return false, якщо справжніх блоків більше немає (решта файлу ігнорується, як у {@link java.util.zip.GZIPInputStream})
+     * @throws IOException якщо файл не починається із заголовка gzip
+     */
+    private boolean nextMember() throws IOException {
+        if (!multiMember) {
+            if (expected == 0) {
+                if (length < 4 || !isHeader(readHead(), 0)) {
+                    throw new ZipException("Not in GZIP format");
+                }
+                current = new Member(0);
+                executor.execute(current::run);
+                return true;
+            }
+            if (expected >= length) {
+                close();
+                return false;
+            }
+            multiMember = true;
+        }
+        // Пошук продовжується від кінця попереднього блока: раніше за нього справжніх блоків немає
+        scanPosition = Math.max(scanPosition, expected);
+        while (true) {
+            long candidate;
+            while (members.size() < window && (candidate = nextCandidate()) >= 0) {
+                Member member = new Member(candidate);
+                executor.execute(member::run);
+                members.add(member);
+            }
+            Member member = members.poll();
+            if (member != null && member.offset < expected) {
+                member.cancel();
+                continue;
+            }
+            if (member == null || member.offset > expected) {
+                if (member != null) {
+                    member.cancel();
+                }
+                close();
+                return false;
+            }
+            current = member;
+            return true;
+        }
+    }
+
+    /**
+     * Читає перші 4 байти файлу.
+     */
+    private byte[] readHead() throws IOException {
+        ByteBuffer head = ByteBuffer.allocate(4);
+        while (head.hasRemaining() && channel.read(head, head.position()) > 0) {
+            // Читання перших байтів
+        }
+        return head.array();
+    }
+
+    /**
+     * Шукає наступну позицію, з якої починається заголовок gzip.
+     *
+     * @return позиція кандидата або -1, якщо до кінця файлу кандидатів немає
+     * @throws IOException у випадку помилки вводу/виводу
+     */
+    private long nextCandidate() throws IOException {
+        while (scanPosition + 4 <= length) {
+            int from = (int) (scanPosition - scanStart);
+            if (scanPosition < scanStart || from + 4 > scanBuffer.limit()) {
+                scanStart = scanPosition;
+                from = 0;
+                scanBuffer.clear();
+                while (scanBuffer.hasRemaining() && channel.read(scanBuffer, scanStart + scanBuffer.position()) > 0) {
+                    // Читання блоку для пошуку
+                }
+                scanBuffer.flip();
+            }
+            byte[] bytes = scanBuffer.array();
+            int limit = scanBuffer.limit();
+            for (int i = from; i + 4 <= limit; i++) {
+                if (isHeader(bytes, i)) {
+                    scanPosition = scanStart + i + 1;
+                    return scanStart + i;
+                }
+            }
+            // Останні 3 байти блоку перевіряються разом з наступним блоком
+            scanPosition = scanStart + Math.max(1, limit - 3);
+        }
+        return -1;
+    }
+
+    /**
+     * Перевіряє, чи з вказаної позиції починається заголовок gzip: сигнатура, метод deflate і нульові зарезервовані прапорці.
+     */
+    private static boolean isHeader(byte[] bytes, int i) {
+        return bytes[i] == (byte) 0x1F && bytes[i + 1] == (byte) 0x8B && bytes[i + 2] == 8 && (bytes[i + 3] & FLAG_RESERVED) == 0;
+    }
+
+    /**
+     * Кандидат на gzip-блок, що розпаковується в окремому потоці.
+     */
+    private final class Member {
+        private final long offset; // Позиція заголовка блока у файлі
+        private final BlockingQueue<byte[]> chunks = new ArrayBlockingQueue<>(QUEUE_CAPACITY); // Розпаковані частини і END
+        private volatile boolean cancelled; // Чи скасовано розпаковування
+        private volatile long end = -1; // Позиція після кінця блока (відома після END)
+        private volatile IOException error; // Помилка розпаковування (відома після END)
+
+        Member(long offset) {
+            this.offset = offset;
+        }
+
+        /**
+         * Скасовує розпаковування. Потік не переривається, бо переривання закрило б спільний канал файлу:
+         * натомість черга звільняється, і потік завершується після наступної перевірки ознаки.
+         */
+        void cancel() {
+            cancelled = true;
+            chunks.clear();
+        }
+
+        void run() {
+            try {
+                inflate();
+            } catch (IOException e) {
+                error = e;
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (!cancelled) {
+                put(END);
+            }
+        }
+
+        /**
+         * Передає частину парсеру, чекаючи на місце в черзі.
+         *
+         * @return false, якщо блок скасовано
+         */
+        private boolean put(byte[] data) {
+            try {
+                chunks.put(data);
+            } catch (InterruptedException e) {
+                return false;
+            }
+            return !cancelled;
+        }
+
+        /**
+         * Розпаковує блок, передаючи частини в чергу, і перевіряє CRC32 та довжину з кінця блока.
+         */
+        private void inflate() throws IOException, InterruptedException {
+            long dataStart = skipHeader();
+            Inflater inflater = new Inflater(true);
+            CRC32 crc = new CRC32();
+            try {
+                ByteBuffer input = ByteBuffer.allocate(CHUNK_SIZE);
+                long position = dataStart;
+                byte[] output = new byte[CHUNK_SIZE];
+                int outputLength = 0;
+                while (!inflater.finished()) {
+                    if (cancelled) {
+                        throw new InterruptedException();
+                    }
+                    if (inflater.needsInput()) {
+                        input.clear();
+                        int n = channel.read(input, position);
+                        if (n <= 0) {
+                            throw new EOFException("Unexpected end of GZIP member");
+                        }
+                        position += n;
+                        input.flip();
+                        inflater.setInput(input);
+                    }
+                    int n = inflater.inflate(output, outputLength, output.length - outputLength);
+                    if (n == 0 && inflater.needsDictionary()) {
+                        throw new ZipException("GZIP member requires a preset dictionary");
+                    }
+                    outputLength += n;
+                    if (outputLength == output.length) {
+                        crc.update(output, 0, outputLength);
+                        if (!put(output)) {
+                            throw new InterruptedException();
+                        }
+                        output = new byte[CHUNK_SIZE];
+                        outputLength = 0;
+                    }
+                }
+                if (outputLength > 0) {
+                    crc.update(output, 0, outputLength);
+                    if (!put(Arrays.copyOf(output, outputLength))) {
+                        throw new InterruptedException();
+                    }
+                }
+                long trailerStart = dataStart + inflater.getBytesRead();
+                ByteBuffer trailer = readFully(trailerStart, TRAILER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+                if (trailer.getInt(0) != (int) crc.getValue()) {
+                    throw new ZipException("Corrupt GZIP trailer: CRC32 mismatch");
+                }
+                if (trailer.getInt(4) != (int) inflater.getBytesWritten()) {
+                    throw new ZipException("Corrupt GZIP trailer: length mismatch");
+                }
+                end = trailerStart + TRAILER_SIZE;
+            } catch (DataFormatException e) {
+                throw new ZipException(e.getMessage());
+            } finally {
+                inflater.end();
+            }
+        }
+
+        /**
+         * Пропускає заголовок блока разом з необов'язковими полями.
+         *
+         * @return позиція початку стиснених даних
+         */
+        private long skipHeader() throws IOException {
+            ByteBuffer header = readFully(offset, HEADER_SIZE);
+            int flags = header.get(3) & 0xFF;
+            long position = offset + HEADER_SIZE;
+            if ((flags & FLAG_EXTRA) != 0) {
+                ByteBuffer extraLength = readFully(position, 2).order(ByteOrder.LITTLE_ENDIAN);
+                position += 2 + (extraLength.getShort(0) & 0xFFFF);
+            }
+            if ((flags & FLAG_NAME) != 0) {
+                position = skipZeroTerminated(position);
+            }
+            if ((flags & FLAG_COMMENT) != 0) {
+                position = skipZeroTerminated(position);
+            }
+            if ((flags & FLAG_HCRC) != 0) {
+                position += 2;
+            }
+            return position;
+        }
+
+        private long skipZeroTerminated(long position) throws IOException {
+            ByteBuffer buffer = ByteBuffer.allocate(256);
+            while (true) {
+                buffer.clear();
+                if (channel.read(buffer, position) <= 0) {
+                    throw new EOFException("Unexpected end of GZIP header");
+                }
+                for (int i = 0; i < buffer.position(); i++) {
+                    if (buffer.get(i) == 0) {
+                        return position + i + 1;
+                    }
+                }
+                position += buffer.position();
+            }
+        }
+
+        private ByteBuffer readFully(long position, int size) throws IOException {
+            ByteBuffer buffer = ByteBuffer.allocate(size);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, position + buffer.position()) <= 0) {
+                    throw new EOFException("Unexpected end of GZIP member in file: " + file.getName());
+                }
+            }
+            return buffer;
+        }
+    }
+}
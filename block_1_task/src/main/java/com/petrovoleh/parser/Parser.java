@@ -3,117 +3,248 @@ package com.petrovoleh.parser;
 import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonToken;
+import com.petrovoleh.model.Attribute;
+import com.petrovoleh.model.OrderRecord;
+import com.petrovoleh.service.StatsAccumulator;
+import com.petrovoleh.service.StatsCache;
 import com.petrovoleh.service.StatsService;
-import com.petrovoleh.model.Order;
+import com.petrovoleh.service.SymbolTable;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.util.ArrayList;
-import java.util.Date;
+import java.util.Comparator;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 /**
  * Клас Parser відповідає за парсинг JSON-файлів, обробку замовлень та виклик сервісу статистики.
  */
 public class Parser {
-
-    // Інтервал для обчислення статистики (кількість замовлень, після якої статистика обчислюється)
-    private static final int STATISTIC_INTERVAL = 500;
+    private static final int READ_PERMIT_SIZE = 1024; // Розмір частини бюджету пам'яті, що відповідає одному дозволу
+    // Сумарний розмір файлів, прочитаних наперед у режимі VIRTUAL (256 МБ), у дозволах
+    private static final int READ_BUDGET_PERMITS = InputMode.MAX_BUFFER_SIZE / READ_PERMIT_SIZE;
 
     /**
      * Метод для парсингу одного JSON-файлу.
      *
      * @param jsonFactory фабрика JSON
      * @param file        файл для парсингу
-     * @param attribute   атрибут для обчислення статистики
+     * @param accumulator накопичувач статистики поточного потоку
      * @throws IOException у випадку помилки вводу/виводу
      */
-    public static void parseFile(JsonFactory jsonFactory, File file, String attribute) throws IOException {
-        List<Order> orders = new ArrayList<>();
-        JsonParser jsonParser = jsonFactory.createParser(file);
-        boolean hasOrders = false;
-        while (jsonParser.nextToken() != JsonToken.END_ARRAY) {
-            if (jsonParser.getCurrentToken() == JsonToken.START_OBJECT) {
-                Order order = readOrder(jsonParser);
-                if (order != null) {
-                    orders.add(order);
-                    // Обчислення статистики, якщо досягнуто інтервал
-                    if (orders.size() % STATISTIC_INTERVAL == 0) {
-                        hasOrders = true;
-                        StatsService.calculateOrderStatistics(orders, attribute);
-                        orders.clear();
-                    }
-                }
-            }
+    public static void parseFile(JsonFactory jsonFactory, File file, StatsAccumulator accumulator) throws IOException {
+        parseRange(jsonFactory, FileRange.wholeFile(file), accumulator, InputMode.STREAM);
+    }
+
+    /**
+     * Метод для парсингу діапазону JSON-файлу. Парсяться всі замовлення, що починаються до кінця діапазону;
+     * останнє з них може закінчуватись вже за його межами. Стиснений gzip файл парситься цілим
+     * з розпаковуванням в окремих потоках, незалежно від способу читання.
+     *
+     * @param jsonFactory фабрика JSON
+     * @param range       діапазон файлу для парсингу
+     * @param accumulator накопичувач статистики поточного потоку
+     * @param inputMode   спосіб читання файлу
+     * @return кількість розібраних замовлень
+     * @throws IOException у випадку помилки вводу/виводу
+     */
+    public static int parseRange(JsonFactory jsonFactory, FileRange range, StatsAccumulator accumulator, InputMode inputMode) throws IOException {
+        try (JsonParser jsonParser = createParser(jsonFactory, range, inputMode)) {
+            return readOrders(jsonParser, range, accumulator);
         }
+    }
+
+    /**
+     * Читає замовлення діапазону файлу з парсера JSON у накопичувач, беручи номери текстових значень з його таблиць символів.
+     */
+    private static int readOrders(JsonParser jsonParser, FileRange range, StatsAccumulator accumulator) throws IOException {
+        return readOrders(jsonParser, range, accumulator.getAttributes(), accumulator.getSymbolTable(Attribute.CLIENT),
+                accumulator.getSymbolTable(Attribute.ITEM), accumulator::addRecord);
+    }
 
-        jsonParser.close();
+    /**
+     * Читає замовлення діапазону файлу з парсера JSON і передає кожен коректний запис у вказану дію.
+     *
+     * @param jsonParser парсер JSON, позиції токенів якого відраховуються від {@link FileRange#getStreamOffset()}
+     * @param range      діапазон файлу
+     * @param attributes атрибути, значення яких потрібні для статистики
+     * @param action     дія для кожного запису (запис перевикористовується для наступного замовлення)
+     * @return кількість розібраних замовлень
+     * @throws IOException у випадку помилки вводу/виводу
+     */
+    static int readOrders(JsonParser jsonParser, FileRange range, Set<Attribute> attributes, Consumer<OrderRecord> action) throws IOException {
+        return readOrders(jsonParser, range, attributes, null, null, action);
+    }
 
-        // Обчислення статистики для залишкових замовлень, якщо такі є
-        if (!orders.isEmpty()) {
-            hasOrders = true;
-            StatsService.calculateOrderStatistics(orders, attribute);
-            orders.clear();
+    /**
+     * Читає замовлення діапазону файлу з парсера JSON і передає кожен коректний запис у вказану дію.
+     * Рядкові значення клієнтів і товарів шукаються у вказаних таблицях символів за символами з буфера парсера:
+     * запис отримує спільний екземпляр рядка і його номер, а новий рядок створюється лише для значення, якого в таблиці немає
+     * і яке вже не вміщується в неї.
+     *
+     * @param jsonParser    парсер JSON, позиції токенів якого відраховуються від {@link FileRange#getStreamOffset()}
+     * @param range         діапазон файлу
+     * @param attributes    атрибути, значення яких потрібні для статистики
+     * @param clientSymbols таблиця символів клієнтів (null - без таблиці)
+     * @param itemSymbols   таблиця символів товарів (null - без таблиці)
+     * @param action        дія для кожного запису (запис перевикористовується для наступного замовлення)
+     * @return кількість розібраних замовлень
+     * @throws IOException у випадку помилки вводу/виводу
+     */
+    static int readOrders(JsonParser jsonParser, FileRange range, Set<Attribute> attributes, SymbolTable clientSymbols,
+                          SymbolTable itemSymbols, Consumer<OrderRecord> action) throws IOException {
+        Set<Attribute> projection = EnumSet.copyOf(attributes);
+        OrderRecord record = new OrderRecord();
+        int orders = 0;
+        boolean bounded = !range.isWholeFile() && range.getEnd() < range.getFile().length();
+        JsonToken token;
+        while ((token = jsonParser.nextToken()) != null && token != JsonToken.END_ARRAY) {
+            if (token == JsonToken.START_OBJECT) {
+                // Замовлення, що починається після кінця діапазону, належить наступному діапазону
+                if (bounded && range.getStreamOffset() + jsonParser.currentTokenLocation().getByteOffset() >= range.getEnd()) {
+                    break;
+                }
+                if (readOrder(jsonParser, projection, clientSymbols, itemSymbols, record)) {
+                    orders++;
+                    action.accept(record);
+                }
+            }
         }
-        if (!hasOrders) {
-            logError(file, new IOException("JSON file does not contain any order"));
+        if (orders == 0 && range.isWholeFile()) {
+            logError(range.getFile(), new IOException("JSON file does not contain any order"));
         }
+        return orders;
     }
 
     /**
-     * Метод для парсингу замовлення з JSON.
+     * Створює парсер JSON для діапазону файлу: для gzip-файлу - з потоку розпакованих байтів, інакше - вказаним способом читання.
      *
-     * @param jsonParser парсер JSON
-     * @return замовлення
+     * @param jsonFactory фабрика JSON
+     * @param range       діапазон файлу
+     * @param inputMode   спосіб читання нестиснених файлів
+     * @return парсер JSON
      * @throws IOException у випадку помилки вводу/виводу
      */
-    private static Order readOrder(JsonParser jsonParser) throws IOException {
-        Order order = new Order();
-        while (jsonParser.nextToken() != JsonToken.END_OBJECT) {
-            String fieldName = jsonParser.getCurrentName();
+    static JsonParser createParser(JsonFactory jsonFactory, FileRange range, InputMode inputMode) throws IOException {
+        if (range.isWholeFile() && ParallelGzipInputStream.isGzip(range.getFile())) {
+            return jsonFactory.createParser(new ParallelGzipInputStream(range.getFile()));
+        }
+        return inputMode.createParser(jsonFactory, range);
+    }
+
+    /**
+     * Метод для парсингу замовлення з JSON. У запис читаються лише поля, потрібні для статистики,
+     * решта полів пропускається без створення рядків, дат чи списків.
+     * Замовлення з невідомим полем вважається некоректним і пропускається повністю.
+     *
+     * @param jsonParser парсер JSON, що стоїть на початку об'єкта
+     * @param projection    атрибути, значення яких потрібні для статистики
+     * @param clientSymbols таблиця символів клієнтів (null - без таблиці)
+     * @param itemSymbols   таблиця символів товарів (null - без таблиці)
+     * @param record        запис, який заповнюється значеннями атрибутів
+     * @return true, якщо замовлення коректне
+     * @throws IOException у випадку помилки вводу/виводу
+     */
+    private static boolean readOrder(JsonParser jsonParser, Set<Attribute> projection, SymbolTable clientSymbols,
+                                     SymbolTable itemSymbols, OrderRecord record) throws IOException {
+        record.clear();
+        boolean valid = true;
+        while (jsonParser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = jsonParser.currentName();
             jsonParser.nextToken();
             switch (fieldName) {
                 case "orderId":
-                    order.setOrderId(jsonParser.getIntValue());
+                    if (projection.contains(Attribute.ORDER_ID)) {
+                        record.setOrderId(jsonParser.getIntValue());
+                    }
                     break;
                 case "orderDate":
-                    order.setOrderDate(new Date(jsonParser.getLongValue()));
+                    if (projection.contains(Attribute.ORDER_DATE)) {
+                        record.setOrderDate(jsonParser.getLongValue());
+                    }
                     break;
                 case "client":
-                    order.setClient(jsonParser.getText());
+                    if (projection.contains(Attribute.CLIENT)) {
+                        SymbolTable.Symbol client = intern(jsonParser, clientSymbols);
+                        if (client != null) {
+                            record.setClient(client.value(), client.id());
+                        } else {
+                            record.setClient(jsonParser.getText());
+                        }
+                    }
                     break;
                 case "amount":
-                    order.setAmount(jsonParser.getIntValue());
+                    if (projection.contains(Attribute.AMOUNT)) {
+                        record.setAmount(jsonParser.getIntValue());
+                    }
                     break;
                 case "items":
-                    List<String> items = readItems(jsonParser);
-                    order.setItems(items);
+                    if (projection.contains(Attribute.ITEM)) {
+                        readItems(jsonParser, itemSymbols, record);
+                    } else {
+                        jsonParser.skipChildren();
+                    }
                     break;
                 default:
-                    logError(null, new IOException("Element contains unexpected field: \"" + fieldName + "\""));
-                    return null;
+                    if (valid) {
+                        logError(null, new IOException("Element contains unexpected field: \"" + fieldName + "\""));
+                    }
+                    valid = false;
+                    jsonParser.skipChildren();
             }
         }
-        return order;
+        return valid;
     }
 
     /**
      * Метод для парсингу списку предметів з JSON.
      *
-     * @param jsonParser парсер JSON
-     * @return список предметів
+     * @param jsonParser  парсер JSON, що стоїть на початку масиву
+     * @param itemSymbols таблиця символів товарів (null - без таблиці)
+     * @param record      запис, до якого додаються предмети
      * @throws IOException у випадку помилки вводу/виводу
      */
-    private static List<String> readItems(JsonParser jsonParser) throws IOException {
-        List<String> items = new ArrayList<>();
+    private static void readItems(JsonParser jsonParser, SymbolTable itemSymbols, OrderRecord record) throws IOException {
+        if (jsonParser.currentToken() != JsonToken.START_ARRAY) {
+            jsonParser.skipChildren();
+            return;
+        }
         while (jsonParser.nextToken() != JsonToken.END_ARRAY) {
-            items.add(jsonParser.getText());
+            SymbolTable.Symbol item = intern(jsonParser, itemSymbols);
+            if (item != null) {
+                record.addItem(item.value(), item.id());
+            } else {
+                record.addItem(jsonParser.getText());
+            }
+        }
+    }
+
+    /**
+     * Шукає поточне рядкове значення парсера в таблиці символів без створення рядка.
+     *
+     * @param jsonParser парсер JSON, що стоїть на значенні
+     * @param symbols    таблиця символів (null - без таблиці)
+     * @return значення таблиці або null, якщо значення не рядкове, таблиці немає чи вона заповнена
+     * @throws IOException у випадку помилки вводу/виводу
+     */
+    private static SymbolTable.Symbol intern(JsonParser jsonParser, SymbolTable symbols) throws IOException {
+        if (symbols == null || jsonParser.currentToken() != JsonToken.VALUE_STRING) {
+            return null;
         }
-        return items;
+        return symbols.intern(jsonParser.getTextCharacters(), jsonParser.getTextOffset(), jsonParser.getTextLength());
     }
 
     /**
@@ -122,9 +253,10 @@ public class Parser {
      * @param jsonFactory   фабрика JSON
      * @param directoryPath шлях до директорії
      * @param attribute     атрибут для обчислення статистики
+     * @return статистика замовлень
      */
-    public static void parseOrdersOneThread(JsonFactory jsonFactory, String directoryPath, String attribute) {
-        parseOrders(jsonFactory, directoryPath, attribute, 4);
+    public static StatsService parseOrdersOneThread(JsonFactory jsonFactory, String directoryPath, String attribute) {
+        return parseOrders(jsonFactory, directoryPath, attribute, 4);
     }
 
     /**
@@ -134,36 +266,248 @@ public class Parser {
      * @param directoryPath шлях до директорії
      * @param attribute     атрибут для обчислення статистики
      * @param threadCount   кількість потоків
+     * @return статистика замовлень
      */
-    public static void parseOrders(JsonFactory jsonFactory, String directoryPath, String attribute, int threadCount) {
-        List<File> files = getAllFilesInDirectory(directoryPath);
+    public static StatsService parseOrders(JsonFactory jsonFactory, String directoryPath, String attribute, int threadCount) {
+        return parseOrders(jsonFactory, directoryPath, attribute, new ParserOptions(threadCount));
+    }
+
+    /**
+     * Метод для парсингу замовлень з JSON-файлів у директорії з використанням потоків.
+     *
+     * @param jsonFactory   фабрика JSON
+     * @param directoryPath шлях до директорії
+     * @param attribute     атрибут для обчислення статистики (або кілька атрибутів через кому, або "all")
+     * @param options       налаштування парсера
+     * @return статистика замовлень
+     * @throws IllegalArgumentException у разі невідомого атрибута
+     */
+    public static StatsService parseOrders(JsonFactory jsonFactory, String directoryPath, String attribute, ParserOptions options) {
+        StatsService statsService = new StatsService(attribute);
+        parseOrders(jsonFactory, directoryPath, statsService, options);
+        return statsService;
+    }
+
+    /**
+     * Метод для парсингу замовлень з JSON-файлів у директорії з використанням потоків.
+     * Файли, більші за поріг розбиття, діляться на діапазони, які парсяться паралельно.
+     * Усі завдання сортуються за розміром (від найбільшого) і складаються в спільну чергу,
+     * з якої кожен вільний потік забирає наступне завдання. Так великі файли починають оброблятись першими,
+     * а дрібні заповнюють простої інших потоків наприкінці.
+     * Кожен потік рахує статистику у власному накопичувачі, який об'єднується із загальною статистикою після завершення потоку.
+     * У режимі {@link ExecutionMode#VIRTUAL} кожне завдання виконується в окремому віртуальному потоці (див. {@link #parseTasksPerThread}).
+     * Якщо задано сховище по стовпцях, статистика обчислюється з нього (див. {@link ColumnarStore}).
+     * Якщо задано частину файлів, обробляються лише її файли (див. {@link FileShard}).
+     * У режимі {@link ExecutionMode#PIPELINE} файли обробляються конвеєром з окремих етапів читання, парсингу і підрахунку (див. {@link Pipeline}).
+     *
+     * @param jsonFactory   фабрика JSON
+     * @param directoryPath шлях до директорії
+     * @param statsService  сервіс, в який додається статистика
+     * @param options       налаштування парсера
+     * @throws IllegalStateException якщо потік завершився непередбаченим винятком і статистика неповна
+     */
+    public static void parseOrders(JsonFactory jsonFactory, String directoryPath, StatsService statsService, ParserOptions options) {
+        List<File> files = listFiles(directoryPath, options);
         if (files.isEmpty()) {
-            logError(null, new IOException("No JSON files found in directory or directory does not exist: " + directoryPath));
+            logError(null, new IOException(options.getShard() != null
+                    ? "No files in shard " + options.getShard() + " of directory: " + directoryPath
+                    : "No JSON files found in directory or directory does not exist: " + directoryPath));
             return;
         }
-        int numThreads = Math.min(threadCount, files.size()); // Забезпечення, щоб кількість потоків не перевищувала кількість файлів
-        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        if (options.getColumnarStore() != null) {
+            parseColumnar(jsonFactory, files, statsService, options);
+            return;
+        }
+        ExecutionMode mode = options.getExecutionMode();
+        if (mode == ExecutionMode.PIPELINE && options.getCache() != null) {
+            System.out.println("Pipeline mode does not support the statistics cache, using thread pool");
+            mode = ExecutionMode.POOL;
+        }
+        long startTime = System.nanoTime();
+        List<WorkerStats> workers;
+        if (mode == ExecutionMode.PIPELINE) {
+            files.sort(Comparator.comparingLong(File::length).reversed());
+            workers = Pipeline.run(jsonFactory, files, statsService, options);
+        } else {
+            List<FileRange> tasks = createTasks(jsonFactory, files, options);
+            tasks.sort(Comparator.comparingLong(FileRange::length).reversed());
+            startTime = System.nanoTime();
+            workers = mode == ExecutionMode.VIRTUAL
+                    ? parseTasksPerThread(jsonFactory, tasks, statsService, options)
+                    : parseTasksInPool(jsonFactory, tasks, statsService, options);
+        }
+        WorkerStats.printReport(workers, System.nanoTime() - startTime);
+        options.getProgress().finish(statsService.getUniqueCount());
+        StatsCache cache = options.getCache();
+        if (cache != null) {
+            System.out.printf("Cache: %d entry(ies) loaded, %d parsed%n", cache.getHits(), cache.getMisses());
+            cache.evict();
+        }
+    }
 
-        int filesPerThread = files.size() / numThreads;
-        int startIndex = 0;
-        int endIndex = filesPerThread;
-        for (int i = 0; i < numThreads; i++) {
-            if (i == numThreads - 1) {
-                endIndex = files.size(); // Забезпечення, що останній потік бере залишкові файли
+    /**
+     * Обчислює статистику зі сховища по стовпцях, попередньо перетворивши файли, якщо сховище відсутнє або застаріле.
+     *
+     * @param jsonFactory  фабрика JSON
+     * @param files        файли директорії
+     * @param statsService сервіс, в який додається статистика
+     * @param options      налаштування парсера
+     */
+    private static void parseColumnar(JsonFactory jsonFactory, List<File> files, StatsService statsService, ParserOptions options) {
+        ColumnarStore store = options.getColumnarStore();
+        try {
+            if (!store.isUpToDate(files)) {
+                long startTime = System.nanoTime();
+                store.convert(jsonFactory, files);
+                System.out.printf("Columnar store: converted %d file(s) in %d ms%n", files.size(), (System.nanoTime() - startTime) / 1_000_000);
             }
-            List<File> filesSubset = files.subList(startIndex, endIndex);
-            startIndex = endIndex;
-            endIndex = Math.min(endIndex + filesPerThread, files.size());
-            executor.submit(() -> {
-                for (File file : filesSubset) {
-                    try {
-                        parseFile(jsonFactory, file, attribute); // Кожен потік парсить свій власний піднабір файлів
-                    } catch (IOException e) {
-                        logError(file, e);
+            long startTime = System.nanoTime();
+            long orders = store.scan(statsService, options.getThreadCount());
+            System.out.printf("Columnar store: scanned %d order(s) in %d ms%n", orders, (System.nanoTime() - startTime) / 1_000_000);
+        } catch (IOException e) {
+            logError(null, e);
+        }
+    }
+
+    /**
+     * Виконує завдання фіксованим пулом потоків, які забирають їх зі спільної черги.
+     *
+     * @param jsonFactory  фабрика JSON
+     * @param tasks        завдання, впорядковані за розміром
+     * @param statsService сервіс, в який додається статистика
+     * @param options      налаштування парсера
+     * @return статистика потоків
+     */
+    private static List<WorkerStats> parseTasksInPool(JsonFactory jsonFactory, List<FileRange> tasks, StatsService statsService, ParserOptions options) {
+        Queue<FileRange> queue = new ConcurrentLinkedQueue<>(tasks);
+        int numThreads = Math.min(options.getThreadCount(), tasks.size()); // Забезпечення, щоб кількість потоків не перевищувала кількість завдань
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        options.getProgress().start(tasks, numThreads);
+        List<WorkerStats> workers = new ArrayList<>();
+        List<Future<?>> results = new ArrayList<>();
+        for (int i = 0; i < numThreads; i++) {
+            WorkerStats worker = new WorkerStats(i + 1);
+            workers.add(worker);
+            results.add(executor.submit(() -> {
+                StatsAccumulator accumulator = statsService.newAccumulator();
+                processQueue(jsonFactory, queue, accumulator, options, worker);
+                statsService.merge(accumulator);
+                accumulator.release();
+            }));
+        }
+        awaitTermination(executor);
+        checkResults(results);
+        return workers;
+    }
+
+    /**
+     * Виконує кожне завдання в окремому віртуальному потоці (або в пулі звичайних потоків, якщо віртуальні недоступні).
+     * Цілий нестиснений файл спочатку читається в пам'ять: потоки, що чекають на читання, не займають ядер, а їх кількість
+     * обмежена лише бюджетом пам'яті (256 МБ). Парсинг обмежується семафором з кількістю дозволів, що дорівнює
+     * кількості ядер; потік з дозволом бере вільний слот з накопичувачем, тому накопичувачів не більше, ніж ядер.
+     * З кешем часткової статистики файли не читаються наперед, щоб не читати файли, статистика яких є в кеші.
+     *
+     * @param jsonFactory  фабрика JSON
+     * @param tasks        завдання, впорядковані за розміром
+     * @param statsService сервіс, в який додається статистика
+     * @param options      налаштування парсера
+     * @return статистика слотів парсингу
+     */
+    private static List<WorkerStats> parseTasksPerThread(JsonFactory jsonFactory, List<FileRange> tasks, StatsService statsService, ParserOptions options) {
+        int cores = Math.min(Runtime.getRuntime().availableProcessors(), tasks.size());
+        Semaphore parsing = new Semaphore(cores);
+        Semaphore memory = new Semaphore(READ_BUDGET_PERMITS);
+        Queue<ParseSlot> slots = new ConcurrentLinkedQueue<>();
+        List<WorkerStats> workers = new ArrayList<>();
+        for (int i = 0; i < cores; i++) {
+            WorkerStats worker = new WorkerStats(i + 1);
+            workers.add(worker);
+            slots.add(new ParseSlot(statsService.newAccumulator(), worker));
+        }
+        ExecutorService executor = newThreadPerTaskExecutor(Math.max(options.getThreadCount(), cores));
+        options.getProgress().start(tasks, cores);
+        List<Future<?>> results = new ArrayList<>();
+        for (FileRange range : tasks) {
+            results.add(executor.submit(() -> parseTaskInOwnThread(jsonFactory, range, options, parsing, memory, slots)));
+        }
+        awaitTermination(executor);
+        checkResults(results);
+        for (ParseSlot slot : slots) {
+            statsService.merge(slot.accumulator());
+            slot.accumulator().release();
+        }
+        return workers;
+    }
+
+    /**
+     * Виконує одне завдання у власному потоці: читає файл у межах бюджету пам'яті і парсить його, отримавши дозвіл семафора.
+     */
+    private static void parseTaskInOwnThread(JsonFactory jsonFactory, FileRange range, ParserOptions options,
+                                             Semaphore parsing, Semaphore memory, Queue<ParseSlot> slots) {
+        File file = range.getFile();
+        boolean readAhead = options.getCache() == null && range.isWholeFile() && range.length() <= InputMode.MAX_BUFFER_SIZE
+                && !ParallelGzipInputStream.isGzip(file);
+        int permits = readAhead ? (int) Math.min(READ_BUDGET_PERMITS, range.length() / READ_PERMIT_SIZE + 1) : 0;
+        try {
+            memory.acquire(permits);
+            try {
+                byte[] bytes = readAhead ? Files.readAllBytes(file.toPath()) : null;
+                parsing.acquire();
+                ParseSlot slot = slots.poll();
+                try {
+                    long taskStart = System.nanoTime();
+                    int orders;
+                    if (bytes != null) {
+                        try (JsonParser jsonParser = jsonFactory.createParser(bytes)) {
+                            orders = readOrders(jsonParser, range, slot.accumulator());
+                        }
+                    } else if (options.getCache() != null) {
+                        orders = parseRangeCached(jsonFactory, range, slot.accumulator(), options.getInputMode(), options.getCache());
+                    } else {
+                        orders = parseRange(jsonFactory, range, slot.accumulator(), options.getInputMode());
                     }
+                    long nanos = System.nanoTime() - taskStart;
+                    slot.worker().recordTask(range.length(), nanos);
+                    options.getProgress().recordTask(range, nanos, orders);
+                    options.getProgress().updateUniqueKeys(slot.worker().getWorkerId() - 1, slot.accumulator().getUniqueCount());
+                } finally {
+                    slots.add(slot);
+                    parsing.release();
                 }
-            });
+            } finally {
+                memory.release(permits);
+            }
+        } catch (IOException e) {
+            logError(file, e);
+            options.getProgress().recordError(range);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logError(file, e);
         }
+    }
+
+    /**
+     * Створює виконавця з окремим віртуальним потоком на кожне завдання. Метод викликається через рефлексію,
+     * бо проєкт компілюється для Java 17; якщо віртуальні потоки недоступні, повертається пул звичайних потоків.
+     *
+     * @param fallbackThreads кількість звичайних потоків, якщо віртуальні недоступні
+     * @return виконавець завдань
+     */
+    private static ExecutorService newThreadPerTaskExecutor(int fallbackThreads) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            System.out.println("Virtual threads are not available, using " + fallbackThreads + " platform threads");
+            return Executors.newFixedThreadPool(fallbackThreads);
+        }
+    }
+
+    /**
+     * Чекає на завершення всіх завдань виконавця.
+     *
+     * @param executor виконавець, якому більше не передаються завдання
+     */
+    static void awaitTermination(ExecutorService executor) {
         executor.shutdown();
         try {
             // Очікування завершення всіх завдань або до досягнення встановленого таймауту
@@ -177,6 +521,152 @@ public class Parser {
         }
     }
 
+    /**
+     * Перевіряє результати завершених завдань. Помилки читання файлів обробляються в самих завданнях,
+     * тому виняток завдання означає, що статистику його потоку втрачено.
+     *
+     * @param results результати завдань виконавця, що вже завершив роботу
+     * @throws IllegalStateException якщо хоча б одне завдання завершилось винятком (решта винятків додаються як пригнічені)
+     */
+    static void checkResults(List<Future<?>> results) {
+        IllegalStateException failure = null;
+        for (Future<?> result : results) {
+            Throwable cause;
+            try {
+                result.get();
+                continue;
+            } catch (ExecutionException e) {
+                cause = e.getCause();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                cause = e;
+            }
+            if (failure == null) {
+                failure = new IllegalStateException("Parsing task failed, the statistics are incomplete: " + cause, cause);
+            } else {
+                failure.addSuppressed(cause);
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Слот парсингу в режимі {@link ExecutionMode#VIRTUAL}: накопичувач і статистика, якими користується потік,
+     * що отримав дозвіл семафора парсингу.
+     */
+    private record ParseSlot(StatsAccumulator accumulator, WorkerStats worker) {
+    }
+
+    /**
+     * Створює завдання для потоків: цілі файли або діапазони великих файлів.
+     * Стиснені файли не розбиваються, бо межі об'єктів не можна знайти без розпаковування.
+     *
+     * @param jsonFactory фабрика JSON
+     * @param files       файли для парсингу
+     * @param options     налаштування парсера
+     * @return список завдань
+     */
+    private static List<FileRange> createTasks(JsonFactory jsonFactory, List<File> files, ParserOptions options) {
+        List<FileRange> tasks = new ArrayList<>();
+        for (File file : files) {
+            if (options.getThreadCount() > 1 && options.getSplitThreshold() > 0 && file.length() >= options.getSplitThreshold()
+                    && !ParallelGzipInputStream.isGzip(file)) {
+                try {
+                    tasks.addAll(FileRange.split(jsonFactory, file, options.getThreadCount()));
+                    continue;
+                } catch (IOException e) {
+                    logError(file, e);
+                }
+            }
+            tasks.add(FileRange.wholeFile(file));
+        }
+        return tasks;
+    }
+
+    /**
+     * Забирає завдання зі спільної черги, поки вона не спорожніє, і виконує їх.
+     *
+     * @param jsonFactory фабрика JSON
+     * @param queue       спільна черга завдань
+     * @param accumulator накопичувач статистики поточного потоку
+     * @param options     налаштування парсера
+     * @param worker      статистика поточного потоку
+     */
+    private static void processQueue(JsonFactory jsonFactory, Queue<FileRange> queue, StatsAccumulator accumulator, ParserOptions options, WorkerStats worker) {
+        ParserProgress progress = options.getProgress();
+        FileRange range;
+        while ((range = queue.poll()) != null) {
+            long taskStart = System.nanoTime();
+            try {
+                int orders;
+                if (options.getCache() != null) {
+                    orders = parseRangeCached(jsonFactory, range, accumulator, options.getInputMode(), options.getCache());
+                } else {
+                    orders = parseRange(jsonFactory, range, accumulator, options.getInputMode());
+                }
+                progress.recordTask(range, System.nanoTime() - taskStart, orders);
+            } catch (IOException e) {
+                logError(range.getFile(), e);
+                progress.recordError(range);
+            }
+            worker.recordTask(range.length(), System.nanoTime() - taskStart);
+            progress.updateUniqueKeys(worker.getWorkerId() - 1, accumulator.getUniqueCount());
+        }
+    }
+
+    /**
+     * Додає до накопичувача статистику діапазону файлу, завантажуючи з кешу атрибути, для яких є дійсний запис.
+     * Решта атрибутів парситься (одним проходом) в окремий накопичувач, статистика якого зберігається в кеш,
+     * якщо файл не змінився під час парсингу.
+     *
+     * @param jsonFactory фабрика JSON
+     * @param range       діапазон файлу
+     * @param accumulator накопичувач статистики поточного потоку
+     * @param inputMode   спосіб читання файлу
+     * @param cache       кеш часткової статистики
+     * @return кількість розібраних замовлень (0, якщо вся статистика завантажена з кешу)
+     * @throws IOException у випадку помилки вводу/виводу
+     */
+    private static int parseRangeCached(JsonFactory jsonFactory, FileRange range, StatsAccumulator accumulator, InputMode inputMode, StatsCache cache) throws IOException {
+        File file = range.getFile();
+        Set<Attribute> missing = EnumSet.noneOf(Attribute.class);
+        for (Attribute attribute : accumulator.getAttributes()) {
+            if (!cache.load(file, range.getStart(), range.getEnd(), attribute, accumulator)) {
+                missing.add(attribute);
+            }
+        }
+        if (missing.isEmpty()) {
+            return 0;
+        }
+        long size = file.length();
+        long lastModified = file.lastModified();
+        StatsAccumulator partial = new StatsAccumulator(missing, accumulator.getOptions(),
+                accumulator.getSymbolTable(Attribute.CLIENT), accumulator.getSymbolTable(Attribute.ITEM));
+        int orders = parseRange(jsonFactory, range, partial, inputMode);
+        accumulator.merge(partial);
+        if (file.length() == size && file.lastModified() == lastModified) {
+            for (Attribute attribute : missing) {
+                cache.store(file, range.getStart(), range.getEnd(), size, lastModified, attribute, partial);
+            }
+        }
+        partial.release();
+        return orders;
+    }
+
+    /**
+     * Повертає файли директорії, які обробляються з вказаними налаштуваннями: усі файли або лише файли частини.
+     *
+     * @param directoryPath шлях до директорії
+     * @param options       налаштування парсера
+     * @return список файлів
+     */
+    public static List<File> listFiles(String directoryPath, ParserOptions options) {
+        List<File> files = getAllFilesInDirectory(directoryPath);
+        return options.getShard() != null ? options.getShard().select(files) : files;
+    }
+
     /**
      * Метод для отримання всіх файлів у директорії.
      *
@@ -202,7 +692,7 @@ public class Parser {
      * @param file файл, в якому виникла помилка (може бути null)
      * @param e    виняток
      */
-    private static void logError(File file, Exception e) {
+    static void logError(File file, Exception e) {
         System.err.println("Error: " + e.getMessage() + (file != null ? " in file: " + file.getAbsolutePath() : ""));
     }
 }
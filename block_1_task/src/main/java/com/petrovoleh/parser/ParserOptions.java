@@ -0,0 +1,129 @@
+package com.petrovoleh.parser;
+
+import com.petrovoleh.service.StatsCache;
+
+/**
+ * Цей клас містить налаштування запуску парсера.
+ */
+public class ParserOptions {
+    public static final int DEFAULT_THREAD_COUNT = 10;
+    public static final long DEFAULT_SPLIT_THRESHOLD = 64L * 1024 * 1024;
+    public static final int DEFAULT_READER_THREADS = 2;
+    public static final int DEFAULT_AGGREGATOR_THREADS = 1;
+
+    private int threadCount = DEFAULT_THREAD_COUNT; // Кількість потоків
+    private long splitThreshold = DEFAULT_SPLIT_THRESHOLD; // Розмір файлу, починаючи з якого він парситься кількома потоками (0 - вимкнено)
+    private InputMode inputMode = InputMode.STREAM; // Спосіб читання файлів
+    private ExecutionMode executionMode = ExecutionMode.POOL; // Спосіб розподілу завдань між потоками
+    private StatsCache cache; // Кеш часткової статистики файлів (null - вимкнено)
+    private ColumnarStore columnarStore; // Сховище замовлень по стовпцях (null - вимкнено)
+    private FileShard shard; // Частина файлів директорії, що обробляється (null - усі файли)
+    private int readerThreads = DEFAULT_READER_THREADS; // Кількість потоків читання в конвеєрі
+    private int parserThreads; // Кількість потоків парсингу в конвеєрі (0 - кількість потоків парсера)
+    private int aggregatorThreads = DEFAULT_AGGREGATOR_THREADS; // Кількість потоків підрахунку статистики в конвеєрі
+    private final ParserProgress progress = new ParserProgress(); // Показники ходу парсингу
+
+    /**
+     * Створює налаштування за замовчуванням.
+     */
+    public ParserOptions() {}
+
+    /**
+     * Створює налаштування з вказаною кількістю потоків.
+     * @param threadCount кількість потоків
+     */
+    public ParserOptions(int threadCount) {
+        setThreadCount(threadCount);
+    }
+
+    /* Гетери і сетери */
+    public int getThreadCount() {
+        return threadCount;
+    }
+
+    public void setThreadCount(int threadCount) {
+        if (threadCount <= 0) {
+            throw new IllegalArgumentException("The number of threads must be a positive number.");
+        }
+        this.threadCount = threadCount;
+    }
+
+    public long getSplitThreshold() {
+        return splitThreshold;
+    }
+
+    public void setSplitThreshold(long splitThreshold) {
+        this.splitThreshold = splitThreshold;
+    }
+
+    public InputMode getInputMode() {
+        return inputMode;
+    }
+
+    public void setInputMode(InputMode inputMode) {
+        this.inputMode = inputMode;
+    }
+
+    public ExecutionMode getExecutionMode() {
+        return executionMode;
+    }
+
+    public void setExecutionMode(ExecutionMode executionMode) {
+        this.executionMode = executionMode;
+    }
+
+    public StatsCache getCache() {
+        return cache;
+    }
+
+    public void setCache(StatsCache cache) {
+        this.cache = cache;
+    }
+
+    public ColumnarStore getColumnarStore() {
+        return columnarStore;
+    }
+
+    public void setColumnarStore(ColumnarStore columnarStore) {
+        this.columnarStore = columnarStore;
+    }
+
+    public FileShard getShard() {
+        return shard;
+    }
+
+    public void setShard(FileShard shard) {
+        this.shard = shard;
+    }
+
+    public ParserProgress getProgress() {
+        return progress;
+    }
+
+    public int getReaderThreads() {
+        return readerThreads;
+    }
+
+    public int getParserThreads() {
+        return parserThreads > 0 ? parserThreads : threadCount;
+    }
+
+    public int getAggregatorThreads() {
+        return aggregatorThreads;
+    }
+
+    /**
+     * Встановлює кількість потоків кожного етапу конвеєра.
+     * @param readerThreads     кількість потоків читання
+     * @param parserThreads     кількість потоків парсингу
+     * @param aggregatorThreads кількість потоків підрахунку статистики
+     */
+    public void setPipelineThreads(int readerThreads, int parserThreads, int aggregatorThreads) {
+        if (readerThreads <= 0 || parserThreads <= 0 || aggregatorThreads <= 0) {
+            throw new IllegalArgumentException("The number of threads of each pipeline stage must be a positive number.");
+        }
+        this.readerThreads = readerThreads;
+        this.parserThreads = parserThreads;
+        this.aggregatorThreads = aggregatorThreads;
+    }
+}
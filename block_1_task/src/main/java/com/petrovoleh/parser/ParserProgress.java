@@ -0,0 +1,302 @@
+package com.petrovoleh.parser;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Цей клас збирає показники ходу парсингу: кількість оброблених файлів і байтів, замовлень, помилок, різних значень
+ * і гістограму часу обробки завдань. Потоки парсера оновлюють лічильники без блокувань один раз на завдання,
+ * а читаються вони через JMX ({@link ParserProgressMXBean}) або періодичним рядком у консолі.
+ * Лічильники файлів, байтів, замовлень і помилок накопичуються між запусками парсера, швидкість рахується від початку
+ * останнього запуску, а кількість різних значень належить лише останньому запуску.
+ */
+public class ParserProgress implements ParserProgressMXBean {
+    public static final String OBJECT_NAME = "com.petrovoleh.parser:type=ParserProgress";
+    private static final int LATENCY_BUCKETS = 40; // Кошик i містить час від 2^(i-1) до 2^i - 1 мс (кошик 0 - менше 1 мс)
+
+    private final LongAdder filesTotal = new LongAdder();
+    private final LongAdder filesDone = new LongAdder();
+    private final LongAdder bytesTotal = new LongAdder();
+    private final LongAdder bytesDone = new LongAdder();
+    private final LongAdder orders = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final AtomicLongArray latencies = new AtomicLongArray(LATENCY_BUCKETS); // Гістограма часу обробки завдань
+    private final AtomicLong maxLatencyMillis = new AtomicLong();
+    private volatile Map<File, AtomicInteger> remainingRanges = Map.of(); // Необроблені діапазони розбитих файлів
+    private volatile AtomicLongArray workerUniqueKeys = new AtomicLongArray(0); // Кількість різних значень у накопичувачі кожного потоку
+    private volatile long mergedUniqueKeys; // Кількість різних значень у загальній статистиці після останнього запуску
+    private volatile long runStartNanos = System.nanoTime(); // Початок останнього запуску
+    private volatile long runEndNanos; // Кінець останнього запуску (0 - запуск триває)
+    private volatile long bytesAtRunStart; // Значення лічильників на початку останнього запуску
+    private volatile long ordersAtRunStart;
+    private ScheduledExecutorService reporter; // Потік виводу рядка прогресу (null - вимкнено)
+
+    /**
+     * Починає новий запуск парсера: додає завдання до загальної кількості і обнуляє кількість різних значень попереднього запуску.
+     * Викликається до запуску потоків.
+     * @param tasks   завдання запуску
+     * @param workers кількість потоків, що оновлюють кількість різних значень
+     */
+    void start(List<FileRange> tasks, int workers) {
+        Map<File, AtomicInteger> ranges = new HashMap<>();
+        for (FileRange range : tasks) {
+            if (range.isWholeFile()) {
+                filesTotal.increment();
+            } else if (ranges.computeIfAbsent(range.getFile(), file -> new AtomicInteger()).getAndIncrement() == 0) {
+                filesTotal.increment();
+            }
+            bytesTotal.add(range.length());
+        }
+        remainingRanges = ranges;
+        workerUniqueKeys = new AtomicLongArray(workers);
+        mergedUniqueKeys = 0;
+        bytesAtRunStart = bytesDone.sum();
+        ordersAtRunStart = orders.sum();
+        runEndNanos = 0;
+        runStartNanos = System.nanoTime();
+    }
+
+    /**
+     * Завершує запуск парсера після об'єднання накопичувачів потоків із загальною статистикою.
+     * @param uniqueKeys кількість різних значень у загальній статистиці
+     */
+    void finish(long uniqueKeys) {
+        mergedUniqueKeys = uniqueKeys;
+        workerUniqueKeys = new AtomicLongArray(0);
+        runEndNanos = System.nanoTime();
+    }
+
+    /**
+     * Враховує успішно виконане завдання.
+     * @param range      файл або діапазон файлу
+     * @param nanos      час обробки в наносекундах
+     * @param orderCount кількість розібраних замовлень
+     */
+    void recordTask(FileRange range, long nanos, long orderCount) {
+        markDone(range);
+        orders.add(orderCount);
+        long millis = nanos / 1_000_000;
+        latencies.incrementAndGet(Math.min(LATENCY_BUCKETS - 1, 64 - Long.numberOfLeadingZeros(millis)));
+        maxLatencyMillis.accumulateAndGet(millis, Math::max);
+    }
+
+    /**
+     * Враховує завдання, що завершилось помилкою. Завдання вважається виконаним, але не потрапляє в гістограму часу.
+     * @param range файл або діапазон файлу
+     */
+    void recordError(FileRange range) {
+        errors.increment();
+        markDone(range);
+    }
+
+    private void markDone(FileRange range) {
+        if (range.isWholeFile()) {
+            filesDone.increment();
+        } else {
+            AtomicInteger remaining = remainingRanges.get(range.getFile());
+            if (remaining == null || remaining.decrementAndGet() == 0) {
+                filesDone.increment();
+            }
+        }
+        bytesDone.add(range.length());
+    }
+
+    /**
+     * Оновлює кількість різних значень у накопичувачі потоку.
+     * @param worker     номер потоку (від 0)
+     * @param uniqueKeys кількість різних значень
+     */
+    void updateUniqueKeys(int worker, long uniqueKeys) {
+        AtomicLongArray keys = workerUniqueKeys;
+        if (worker < keys.length()) {
+            keys.set(worker, uniqueKeys);
+        }
+    }
+
+    /**
+     * Реєструє показники на платформному сервері MBean під назвою {@link #OBJECT_NAME}, замінюючи попередню реєстрацію.
+     * @throws JMException якщо зареєструвати MBean неможливо
+     */
+    public void registerMBean() throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(OBJECT_NAME);
+        if (server.isRegistered(name)) {
+            server.unregisterMBean(name);
+        }
+        server.registerMBean(this, name);
+    }
+
+    /**
+     * Запускає виведення рядка прогресу в консоль з вказаним інтервалом. Швидкість у рядку рахується за останній інтервал.
+     * @param intervalMillis інтервал у мілісекундах
+     */
+    public synchronized void startConsoleReport(long intervalMillis) {
+        if (intervalMillis <= 0) {
+            throw new IllegalArgumentException("The progress interval must be a positive number.");
+        }
+        stopConsoleReport();
+        reporter = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "parser-progress");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long[] previous = {bytesDone.sum(), orders.sum(), System.nanoTime()};
+        reporter.scheduleAtFixedRate(() -> {
+            long bytes = bytesDone.sum();
+            long orderCount = orders.sum();
+            long now = System.nanoTime();
+            double seconds = (now - previous[2]) / 1e9;
+            System.out.println(formatLine((bytes - previous[0]) / seconds, (orderCount - previous[1]) / seconds));
+            previous[0] = bytes;
+            previous[1] = orderCount;
+            previous[2] = now;
+        }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Зупиняє виведення рядка прогресу, якщо воно запущене.
+     */
+    public synchronized void stopConsoleReport() {
+        if (reporter != null) {
+            reporter.shutdownNow();
+            reporter = null;
+        }
+    }
+
+    /**
+     * Формує рядок прогресу, наприклад:
+     * {@code Progress: 120/1000 file(s), 20/169 MB, 35.2 MB/s, 210000 orders/s, 53211 unique key(s), 0 error(s), task p50 2 ms, p99 15 ms}
+     * @param bytesPerSecond  швидкість обробки в байтах за секунду
+     * @param ordersPerSecond кількість замовлень за секунду
+     * @return рядок прогресу
+     */
+    String formatLine(double bytesPerSecond, double ordersPerSecond) {
+        return String.format("Progress: %d/%d file(s), %d/%d MB, %.1f MB/s, %.0f orders/s, %d unique key(s), %d error(s), task p50 %d ms, p99 %d ms",
+                getFilesDone(), getFilesTotal(), getBytesDone() / (1024 * 1024), getBytesTotal() / (1024 * 1024),
+                bytesPerSecond / (1024 * 1024), ordersPerSecond, getUniqueKeys(), getErrors(),
+                getTaskLatencyP50Millis(), getTaskLatencyP99Millis());
+    }
+
+    /**
+     * Повертає верхню межу кошика гістограми, в якому знаходиться вказана частка завдань.
+     */
+    private long latencyPercentile(double fraction) {
+        long total = 0;
+        for (int i = 0; i < LATENCY_BUCKETS; i++) {
+            total += latencies.get(i);
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(fraction * total);
+        long seen = 0;
+        for (int i = 0; i < LATENCY_BUCKETS; i++) {
+            seen += latencies.get(i);
+            if (seen >= rank) {
+                return Math.min(upperBound(i), maxLatencyMillis.get());
+            }
+        }
+        return maxLatencyMillis.get();
+    }
+
+    private static long upperBound(int bucket) {
+        return (1L << bucket) - 1;
+    }
+
+    private double elapsedSeconds() {
+        long end = runEndNanos != 0 ? runEndNanos : System.nanoTime();
+        return Math.max(1, end - runStartNanos) / 1e9;
+    }
+
+    /* Гетери */
+    @Override
+    public long getFilesTotal() {
+        return filesTotal.sum();
+    }
+
+    @Override
+    public long getFilesDone() {
+        return filesDone.sum();
+    }
+
+    @Override
+    public long getBytesTotal() {
+        return bytesTotal.sum();
+    }
+
+    @Override
+    public long getBytesDone() {
+        return bytesDone.sum();
+    }
+
+    @Override
+    public long getOrders() {
+        return orders.sum();
+    }
+
+    @Override
+    public double getBytesPerSecond() {
+        return (bytesDone.sum() - bytesAtRunStart) / elapsedSeconds();
+    }
+
+    @Override
+    public double getOrdersPerSecond() {
+        return (orders.sum() - ordersAtRunStart) / elapsedSeconds();
+    }
+
+    @Override
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    @Override
+    public long getUniqueKeys() {
+        AtomicLongArray keys = workerUniqueKeys;
+        long sum = mergedUniqueKeys;
+        for (int i = 0; i < keys.length(); i++) {
+            sum += keys.get(i);
+        }
+        return sum;
+    }
+
+    @Override
+    public long getTaskLatencyP50Millis() {
+        return latencyPercentile(0.5);
+    }
+
+    @Override
+    public long getTaskLatencyP99Millis() {
+        return latencyPercentile(0.99);
+    }
+
+    @Override
+    public long getTaskLatencyMaxMillis() {
+        return maxLatencyMillis.get();
+    }
+
+    @Override
+    public String[] getTaskLatencyHistogram() {
+        List<String> buckets = new ArrayList<>();
+        for (int i = 0; i < LATENCY_BUCKETS; i++) {
+            long count = latencies.get(i);
+            if (count != 0) {
+                buckets.add((i == 0 ? "<1" : (1L << (i - 1)) + "-" + upperBound(i)) + " ms: " + count);
+            }
+        }
+        return buckets.toArray(new String[0]);
+    }
+}
@@ -0,0 +1,74 @@
+package com.petrovoleh.parser;
+
+/**
+ * Інтерфейс JMX для спостереження за ходом парсингу (наприклад, через jconsole або VisualVM).
+ * Завданням вважається цілий файл або діапазон великого файлу. Кількості файлів, байтів, замовлень, помилок і час обробки завдань
+ * накопичуються за всі запуски парсера з тими самими налаштуваннями.
+ */
+public interface ParserProgressMXBean {
+    /**
+     * @return кількість файлів усіх запусків
+     */
+    long getFilesTotal();
+
+    /**
+     * @return кількість повністю оброблених файлів
+     */
+    long getFilesDone();
+
+    /**
+     * @return сумарний розмір файлів усіх запусків у байтах
+     */
+    long getBytesTotal();
+
+    /**
+     * @return розмір оброблених файлів і діапазонів у байтах
+     */
+    long getBytesDone();
+
+    /**
+     * @return кількість розібраних замовлень (без завантажених з кешу)
+     */
+    long getOrders();
+
+    /**
+     * @return середня швидкість обробки з початку запуску в байтах за секунду
+     */
+    double getBytesPerSecond();
+
+    /**
+     * @return середня кількість розібраних замовлень за секунду з початку запуску
+     */
+    double getOrdersPerSecond();
+
+    /**
+     * @return кількість завдань, що завершились помилкою
+     */
+    long getErrors();
+
+    /**
+     * @return кількість різних значень у накопичувачах потоків поточного запуску (значення, що є в кількох потоках,
+     * враховуються кілька разів), а після його завершення - у загальній статистиці
+     */
+    long getUniqueKeys();
+
+    /**
+     * @return медіана часу обробки завдання в мілісекундах (з точністю до степеня двійки)
+     */
+    long getTaskLatencyP50Millis();
+
+    /**
+     * @return 99-й перцентиль часу обробки завдання в мілісекундах (з точністю до степеня двійки)
+     */
+    long getTaskLatencyP99Millis();
+
+    /**
+     * @return найбільший час обробки завдання в мілісекундах
+     */
+    long getTaskLatencyMaxMillis();
+
+    /**
+     * @return непорожні кошики гістограми часу обробки завдань у вигляді "від-до ms: кількість"
+     */
+    String[] getTaskLatencyHistogram();
+}
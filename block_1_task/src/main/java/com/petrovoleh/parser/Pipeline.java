@@ -0,0 +1,493 @@
+package com.petrovoleh.parser;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.core.util.JsonParserDelegate;
+import com.petrovoleh.model.Attribute;
+import com.petrovoleh.model.OrderBatch;
+import com.petrovoleh.model.OrderRecord;
+import com.petrovoleh.service.StatsAccumulator;
+import com.petrovoleh.service.StatsService;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Конвеєр парсера з трьох етапів, кожен з власною кількістю потоків:
+ * <ol>
+ *     <li>потоки читання забирають файли зі спільної черги і читають їх частинами в буфери з пулу;</li>
+ *     <li>потоки парсингу подають частини файлу неблокуючому парсеру Jackson і складають замовлення в пакети записів;</li>
+ *     <li>потоки підрахунку забирають пакети з кільцевого буфера і додають їх до власних накопичувачів.</li>
+ * </ol>
+ * Усі черги між етапами обмежені, тому швидший етап чекає на повільніший, а пам'ять не залежить від розміру файлів.
+ * Кожен файл має власну чергу частин, тому потік читання чекає лише на парсер свого файлу, і етапи не блокують один одного взаємно.
+ * Частини файлів і пакети записів перевикористовуються через пули.
+ * Якщо потік будь-якого етапу завершується винятком, решта потоків перериваються, щоб жоден етап не чекав вічно
+ * на чергу, а виняток передається з {@link #run(JsonFactory, List, StatsService, ParserOptions)}.
+ */
+class Pipeline {
+    private static final int CHUNK_SIZE = 256 * 1024; // Розмір частини файлу
+    private static final int CHUNKS_PER_FILE = 8; // Скільки прочитаних частин файлу може чекати на парсер
+    private static final int RING_CAPACITY = 64; // Скільки пакетів записів може чекати на підрахунок
+    private static final long SAMPLE_INTERVAL_MILLIS = 10; // Інтервал вимірювання глибини черг
+    private static final int UNIQUE_KEYS_INTERVAL = 64; // Через скільки пакетів потік підрахунку оновлює кількість різних значень
+
+    private static final FileStream END_OF_FILES = new FileStream(null); // Ознака кінця файлів для потоків парсингу
+    private static final Chunk END_OF_FILE = new Chunk(); // Ознака кінця файлу в черзі частин
+    private static final OrderBatch END_OF_BATCHES = new OrderBatch(); // Ознака кінця пакетів для потоків підрахунку
+
+    private final JsonFactory jsonFactory;
+    private final StatsService statsService;
+    private final Set<Attribute> projection; // Атрибути, значення яких потрібні для статистики
+    private final int readers; // Кількість потоків кожного етапу
+    private final int parsers;
+    private final int aggregators;
+    private final Queue<File> tasks; // Файли, які ще не почали читатись
+    private final BlockingQueue<FileStream> files; // Файли, що читаються, у порядку початку читання
+    private final BlockingQueue<OrderBatch> ring; // Заповнені пакети записів
+    private final Queue<Chunk> chunkPool = new ConcurrentLinkedQueue<>(); // Вільні частини файлів
+    private final Queue<OrderBatch> batchPool = new ConcurrentLinkedQueue<>(); // Вільні пакети записів
+    private final AtomicInteger chunksInFlight = new AtomicInteger(); // Прочитані частини, що чекають на парсер
+    private final AtomicInteger activeReaders = new AtomicInteger(); // Потоки читання, що ще працюють
+    private final AtomicInteger activeParsers = new AtomicInteger(); // Потоки парсингу, що ще працюють
+    private final AtomicReference<Throwable> failure = new AtomicReference<>(); // Перший виняток потоку етапу (null - немає)
+    private final Set<Thread> stageThreads = ConcurrentHashMap.newKeySet(); // Потоки етапів, що зараз працюють
+    private final PipelineStats stats = new PipelineStats();
+    private final ParserProgress progress;
+    private final PipelineStats.Stage readStage;
+    private final PipelineStats.Stage parseStage;
+    private final PipelineStats.Stage aggregateStage;
+
+    private Pipeline(JsonFactory jsonFactory, List<File> files, StatsService statsService, ParserOptions options) {
+        this.jsonFactory = jsonFactory;
+        this.statsService = statsService;
+        this.projection = EnumSet.copyOf(statsService.getAttributes());
+        this.readers = Math.min(options.getReaderThreads(), files.size());
+        this.parsers = Math.min(options.getParserThreads(), files.size());
+        this.aggregators = options.getAggregatorThreads();
+        this.progress = options.getProgress();
+        List<FileRange> ranges = new ArrayList<>();
+        for (File file : files) {
+            ranges.add(FileRange.wholeFile(file));
+        }
+        progress.start(ranges, aggregators);
+        this.tasks = new ConcurrentLinkedQueue<>(files);
+        // Кожен потік читання може почати наступний файл, поки попередній ще чекає на парсер
+        this.files = new ArrayBlockingQueue<>(2 * readers + parsers);
+        this.ring = new ArrayBlockingQueue<>(RING_CAPACITY);
+        readStage = stats.addStage("reader", readers);
+        parseStage = stats.addStage("parser", parsers);
+        aggregateStage = stats.addStage("aggregator", aggregators);
+        stats.addQueue("files", 2 * readers + parsers, this.files::size);
+        stats.addQueue("chunks", readers * CHUNKS_PER_FILE, chunksInFlight::get);
+        stats.addQueue("batches", RING_CAPACITY, ring::size);
+    }
+
+    /**
+     * Парсить файли конвеєром і додає статистику до сервісу.
+     *
+     * @param jsonFactory  фабрика JSON
+     * @param files        файли для парсингу (від найбільшого)
+     * @param statsService сервіс, в який додається статистика
+     * @param options      налаштування парсера з кількістю потоків кожного етапу
+     * @return статистика потоків парсингу
+     * @throws IllegalStateException якщо потік етапу завершився винятком і статистика неповна
+     */
+    static List<WorkerStats> run(JsonFactory jsonFactory, List<File> files, StatsService statsService, ParserOptions options) {
+        Pipeline pipeline = new Pipeline(jsonFactory, files, statsService, options);
+        long startTime = System.nanoTime();
+        List<WorkerStats> workers = pipeline.run();
+        pipeline.stats.printReport(System.nanoTime() - startTime);
+        return workers;
+    }
+
+    private List<WorkerStats> run() {
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "pipeline-sampler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sampler.scheduleAtFixedRate(stats::sample, 0, SAMPLE_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        ExecutorService executor = Executors.newFixedThreadPool(readers + parsers + aggregators);
+        activeReaders.set(readers);
+        activeParsers.set(parsers);
+        for (int i = 0; i < readers; i++) {
+            executor.submit(() -> runStage(readStage, this::read, this::finishReader));
+        }
+        List<WorkerStats> workers = new ArrayList<>();
+        for (int i = 0; i < parsers; i++) {
+            WorkerStats worker = new WorkerStats(i + 1);
+            workers.add(worker);
+            executor.submit(() -> runStage(parseStage, () -> parse(worker), this::finishParser));
+        }
+        for (int i = 0; i < aggregators; i++) {
+            int aggregator = i;
+            executor.submit(() -> runStage(aggregateStage, () -> aggregate(aggregator), () -> {}));
+        }
+        Parser.awaitTermination(executor);
+        sampler.shutdownNow();
+        Throwable cause = failure.get();
+        if (cause != null) {
+            throw new IllegalStateException("Pipeline stage failed, the statistics are incomplete: " + cause, cause);
+        }
+        return workers;
+    }
+
+    /**
+     * Дія потоку етапу, яку може перервати очікування на чергу.
+     */
+    @FunctionalInterface
+    private interface StageAction {
+        void run() throws InterruptedException;
+    }
+
+    /**
+     * Виконує потік етапу. Після роботи, навіть завершеної винятком, виконується дія завершення, що передає ознаки кінця
+     * наступному етапу. Виняток запам'ятовується, а решта потоків перериваються.
+     */
+    private void runStage(PipelineStats.Stage stage, StageAction action, StageAction finish) {
+        long start = System.nanoTime();
+        Thread thread = Thread.currentThread();
+        stageThreads.add(thread);
+        try {
+            // Потік, що почав роботу після винятку іншого потоку, не переривається, тому перевіряє виняток сам
+            if (failure.get() == null) {
+                action.run();
+            }
+        } catch (Throwable e) {
+            fail(e);
+        }
+        try {
+            finish.run();
+        } catch (Throwable e) {
+            fail(e);
+        } finally {
+            stageThreads.remove(thread);
+            Thread.interrupted();
+            stage.addTotal(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Запам'ятовує виняток потоку етапу і перериває решту потоків. Переривання, спричинене попереднім винятком, не запам'ятовується.
+     */
+    private void fail(Throwable e) {
+        if (failure.compareAndSet(null, e)) {
+            stageThreads.forEach(Thread::interrupt);
+        } else if (!(e instanceof InterruptedException) && failure.get() != e) {
+            failure.get().addSuppressed(e);
+        }
+    }
+
+    /**
+     * Завершує потік читання: останній потік передає потокам парсингу ознаки кінця файлів.
+     */
+    private void finishReader() throws InterruptedException {
+        if (activeReaders.decrementAndGet() == 0) {
+            sendEnd(files, END_OF_FILES, parsers, readStage);
+        }
+    }
+
+    /**
+     * Завершує потік парсингу: останній потік передає потокам підрахунку ознаки кінця пакетів.
+     */
+    private void finishParser() throws InterruptedException {
+        if (activeParsers.decrementAndGet() == 0) {
+            sendEnd(ring, END_OF_BATCHES, aggregators, parseStage);
+        }
+    }
+
+    /**
+     * Передає ознаки кінця наступному етапу. Після винятку наступний етап уже перервано, тому ознаки не потрібні.
+     */
+    private <T> void sendEnd(BlockingQueue<T> queue, T end, int count, PipelineStats.Stage stage) throws InterruptedException {
+        for (int i = 0; i < count && failure.get() == null; i++) {
+            put(queue, end, stage);
+        }
+    }
+
+    /**
+     * Етап читання: кожен файл ставиться в чергу для парсерів, після чого читається частинами в його власну чергу.
+     */
+    private void read() throws InterruptedException {
+        File file;
+        while ((file = tasks.poll()) != null) {
+            FileStream stream = new FileStream(file);
+            put(files, stream, readStage);
+            try (InputStream input = ParallelGzipInputStream.isGzip(file) ? new ParallelGzipInputStream(file) : new FileInputStream(file)) {
+                while (true) {
+                    Chunk chunk = acquireChunk();
+                    chunk.length = input.readNBytes(chunk.data, 0, CHUNK_SIZE);
+                    if (chunk.length == 0) {
+                        chunkPool.add(chunk);
+                        break;
+                    }
+                    stats.getBytesRead().add(chunk.length);
+                    chunksInFlight.incrementAndGet();
+                    put(stream.chunks, chunk, readStage);
+                }
+            } catch (IOException e) {
+                stream.error = e;
+            }
+            put(stream.chunks, END_OF_FILE, readStage);
+        }
+    }
+
+    /**
+     * Етап парсингу: файли парсяться по черзі, замовлення складаються в пакети, заповнені пакети передаються на підрахунок.
+     */
+    private void parse(WorkerStats worker) throws InterruptedException {
+        BatchSink sink = new BatchSink();
+        FileStream stream;
+        while ((stream = take(files, parseStage)) != END_OF_FILES) {
+            long taskStart = System.nanoTime();
+            sink.waitNanos = 0;
+            FileRange range = FileRange.wholeFile(stream.file);
+            try (JsonParser jsonParser = new FeedingParser(jsonFactory.createNonBlockingByteArrayParser(), stream)) {
+                int orders = Parser.readOrders(jsonParser, range, projection, statsService.getSymbolTable(Attribute.CLIENT),
+                        statsService.getSymbolTable(Attribute.ITEM), sink::add);
+                progress.recordTask(range, System.nanoTime() - taskStart, orders);
+            } catch (UncheckedInterruptedException e) {
+                throw new InterruptedException();
+            } catch (InterruptedIOException e) {
+                throw new InterruptedException(e.getMessage());
+            } catch (IOException e) {
+                Parser.logError(stream.file, e);
+                progress.recordError(range);
+            } finally {
+                drain(stream);
+            }
+            worker.recordTask(range.length(), System.nanoTime() - taskStart - stream.waitNanos - sink.waitNanos);
+        }
+        if (!sink.batch.isEmpty()) {
+            put(ring, sink.batch, parseStage);
+        }
+    }
+
+    /**
+     * Етап підрахунку: пакети записів додаються до власного накопичувача, який в кінці об'єднується із загальною статистикою.
+     */
+    private void aggregate(int aggregator) throws InterruptedException {
+        StatsAccumulator accumulator = statsService.newAccumulator();
+        OrderBatch batch;
+        int batches = 0;
+        while ((batch = take(ring, aggregateStage)) != END_OF_BATCHES) {
+            accumulator.addBatch(batch);
+            batch.clear();
+            batchPool.add(batch);
+            if (++batches % UNIQUE_KEYS_INTERVAL == 0) {
+                progress.updateUniqueKeys(aggregator, accumulator.getUniqueCount());
+            }
+        }
+        statsService.merge(accumulator);
+        accumulator.release();
+    }
+
+    /**
+     * Забирає решту частин файлу, якщо парсинг завершився раніше кінця файлу (помилка або дані після масиву замовлень).
+     */
+    private void drain(FileStream stream) throws InterruptedException {
+        while (!stream.finished) {
+            Chunk chunk = stream.chunks.take();
+            if (chunk == END_OF_FILE) {
+                stream.finished = true;
+            } else {
+                chunksInFlight.decrementAndGet();
+                chunkPool.add(chunk);
+            }
+        }
+    }
+
+    private Chunk acquireChunk() {
+        Chunk chunk = chunkPool.poll();
+        return chunk != null ? chunk : new Chunk();
+    }
+
+    private OrderBatch acquireBatch() {
+        OrderBatch batch = batchPool.poll();
+        return batch != null ? batch : new OrderBatch();
+    }
+
+    /**
+     * Додає елемент у чергу, чекаючи на місце, і враховує час очікування в метриках етапу.
+     *
+     * @return час очікування в наносекундах
+     */
+    private static <T> long put(BlockingQueue<T> queue, T element, PipelineStats.Stage stage) throws InterruptedException {
+        if (queue.offer(element)) {
+            return 0;
+        }
+        long start = System.nanoTime();
+        queue.put(element);
+        long waited = System.nanoTime() - start;
+        stage.addOutputWait(waited);
+        return waited;
+    }
+
+    /**
+     * Забирає елемент з черги, чекаючи на нього, і враховує час очікування в метриках етапу.
+     */
+    private static <T> T take(BlockingQueue<T> queue, PipelineStats.Stage stage) throws InterruptedException {
+        T element = queue.poll();
+        if (element == null) {
+            long start = System.nanoTime();
+            element = queue.take();
+            stage.addInputWait(System.nanoTime() - start);
+        }
+        return element;
+    }
+
+    /**
+     * Складає замовлення потоку парсингу в пакети і передає заповнені пакети в кільцевий буфер.
+     */
+    private final class BatchSink {
+        private OrderBatch batch = acquireBatch(); // Пакет, що заповнюється
+        private long waitNanos; // Час очікування на місце в кільцевому буфері під час поточного файлу
+
+        void add(OrderRecord record) {
+            stats.getOrders().increment();
+            if (batch.add(record)) {
+                try {
+                    waitNanos += put(ring, batch, parseStage);
+                } catch (InterruptedException e) {
+                    throw new UncheckedInterruptedException();
+                }
+                batch = acquireBatch();
+            }
+        }
+    }
+
+    /**
+     * Переривання очікування на місце в кільцевому буфері всередині обробника замовлень.
+     */
+    private static class UncheckedInterruptedException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+    }
+
+    /**
+     * Частина файлу: буфер з пулу і кількість прочитаних у нього байтів.
+     */
+    private static final class Chunk {
+        private final byte[] data = new byte[CHUNK_SIZE];
+        private int length;
+    }
+
+    /**
+     * Файл, що читається: черга його прочитаних частин і помилка читання.
+     */
+    private static final class FileStream {
+        private final File file;
+        private final BlockingQueue<Chunk> chunks = new ArrayBlockingQueue<>(CHUNKS_PER_FILE);
+        private volatile IOException error; // Помилка читання (відома після END_OF_FILE)
+        private boolean finished; // Чи отримав парсер END_OF_FILE
+        private long waitNanos; // Час очікування парсера на частини файлу
+
+        FileStream(File file) {
+            this.file = file;
+        }
+    }
+
+    /**
+     * Парсер JSON, що подає неблокуючому парсеру Jackson наступну частину файлу щоразу, коли попередня закінчилась.
+     * Для решти коду парсер поводиться як звичайний блокуючий, тому замовлення читаються тим самим кодом, що й з файлу.
+     */
+    private final class FeedingParser extends JsonParserDelegate {
+        private final FileStream stream; // Файл, частини якого подаються парсеру
+        private final ByteArrayFeeder feeder;
+        private Chunk fed; // Частина, яку зараз читає парсер
+        private boolean ended; // Чи повідомлено парсеру про кінець файлу
+
+        FeedingParser(JsonParser asyncParser, FileStream stream) {
+            super(asyncParser);
+            this.stream = stream;
+            this.feeder = (ByteArrayFeeder) asyncParser.getNonBlockingInputFeeder();
+        }
+
+        @Override
+        public JsonToken nextToken() throws IOException {
+            JsonToken token;
+            while ((token = delegate.nextToken()) == JsonToken.NOT_AVAILABLE && !ended) {
+                feed();
+            }
+            return token == JsonToken.NOT_AVAILABLE ? null : token;
+        }
+
+        @Override
+        public JsonParser skipChildren() throws IOException {
+            JsonToken token = currentToken();
+            if (token != JsonToken.START_OBJECT && token != JsonToken.START_ARRAY) {
+                return this;
+            }
+            int open = 1;
+            while ((token = nextToken()) != null) {
+                if (token.isStructStart()) {
+                    open++;
+                } else if (token.isStructEnd() && --open == 0) {
+                    break;
+                }
+            }
+            return this;
+        }
+
+        @Override
+        public void close() throws IOException {
+            releaseFed();
+            super.close();
+        }
+
+        /**
+         * Повертає в пул попередню частину і подає парсеру наступну або повідомляє про кінець файлу.
+         */
+        private void feed() throws IOException {
+            releaseFed();
+            Chunk chunk;
+            try {
+                long start = System.nanoTime();
+                chunk = take(stream.chunks, parseStage);
+                stream.waitNanos += System.nanoTime() - start;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for file data");
+            }
+            if (chunk == END_OF_FILE) {
+                stream.finished = true;
+                ended = true;
+                if (stream.error != null) {
+                    throw stream.error;
+                }
+                feeder.endOfInput();
+                return;
+            }
+            chunksInFlight.decrementAndGet();
+            fed = chunk;
+            feeder.feedInput(chunk.data, 0, chunk.length);
+        }
+
+        private void releaseFed() {
+            if (fed != null) {
+                chunkPool.add(fed);
+                fed = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.petrovoleh.parser;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+/**
+ * Цей клас збирає метрики конвеєра парсера: час роботи та очікування потоків кожного етапу і глибину черг між етапами.
+ * Глибина черг періодично вимірюється окремим потоком: заповнена черга перед етапом означає, що він є вузьким місцем,
+ * а порожня - що він чекає на попередній етап. Метрики оновлюються з кількох потоків одночасно.
+ */
+public class PipelineStats {
+    private final List<Stage> stages = new ArrayList<>(); // Етапи в порядку проходження даних
+    private final List<QueueGauge> queues = new ArrayList<>(); // Черги між етапами
+    private final LongAdder bytesRead = new LongAdder(); // Кількість прочитаних байтів
+    private final LongAdder orders = new LongAdder(); // Кількість розібраних замовлень
+
+    /**
+     * Додає етап конвеєра.
+     * @param name    назва етапу
+     * @param threads кількість потоків етапу
+     * @return метрики етапу
+     */
+    Stage addStage(String name, int threads) {
+        Stage stage = new Stage(name, threads);
+        stages.add(stage);
+        return stage;
+    }
+
+    /**
+     * Додає чергу між етапами.
+     * @param name     назва черги
+     * @param capacity місткість черги
+     * @param depth    джерело поточної глибини черги
+     */
+    void addQueue(String name, int capacity, IntSupplier depth) {
+        queues.add(new QueueGauge(name, capacity, depth));
+    }
+
+    /**
+     * Вимірює поточну глибину всіх черг.
+     */
+    void sample() {
+        for (QueueGauge queue : queues) {
+            queue.sample();
+        }
+    }
+
+    /**
+     * Виводить звіт про етапи і черги в консоль. Вузьким місцем вважається етап з найбільшою часткою роботи
+     * (без очікування) у сумарному часі його потоків.
+     * @param wallNanos загальний час роботи конвеєра в наносекундах
+     */
+    public void printReport(long wallNanos) {
+        Stage bottleneck = null;
+        for (Stage stage : stages) {
+            System.out.printf("Stage %s: %d thread(s), busy %d ms (%.1f%%), waiting for input %d ms, blocked on output %d ms%n",
+                    stage.name, stage.threads, stage.getBusyNanos() / 1_000_000, stage.utilization(wallNanos) * 100,
+                    stage.getInputWaitNanos() / 1_000_000, stage.getOutputWaitNanos() / 1_000_000);
+            if (bottleneck == null || stage.utilization(wallNanos) > bottleneck.utilization(wallNanos)) {
+                bottleneck = stage;
+            }
+        }
+        for (QueueGauge queue : queues) {
+            System.out.printf("Queue %s: capacity %d, average depth %.1f, max depth %d%n",
+                    queue.name, queue.capacity, queue.getAverageDepth(), queue.getMaxDepth());
+        }
+        System.out.printf("Read %d MB, %d order(s); bottleneck: %s%n",
+                bytesRead.sum() / (1024 * 1024), orders.sum(), bottleneck != null ? bottleneck.name : "none");
+    }
+
+    /* Гетери */
+    public List<Stage> getStages() {
+        return Collections.unmodifiableList(stages);
+    }
+
+    public List<QueueGauge> getQueues() {
+        return Collections.unmodifiableList(queues);
+    }
+
+    public LongAdder getBytesRead() {
+        return bytesRead;
+    }
+
+    public LongAdder getOrders() {
+        return orders;
+    }
+
+    /**
+     * Метрики одного етапу конвеєра: сумарний час роботи потоків етапу, очікування на вхідні дані
+     * та очікування на місце у вихідній черзі.
+     */
+    public static class Stage {
+        private final String name; // Назва етапу
+        private final int threads; // Кількість потоків етапу
+        private final LongAdder totalNanos = new LongAdder(); // Сумарний час життя потоків етапу
+        private final LongAdder inputWaitNanos = new LongAdder(); // Час очікування на вхідні дані
+        private final LongAdder outputWaitNanos = new LongAdder(); // Час очікування на місце у вихідній черзі
+
+        Stage(String name, int threads) {
+            this.name = name;
+            this.threads = threads;
+        }
+
+        void addTotal(long nanos) {
+            totalNanos.add(nanos);
+        }
+
+        void addInputWait(long nanos) {
+            inputWaitNanos.add(nanos);
+        }
+
+        void addOutputWait(long nanos) {
+            outputWaitNanos.add(nanos);
+        }
+
+        /**
+         * Повертає частку часу, яку потоки етапу працювали, а не чекали.
+         * @param wallNanos загальний час роботи конвеєра в наносекундах
+         * @return частка від 0 до 1
+         */
+        public double utilization(long wallNanos) {
+            return wallNanos == 0 ? 0 : (double) getBusyNanos() / ((long) threads * wallNanos);
+        }
+
+        /* Гетери */
+        public String getName() {
+            return name;
+        }
+
+        public int getThreads() {
+            return threads;
+        }
+
+        public long getBusyNanos() {
+            return Math.max(0, totalNanos.sum() - inputWaitNanos.sum() - outputWaitNanos.sum());
+        }
+
+        public long getInputWaitNanos() {
+            return inputWaitNanos.sum();
+        }
+
+        public long getOutputWaitNanos() {
+            return outputWaitNanos.sum();
+        }
+    }
+
+    /**
+     * Глибина черги між етапами конвеєра, виміряна через рівні проміжки часу.
+     */
+    public static class QueueGauge {
+        private final String name; // Назва черги
+        private final int capacity; // Місткість черги
+        private final IntSupplier depth; // Джерело поточної глибини
+        private long samples; // Кількість вимірювань
+        private long depthSum; // Сума виміряних глибин
+        private int maxDepth; // Найбільша виміряна глибина
+
+        QueueGauge(String name, int capacity, IntSupplier depth) {
+            this.name = name;
+            this.capacity = capacity;
+            this.depth = depth;
+        }
+
+        synchronized void sample() {
+            int current = depth.getAsInt();
+            samples++;
+            depthSum += current;
+            maxDepth = Math.max(maxDepth, current);
+        }
+
+        /* Гетери */
+        public String getName() {
+            return name;
+        }
+
+        public int getCapacity() {
+            return capacity;
+        }
+
+        public int getCurrentDepth() {
+            return depth.getAsInt();
+        }
+
+        public synchronized double getAverageDepth() {
+            return samples == 0 ? 0 : (double) depthSum / samples;
+        }
+
+        public synchronized int getMaxDepth() {
+            return maxDepth;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.petrovoleh.parser;
+
+import java.util.List;
+
+/**
+ * Цей клас зберігає статистику роботи одного потоку парсера: кількість оброблених завдань (файлів або їх діапазонів), байтів та час зайнятості.
+ * Оновлюється лише потоком-власником, тому не потребує синхронізації.
+ */
+public class WorkerStats {
+    private final int workerId; // Номер потоку
+    private int tasks; // Кількість оброблених завдань
+    private long bytes; // Кількість оброблених байтів
+    private long busyNanos; // Час, витрачений на парсинг файлів
+
+    /**
+     * Створює статистику для потоку з вказаним номером.
+     * @param workerId номер потоку
+     */
+    public WorkerStats(int workerId) {
+        this.workerId = workerId;
+    }
+
+    /**
+     * Враховує виконане завдання.
+     * @param taskBytes розмір файлу або діапазону в байтах
+     * @param nanos     час парсингу в наносекундах
+     */
+    public void recordTask(long taskBytes, long nanos) {
+        tasks++;
+        bytes += taskBytes;
+        busyNanos += nanos;
+    }
+
+    /**
+     * Виводить звіт про завантаженість потоків у консоль.
+     * Ідеальний час - це сумарна робота, поділена на кількість потоків; чим ближче до нього реальний час, тим краще розподілені завдання.
+     *
+     * @param workers   статистика всіх потоків
+     * @param wallNanos загальний час роботи в наносекундах
+     */
+    public static void printReport(List<WorkerStats> workers, long wallNanos) {
+        long totalBusy = 0;
+        for (WorkerStats worker : workers) {
+            totalBusy += worker.busyNanos;
+        }
+        for (WorkerStats worker : workers) {
+            System.out.printf("Worker %d: %d task(s), %d MB, busy %d ms (%.1f%%)%n",
+                    worker.workerId, worker.tasks, worker.bytes / (1024 * 1024),
+                    worker.busyNanos / 1_000_000, percent(worker.busyNanos, wallNanos));
+        }
+        long ideal = workers.isEmpty() ? 0 : totalBusy / workers.size();
+        System.out.printf("Wall time: %d ms, total work: %d ms, ideal: %d ms, efficiency: %.1f%%%n",
+                wallNanos / 1_000_000, totalBusy / 1_000_000, ideal / 1_000_000, percent(ideal, wallNanos));
+    }
+
+    private static double percent(long part, long whole) {
+        return whole == 0 ? 0 : part * 100.0 / whole;
+    }
+
+    /* Гетери */
+    public int getWorkerId() {
+        return workerId;
+    }
+
+    public int getTasks() {
+        return tasks;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    public long getBusyNanos() {
+        return busyNanos;
+    }
+}
@@ -0,0 +1,168 @@
+package com.petrovoleh.service;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * Лічильник дат замовлень (orderDate) на основі хеш-таблиці з відкритою адресацією з ключами long.
+ * Ключами є групи дат, обчислені {@link TimeBucket#key(long)}; у текст вони перетворюються лише при виведенні,
+ * причому в хронологічному порядку. Комірка з нульовою кількістю вважається порожньою.
+ */
+public class DateCounter implements LongValueCounter {
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    private final TimeBucket bucket; // Групування, яким отримано ключі
+    private long[] keys; // Ключі груп дат
+    private long[] counts; // Кількості (0 - порожня комірка)
+    private int size; // Кількість різних ключів
+    private int mask; // Маска індексу (ємність - 1)
+    private int threshold; // Кількість ключів, після якої таблиця розширюється
+
+    /**
+     * Створює порожній лічильник.
+     * @param bucket групування, яким отримано ключі
+     */
+    public DateCounter(TimeBucket bucket) {
+        this.bucket = bucket;
+        allocate(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Збільшує кількість входжень ключа на одиницю.
+     * @param key ключ групи дат
+     */
+    @Override
+    public void add(long key) {
+        add(key, 1);
+    }
+
+    /**
+     * Збільшує кількість входжень ключа на вказану величину.
+     * @param key   ключ групи дат
+     * @param count величина (більша за нуль)
+     */
+    public void add(long key, long count) {
+        int index = hash(key) & mask;
+        while (counts[index] != 0) {
+            if (keys[index] == key) {
+                counts[index] += count;
+                return;
+            }
+            index = (index + 1) & mask;
+        }
+        keys[index] = key;
+        counts[index] = count;
+        if (++size > threshold) {
+            resize();
+        }
+    }
+
+    /**
+     * Повертає кількість входжень ключа.
+     * @param key ключ групи дат
+     * @return кількість входжень (0, якщо ключ не зустрічався)
+     */
+    public long get(long key) {
+        int index = hash(key) & mask;
+        while (counts[index] != 0) {
+            if (keys[index] == key) {
+                return counts[index];
+            }
+            index = (index + 1) & mask;
+        }
+        return 0;
+    }
+
+    /**
+     * Повертає всі ключі лічильника в порядку хеш-таблиці.
+     * @return нова копія ключів
+     */
+    long[] keys() {
+        long[] result = new long[size];
+        int n = 0;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] != 0) {
+                result[n++] = keys[i];
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void merge(ValueCounter other) {
+        DateCounter counter = (DateCounter) other;
+        for (int i = 0; i < counter.counts.length; i++) {
+            if (counter.counts[i] != 0) {
+                add(counter.keys[i], counter.counts[i]);
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Передає кожну групу дат у текстовому вигляді та її кількість у хронологічному порядку.
+     */
+    @Override
+    public void forEach(ObjLongConsumer<String> action) {
+        long[] sorted = keys();
+        Arrays.sort(sorted);
+        for (long key : sorted) {
+            action.accept(bucket.format(key), get(key));
+        }
+    }
+
+    @Override
+    public void write(DataOutput out) throws IOException {
+        out.writeInt(size);
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] != 0) {
+                out.writeLong(keys[i]);
+                out.writeLong(counts[i]);
+            }
+        }
+    }
+
+    @Override
+    public void read(DataInput in) throws IOException {
+        int entries = in.readInt();
+        for (int i = 0; i < entries; i++) {
+            add(in.readLong(), in.readLong());
+        }
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        counts = new long[capacity];
+        mask = capacity - 1;
+        threshold = capacity / 4 * 3;
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        long[] oldCounts = counts;
+        allocate(oldCounts.length * 2);
+        size = 0;
+        for (int i = 0; i < oldCounts.length; i++) {
+            if (oldCounts[i] != 0) {
+                add(oldKeys[i], oldCounts[i]);
+            }
+        }
+    }
+
+    /* Гетери */
+    public TimeBucket getBucket() {
+        return bucket;
+    }
+}
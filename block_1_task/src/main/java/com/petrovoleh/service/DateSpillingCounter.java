@@ -0,0 +1,115 @@
+package com.petrovoleh.service;
+
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Лічильник дат замовлень (orderDate) з вивантаженням на диск (див. {@link SpillingCounter}).
+ * У пам'яті ключі груп дат рахуються в {@link DateCounter}, серії впорядковані хронологічно.
+ */
+public class DateSpillingCounter extends SpillingCounter implements LongValueCounter {
+    public static final int BYTES_PER_ENTRY = 48; // Оцінка пам'яті на один ключ у DateCounter з урахуванням запасу таблиці
+
+    private final TimeBucket bucket; // Групування, яким отримано ключі
+    private DateCounter memory; // Ключі в пам'яті
+
+    /**
+     * Створює порожній лічильник.
+     * @param directory директорія тимчасових файлів
+     * @param budget    максимальна кількість різних ключів у пам'яті
+     * @param bucket    групування, яким отримано ключі
+     */
+    public DateSpillingCounter(Path directory, int budget, TimeBucket bucket) {
+        super(directory, budget);
+        this.bucket = bucket;
+        this.memory = new DateCounter(bucket);
+    }
+
+    @Override
+    public void add(long key) {
+        memory.add(key, 1);
+        added();
+    }
+
+    /**
+     * Збільшує кількість входжень ключа на вказану величину.
+     * @param key   ключ групи дат
+     * @param count величина (більша за нуль)
+     */
+    public void add(long key, long count) {
+        memory.add(key, count);
+        added();
+    }
+
+    @Override
+    public void read(DataInput in) throws IOException {
+        int entries = in.readInt();
+        for (int i = 0; i < entries; i++) {
+            add(in.readLong(), in.readLong());
+        }
+    }
+
+    @Override
+    ValueCounter memory() {
+        return memory;
+    }
+
+    @Override
+    void clearMemory() {
+        memory = new DateCounter(bucket);
+    }
+
+    @Override
+    void writeSorted(ValueCounter table, DataOutput out) throws IOException {
+        DateCounter counter = (DateCounter) table;
+        long[] keys = counter.keys();
+        Arrays.sort(keys);
+        for (long key : keys) {
+            out.writeBoolean(true);
+            out.writeLong(key);
+            out.writeLong(counter.get(key));
+        }
+    }
+
+    @Override
+    RunReader newReader(DataInputStream in) {
+        return new DateRunReader(in, bucket);
+    }
+
+    /**
+     * Читач серії з ключами груп дат.
+     */
+    private static class DateRunReader extends RunReader {
+        private final TimeBucket bucket; // Групування для виведення ключа
+        private long key; // Поточний ключ
+
+        DateRunReader(DataInputStream in, TimeBucket bucket) {
+            super(in);
+            this.bucket = bucket;
+        }
+
+        @Override
+        void readKey(DataInput in) throws IOException {
+            key = in.readLong();
+        }
+
+        @Override
+        int compareKey(RunReader other) {
+            return Long.compare(key, ((DateRunReader) other).key);
+        }
+
+        @Override
+        String formatKey() {
+            return bucket.format(key);
+        }
+
+        @Override
+        void writeKey(DataOutput out) throws IOException {
+            out.writeLong(key);
+        }
+    }
+}
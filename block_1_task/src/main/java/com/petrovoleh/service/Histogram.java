@@ -0,0 +1,193 @@
+package com.petrovoleh.service;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * Лог-лінійна гістограма цілих невід'ємних значень (суми замовлень) з фіксованою пам'яттю.
+ * Значення до 2^SUB_BUCKET_BITS рахуються точно, а кожен наступний степінь двійки ділиться на
+ * 2^(SUB_BUCKET_BITS - 1) однакових кошиків, тому відносна ширина кошика не перевищує 1/64.
+ * Кількість, сума, мінімум і максимум рахуються точно; перцентилі - з точністю до кошика.
+ * Гістограми об'єднуються додаванням кошиків. Від'ємні значення потрапляють у перший кошик.
+ */
+public class Histogram implements IntValueCounter {
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS; // Кількість кошиків для точних значень
+    private static final int SUB_BUCKET_HALF = SUB_BUCKET_COUNT / 2; // Кількість кошиків на кожен наступний степінь двійки
+    private static final int BUCKET_COUNT = (33 - SUB_BUCKET_BITS) * SUB_BUCKET_HALF;
+
+    private final long[] buckets = new long[BUCKET_COUNT]; // Кількість значень у кожному кошику
+    private long count; // Кількість значень
+    private long sum; // Сума значень
+    private int min = Integer.MAX_VALUE; // Мінімальне значення
+    private int max = Integer.MIN_VALUE; // Максимальне значення
+
+    @Override
+    public void add(int value) {
+        buckets[bucketIndex(value)]++;
+        count++;
+        sum += value;
+        if (value < min) {
+            min = value;
+        }
+        if (value > max) {
+            max = value;
+        }
+    }
+
+    /**
+     * Повертає номер кошика для значення.
+     */
+    static int bucketIndex(int value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return Math.max(value, 0);
+        }
+        int shift = 31 - Integer.numberOfLeadingZeros(value) - (SUB_BUCKET_BITS - 1);
+        return shift * SUB_BUCKET_HALF + (value >>> shift);
+    }
+
+    /**
+     * Повертає найменше значення, що потрапляє в кошик.
+     */
+    static int bucketFrom(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = index / SUB_BUCKET_HALF - 1;
+        return (index - shift * SUB_BUCKET_HALF) << shift;
+    }
+
+    /**
+     * Повертає найбільше значення, що потрапляє в кошик.
+     */
+    static int bucketTo(int index) {
+        return index + 1 < BUCKET_COUNT ? bucketFrom(index + 1) - 1 : Integer.MAX_VALUE;
+    }
+
+    /**
+     * Повертає перцентиль: найменше значення кошика, в якому накопичена кількість досягає вказаної частки.
+     * Результат обмежується мінімумом і максимумом, тому для першого і останнього кошика він точний.
+     * @param percentile частка від 0 до 100
+     * @return значення перцентиля (0, якщо гістограма порожня)
+     */
+    public long percentile(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += buckets[i];
+            if (seen >= rank) {
+                return Math.min(max, Math.max(min, bucketFrom(i)));
+            }
+        }
+        return max;
+    }
+
+    public double mean() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    /**
+     * Передає межі та кількість кожного непорожнього кошика у вказану дію.
+     * @param action дія, що приймає найменше та найбільше значення кошика і кількість значень у ньому
+     */
+    public void forEachBucket(BucketConsumer action) {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            if (buckets[i] != 0) {
+                action.accept(bucketFrom(i), bucketTo(i), buckets[i]);
+            }
+        }
+    }
+
+    /**
+     * Дія для кошика гістограми.
+     */
+    @FunctionalInterface
+    public interface BucketConsumer {
+        void accept(int from, int to, long count);
+    }
+
+    @Override
+    public void merge(ValueCounter other) {
+        Histogram histogram = (Histogram) other;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets[i] += histogram.buckets[i];
+        }
+        count += histogram.count;
+        sum += histogram.sum;
+        min = Math.min(min, histogram.min);
+        max = Math.max(max, histogram.max);
+    }
+
+    /**
+     * Повертає кількість непорожніх кошиків.
+     */
+    @Override
+    public int size() {
+        int size = 0;
+        for (long bucket : buckets) {
+            if (bucket != 0) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Передає кожен непорожній кошик у вигляді "від-до" та кількість значень у ньому.
+     */
+    @Override
+    public void forEach(ObjLongConsumer<String> action) {
+        forEachBucket((from, to, bucketCount) -> action.accept(from == to ? String.valueOf(from) : from + "-" + to, bucketCount));
+    }
+
+    @Override
+    public void write(DataOutput out) throws IOException {
+        out.writeLong(count);
+        out.writeLong(sum);
+        out.writeInt(min);
+        out.writeInt(max);
+        out.writeInt(size());
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            if (buckets[i] != 0) {
+                out.writeInt(i);
+                out.writeLong(buckets[i]);
+            }
+        }
+    }
+
+    @Override
+    public void read(DataInput in) throws IOException {
+        Histogram histogram = new Histogram();
+        histogram.count = in.readLong();
+        histogram.sum = in.readLong();
+        histogram.min = in.readInt();
+        histogram.max = in.readInt();
+        int entries = in.readInt();
+        for (int i = 0; i < entries; i++) {
+            histogram.buckets[in.readInt()] = in.readLong();
+        }
+        merge(histogram);
+    }
+
+    /* Гетери */
+    public long getCount() {
+        return count;
+    }
+
+    public long getSum() {
+        return sum;
+    }
+
+    public int getMin() {
+        return min;
+    }
+
+    public int getMax() {
+        return max;
+    }
+}
@@ -0,0 +1,175 @@
+package com.petrovoleh.service;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * Наближений лічильник кількості різних значень (алгоритм HyperLogLog).
+ * Зберігає лише 2^precision однобайтових регістрів (4 КБ при точності 12), тому пам'ять не залежить від кількості значень;
+ * відносна стандартна похибка оцінки дорівнює 1.04 / sqrt(2^precision).
+ * Лічильники з однаковою точністю об'єднуються без втрати точності (максимум по кожному регістру),
+ * тому окремі оцінки потоків і файлів можна зводити в загальну.
+ * Окремі значення та їх кількості не зберігаються.
+ */
+public class HyperLogLog implements IntValueCounter, LongValueCounter, TextValueCounter {
+    public static final int MIN_PRECISION = 4;
+    public static final int MAX_PRECISION = 18;
+    public static final int DEFAULT_PRECISION = 12;
+    private static final long MISSING_VALUE_HASH = 0x9E3779B97F4A7C15L; // Ключ відсутнього значення (null), що рахується як окреме значення
+
+    private final int precision; // Кількість бітів хешу, що визначають номер регістра
+    private final byte[] registers; // Максимальний номер першого одиничного біта для кожного регістра
+
+    /**
+     * Створює порожній лічильник.
+     * @param precision точність (від {@link #MIN_PRECISION} до {@link #MAX_PRECISION})
+     */
+    public HyperLogLog(int precision) {
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("The precision must be between " + MIN_PRECISION + " and " + MAX_PRECISION + ".");
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    @Override
+    public void add(int value) {
+        addHash(mix(value));
+    }
+
+    @Override
+    public void add(long value) {
+        addHash(mix(value));
+    }
+
+    /**
+     * Додає текстове значення. Відсутнє значення (null) рахується як одне окреме значення, як і в точному лічильнику.
+     */
+    @Override
+    public void add(String value) {
+        if (value == null) {
+            addHash(mix(MISSING_VALUE_HASH));
+            return;
+        }
+        // FNV-1a по символах рядка з подальшим перемішуванням бітів, без створення масиву байтів
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * 0x100000001B3L;
+        }
+        addHash(mix(hash));
+    }
+
+    @Override
+    public void add(String value, long count) {
+        // Кількість входжень не впливає на кількість різних значень
+        if (count > 0) {
+            add(value);
+        }
+    }
+
+    private void addHash(long hash) {
+        int index = (int) (hash >>> (64 - precision));
+        // Одиничний біт у кінці обмежує номер першої одиниці, якщо решта бітів - нулі
+        long rest = (hash << precision) | (1L << (precision - 1));
+        byte rank = (byte) (Long.numberOfLeadingZeros(rest) + 1);
+        if (rank > registers[index]) {
+            registers[index] = rank;
+        }
+    }
+
+    /**
+     * Перемішує біти ключа (фіналізатор MurmurHash3), щоб близькі ключі давали незалежні хеші.
+     */
+    private static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xFF51AFD7ED558CCDL;
+        key ^= key >>> 33;
+        key *= 0xC4CEB9FE1A85EC53L;
+        key ^= key >>> 33;
+        return key;
+    }
+
+    /**
+     * Повертає оцінку кількості різних значень. Для малих кількостей використовується лінійний підрахунок
+     * за кількістю порожніх регістрів.
+     * @return оцінка кількості різних значень
+     */
+    public long estimate() {
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        double alpha = switch (m) {
+            case 16 -> 0.673;
+            case 32 -> 0.697;
+            case 64 -> 0.709;
+            default -> 0.7213 / (1 + 1.079 / m);
+        };
+        double estimate = alpha * m * m / sum;
+        if (estimate <= 2.5 * m && zeros > 0) {
+            estimate = m * Math.log((double) m / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    /**
+     * Повертає відносну стандартну похибку оцінки.
+     * @return відносна стандартна похибка
+     */
+    public double standardError() {
+        return 1.04 / Math.sqrt(registers.length);
+    }
+
+    @Override
+    public void merge(ValueCounter other) {
+        HyperLogLog sketch = (HyperLogLog) other;
+        if (sketch.precision != precision) {
+            throw new IllegalArgumentException("Cannot merge HyperLogLog sketches with different precision.");
+        }
+        for (int i = 0; i < registers.length; i++) {
+            if (sketch.registers[i] > registers[i]) {
+                registers[i] = sketch.registers[i];
+            }
+        }
+    }
+
+    /**
+     * Повертає оцінку кількості різних значень.
+     */
+    @Override
+    public int size() {
+        return (int) Math.min(Integer.MAX_VALUE, estimate());
+    }
+
+    /**
+     * Окремі значення не зберігаються, тому дія не викликається жодного разу.
+     */
+    @Override
+    public void forEach(ObjLongConsumer<String> action) {
+    }
+
+    @Override
+    public void write(DataOutput out) throws IOException {
+        out.writeByte(precision);
+        out.write(registers);
+    }
+
+    @Override
+    public void read(DataInput in) throws IOException {
+        HyperLogLog sketch = new HyperLogLog(in.readByte());
+        in.readFully(sketch.registers);
+        merge(sketch);
+    }
+
+    /* Гетери */
+    public int getPrecision() {
+        return precision;
+    }
+}
@@ -0,0 +1,157 @@
+package com.petrovoleh.service;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * Лічильник цілочисельних значень (orderId, amount) на основі хеш-таблиці з відкритою адресацією.
+ * Ключі та кількості зберігаються в примітивних масивах, тому на кожне значення не створюються
+ * ні рядок, ні Integer, ні вузол HashMap. Ключі перетворюються на рядки лише при виведенні.
+ * Комірка з нульовою кількістю вважається порожньою.
+ */
+public class IntCounter implements IntValueCounter {
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    private int[] keys; // Значення
+    private long[] counts; // Кількості (0 - порожня комірка)
+    private int size; // Кількість різних значень
+    private int mask; // Маска індексу (ємність - 1)
+    private int threshold; // Кількість значень, після якої таблиця розширюється
+
+    /**
+     * Створює порожній лічильник.
+     */
+    public IntCounter() {
+        allocate(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Збільшує кількість входжень значення на одиницю.
+     * @param key значення
+     */
+    @Override
+    public void add(int key) {
+        add(key, 1);
+    }
+
+    /**
+     * Збільшує кількість входжень значення на вказану величину.
+     * @param key   значення
+     * @param count величина (більша за нуль)
+     */
+    public void add(int key, long count) {
+        int index = hash(key) & mask;
+        while (counts[index] != 0) {
+            if (keys[index] == key) {
+                counts[index] += count;
+                return;
+            }
+            index = (index + 1) & mask;
+        }
+        keys[index] = key;
+        counts[index] = count;
+        if (++size > threshold) {
+            resize();
+        }
+    }
+
+    /**
+     * Повертає кількість входжень значення.
+     * @param key значення
+     * @return кількість входжень (0, якщо значення не зустрічалось)
+     */
+    public long get(int key) {
+        int index = hash(key) & mask;
+        while (counts[index] != 0) {
+            if (keys[index] == key) {
+                return counts[index];
+            }
+            index = (index + 1) & mask;
+        }
+        return 0;
+    }
+
+    /**
+     * Повертає всі значення лічильника в порядку хеш-таблиці.
+     * @return нова копія значень
+     */
+    int[] keys() {
+        int[] result = new int[size];
+        int n = 0;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] != 0) {
+                result[n++] = keys[i];
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void merge(ValueCounter other) {
+        IntCounter counter = (IntCounter) other;
+        for (int i = 0; i < counter.counts.length; i++) {
+            if (counter.counts[i] != 0) {
+                add(counter.keys[i], counter.counts[i]);
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void forEach(ObjLongConsumer<String> action) {
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] != 0) {
+                action.accept(String.valueOf(keys[i]), counts[i]);
+            }
+        }
+    }
+
+    @Override
+    public void write(DataOutput out) throws IOException {
+        out.writeInt(size);
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] != 0) {
+                out.writeInt(keys[i]);
+                out.writeLong(counts[i]);
+            }
+        }
+    }
+
+    @Override
+    public void read(DataInput in) throws IOException {
+        int entries = in.readInt();
+        for (int i = 0; i < entries; i++) {
+            add(in.readInt(), in.readLong());
+        }
+    }
+
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        counts = new long[capacity];
+        mask = capacity - 1;
+        threshold = capacity / 4 * 3;
+    }
+
+    private void resize() {
+        int[] oldKeys = keys;
+        long[] oldCounts = counts;
+        allocate(oldCounts.length * 2);
+        size = 0;
+        for (int i = 0; i < oldCounts.length; i++) {
+            if (oldCounts[i] != 0) {
+                add(oldKeys[i], oldCounts[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.petrovoleh.service;
+
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Лічильник цілочисельних значень (orderId, amount) з вивантаженням на диск (див. {@link SpillingCounter}).
+ * У пам'яті значення рахуються в {@link IntCounter}, серії впорядковані за значенням.
+ */
+public class IntSpillingCounter extends SpillingCounter implements IntValueCounter {
+    public static final int BYTES_PER_ENTRY = 32; // Оцінка пам'яті на одне значення в IntCounter з урахуванням запасу таблиці
+
+    private IntCounter memory = new IntCounter(); // Значення в пам'яті
+
+    /**
+     * Створює порожній лічильник.
+     * @param directory директорія тимчасових файлів
+     * @param budget    максимальна кількість різних значень у пам'яті
+     */
+    public IntSpillingCounter(Path directory, int budget) {
+        super(directory, budget);
+    }
+
+    @Override
+    public void add(int value) {
+        memory.add(value, 1);
+        added();
+    }
+
+    /**
+     * Збільшує кількість входжень значення на вказану величину.
+     * @param value значення
+     * @param count величина (більша за нуль)
+     */
+    public void add(int value, long count) {
+        memory.add(value, count);
+        added();
+    }
+
+    @Override
+    public void read(DataInput in) throws IOException {
+        int entries = in.readInt();
+        for (int i = 0; i < entries; i++) {
+            add(in.readInt(), in.readLong());
+        }
+    }
+
+    @Override
+    ValueCounter memory() {
+        return memory;
+    }
+
+    @Override
+    void clearMemory() {
+        memory = new IntCounter();
+    }
+
+    @Override
+    void writeSorted(ValueCounter table, DataOutput out) throws IOException {
+        IntCounter counter = (IntCounter) table;
+        int[] keys = counter.keys();
+        Arrays.sort(keys);
+        for (int key : keys) {
+            out.writeBoolean(true);
+            out.writeInt(key);
+            out.writeLong(counter.get(key));
+        }
+    }
+
+    @Override
+    RunReader newReader(DataInputStream in) {
+        return new IntRunReader(in);
+    }
+
+    /**
+     * Читач серії з цілочисельними ключами.
+     */
+    private static class IntRunReader extends RunReader {
+        private int key; // Поточне значення
+
+        IntRunReader(DataInputStream in) {
+            super(in);
+        }
+
+        @Override
+        void readKey(DataInput in) throws IOException {
+            key = in.readInt();
+        }
+
+        @Override
+        int compareKey(RunReader other) {
+            return Integer.compare(key, ((IntRunReader) other).key);
+        }
+
+        @Override
+        String formatKey() {
+            return String.valueOf(key);
+        }
+
+        @Override
+        void writeKey(DataOutput out) throws IOException {
+            out.writeInt(key);
+        }
+    }
+}
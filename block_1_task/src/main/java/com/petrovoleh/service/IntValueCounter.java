@@ -0,0 +1,13 @@
+package com.petrovoleh.service;
+
+/**
+ * Лічильник, що приймає цілочисельні значення атрибута (orderId, amount).
+ */
+public interface IntValueCounter extends ValueCounter {
+
+    /**
+     * Враховує одне входження значення.
+     * @param value значення
+     */
+    void add(int value);
+}
@@ -0,0 +1,13 @@
+package com.petrovoleh.service;
+
+/**
+ * Лічильник, що приймає значення атрибута, запаковані в long (ключі груп дат).
+ */
+public interface LongValueCounter extends ValueCounter {
+
+    /**
+     * Враховує одне входження значення.
+     * @param value значення
+     */
+    void add(long value);
+}
@@ -0,0 +1,168 @@
+package com.petrovoleh.service;
+
+import com.petrovoleh.model.Attribute;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Файл часткової статистики для розподіленої обробки: кожен процес обробляє частину файлів директорії
+ * (див. {@link com.petrovoleh.parser.FileShard}) і записує статистику в такий файл, а команда злиття об'єднує
+ * будь-яку кількість файлів у загальну статистику.
+ * Файл містить налаштування статистики, список оброблених файлів, назви атрибутів і їх лічильники у тому ж форматі, що й кеш часткової статистики.
+ * Злиття перевіряє, що файли обчислені з однаковими налаштуваннями і що жоден файл замовлень не врахований двічі.
+ */
+public final class PartialStats {
+    public static final String FILE_SUFFIX = ".partial";
+
+    private static final int MAGIC = 0x53545032; // "STP2" - ознака файлу часткової статистики і версія формату
+
+    private PartialStats() {}
+
+    /**
+     * Записує статистику сервісу у файл часткової статистики. Файл спочатку пишеться в тимчасовий файл,
+     * який потім атомарно перейменовується, тому процес злиття не бачить недописаних файлів.
+     *
+     * @param path         файл для запису
+     * @param statsService сервіс зі статистикою частини
+     * @param sources      оброблені файли замовлень
+     * @throws IOException у випадку помилки вводу/виводу
+     */
+    public static void write(Path path, StatsService statsService, List<File> sources) throws IOException {
+        Path directory = path.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, "partial", ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                StatsOptions options = statsService.getOptions();
+                out.writeInt(options.getTopItems());
+                out.writeInt(options.getCardinalityPrecision());
+                out.writeUTF(options.getDateBucket().name());
+                out.writeBoolean(options.isAmountHistogram());
+                out.writeInt(sources.size());
+                for (File source : sources) {
+                    out.writeUTF(source.getAbsolutePath());
+                }
+                out.writeInt(statsService.getAttributes().size());
+                for (Attribute attribute : statsService.getAttributes()) {
+                    out.writeUTF(attribute.getName());
+                }
+                for (Attribute attribute : statsService.getAttributes()) {
+                    statsService.counter(attribute).write(out);
+                }
+            }
+            // Тимчасовий файл доступний лише власнику, а злиття може виконувати інший користувач
+            temp.toFile().setReadable(true, false);
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            temp.toFile().delete();
+        }
+    }
+
+    /**
+     * Об'єднує файли часткової статистики. Атрибути і налаштування статистики (найчастіші товари, підрахунок різних значень,
+     * групування дат, розподіл сум) беруться з першого файлу і замінюють відповідні налаштування options;
+     * решта налаштувань (наприклад, вивантаження на диск) застосовується під час злиття.
+     *
+     * @param partials файли часткової статистики
+     * @param options  налаштування статистики злиття
+     * @return сервіс з об'єднаною статистикою
+     * @throws IOException якщо файл неможливо прочитати, він обчислений з іншими налаштуваннями
+     *                     або файл замовлень врахований у кількох файлах
+     */
+    public static StatsService merge(List<Path> partials, StatsOptions options) throws IOException {
+        if (partials.isEmpty()) {
+            throw new IllegalArgumentException("At least one partial statistics file is required.");
+        }
+        StatsService statsService = null;
+        List<String> expected = null; // Опис лічильників першого файлу
+        Map<String, Path> sources = new HashMap<>(); // Файл замовлень -> файл часткової статистики, що його містить
+        for (Path partial : partials) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(partial)))) {
+                if (in.readInt() != MAGIC) {
+                    throw new IOException("Not a partial statistics file: " + partial);
+                }
+                StatsOptions partialOptions = new StatsOptions();
+                partialOptions.setTopItems(in.readInt());
+                partialOptions.setCardinalityPrecision(in.readInt());
+                partialOptions.setDateBucket(TimeBucket.valueOf(in.readUTF()));
+                partialOptions.setAmountHistogram(in.readBoolean());
+                int sourceCount = in.readInt();
+                for (int i = 0; i < sourceCount; i++) {
+                    String source = in.readUTF();
+                    Path previous = sources.putIfAbsent(source, partial);
+                    if (previous != null) {
+                        throw new IOException("File " + source + " is included in both " + previous + " and " + partial);
+                    }
+                }
+                int attributeCount = in.readInt();
+                List<Attribute> attributes = new ArrayList<>(attributeCount);
+                List<String> descriptions = new ArrayList<>(attributeCount);
+                for (int i = 0; i < attributeCount; i++) {
+                    attributes.add(Attribute.fromName(in.readUTF()));
+                    descriptions.add(partialOptions.describe(attributes.get(i)));
+                }
+                if (statsService == null) {
+                    options.setTopItems(partialOptions.getTopItems());
+                    options.setCardinalityPrecision(partialOptions.getCardinalityPrecision());
+                    options.setDateBucket(partialOptions.getDateBucket());
+                    options.setAmountHistogram(partialOptions.isAmountHistogram());
+                    Set<Attribute> attributeSet = EnumSet.noneOf(Attribute.class);
+                    attributeSet.addAll(attributes);
+                    statsService = new StatsService(attributeSet, options);
+                    expected = descriptions;
+                } else if (!descriptions.equals(expected)) {
+                    throw new IOException("Partial statistics file " + partial + " was computed with different attributes or options: "
+                            + descriptions + " instead of " + expected);
+                }
+                // Лічильники записані в порядку атрибутів, тому кожен читається в новий лічильник і додається до загального
+                for (Attribute attribute : attributes) {
+                    ValueCounter counter = options.newCounter(attribute);
+                    counter.read(in);
+                    statsService.counter(attribute).merge(counter);
+                    StatsAccumulator.release(counter);
+                }
+            }
+        }
+        return statsService;
+    }
+
+    /**
+     * Повертає файли часткової статистики за списком шляхів: файл береться як є, а з директорії - усі файли з {@link #FILE_SUFFIX}.
+     *
+     * @param paths файли або директорії
+     * @return файли часткової статистики
+     * @throws IOException якщо директорію неможливо прочитати
+     */
+    public static List<Path> resolve(List<Path> paths) throws IOException {
+        List<Path> partials = new ArrayList<>();
+        for (Path path : paths) {
+            if (!Files.isDirectory(path)) {
+                partials.add(path);
+                continue;
+            }
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(path, "*" + FILE_SUFFIX)) {
+                List<Path> found = new ArrayList<>();
+                stream.forEach(found::add);
+                found.sort(null);
+                partials.addAll(found);
+            }
+        }
+        return partials;
+    }
+}
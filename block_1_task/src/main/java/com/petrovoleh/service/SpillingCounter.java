@@ -0,0 +1,388 @@
+package com.petrovoleh.service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * Лічильник з обмеженою пам'яттю для атрибутів з великою кількістю різних значень.
+ * Значення рахуються у звичайному лічильнику в пам'яті; коли кількість різних значень у ньому досягає бюджету,
+ * значення сортуються і записуються у тимчасовий файл (серію), а лічильник у пам'яті очищається.
+ * Під час обходу серії зливаються по {@link #MERGE_WIDTH} за раз (k-шляхове злиття з купою),
+ * тому значення виводяться в порядку ключів з сумарними кількостями, а пам'ять не залежить від кількості значень.
+ * Серії після запису не змінюються, тому при об'єднанні лічильників вони спільні, а другий лічильник не змінюється.
+ * Файл серії видаляється, коли його звільнять усі лічильники, що її містять ({@link #release()}),
+ * а файли, не звільнені до завершення програми, - при завершенні.
+ */
+public abstract class SpillingCounter implements ValueCounter {
+    public static final int MERGE_WIDTH = 64; // Кількість серій, що зливаються одночасно
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final Set<Path> LIVE_FILES = ConcurrentHashMap.newKeySet(); // Ще не видалені файли серій усіх лічильників
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> LIVE_FILES.forEach(SpillingCounter::deleteFile), "spill-cleanup"));
+    }
+
+    private final Path directory; // Директорія тимчасових файлів
+    private final int budget; // Максимальна кількість різних значень у пам'яті
+    private final List<Run> runs = new ArrayList<>(); // Записані серії
+    private int size = -1; // Кількість різних значень після злиття (-1 - не обчислена)
+
+    /**
+     * Серія: файл зі значеннями, впорядкованими за ключем, і кількість лічильників, що її містять.
+     * Лічильники в різних потоках можуть мати спільні серії, тому кількість посилань атомарна.
+     */
+    private static final class Run {
+        final Path path; // Файл серії
+        final long entries; // Кількість значень у серії
+        final AtomicInteger references = new AtomicInteger(1);
+
+        Run(Path path, long entries) {
+            this.path = path;
+            this.entries = entries;
+        }
+
+        /**
+         * Видаляє файл серії, якщо її більше не містить жоден лічильник.
+         */
+        void release() {
+            if (references.decrementAndGet() == 0) {
+                deleteFile(path);
+            }
+        }
+    }
+
+    /**
+     * Створює порожній лічильник.
+     * @param directory директорія тимчасових файлів
+     * @param budget    максимальна кількість різних значень у пам'яті
+     */
+    protected SpillingCounter(Path directory, int budget) {
+        if (budget <= 0) {
+            throw new IllegalArgumentException("The spill budget must be a positive number.");
+        }
+        this.directory = directory;
+        this.budget = budget;
+    }
+
+    /**
+     * Повертає лічильник значень у пам'яті.
+     */
+    abstract ValueCounter memory();
+
+    /**
+     * Замінює лічильник значень у пам'яті порожнім.
+     */
+    abstract void clearMemory();
+
+    /**
+     * Записує значення лічильника в порядку ключів, кожне - після ознаки {@code true}.
+     * @param table лічильник того ж типу, що й {@link #memory()}
+     * @param out   потік для запису
+     * @throws IOException у випадку помилки вводу/виводу
+     */
+    abstract void writeSorted(ValueCounter table, DataOutput out) throws IOException;
+
+    /**
+     * Створює читача серії.
+     * @param in потік серії
+     * @return читач, що ще не прочитав жодного значення
+     */
+    abstract RunReader newReader(DataInputStream in);
+
+    /**
+     * Викликається після додавання значень до лічильника в пам'яті: записує серію, якщо досягнуто бюджет.
+     */
+    final void added() {
+        size = -1;
+        if (memory().size() >= budget) {
+            try {
+                runs.add(writeRun(memory()));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            clearMemory();
+        }
+    }
+
+    /**
+     * Додає значення іншого лічильника: його серії стають спільними, а значення з пам'яті додаються
+     * до власних або, якщо разом вони перевищують бюджет, записуються окремою серією.
+     */
+    @Override
+    public void merge(ValueCounter other) {
+        SpillingCounter counter = (SpillingCounter) other;
+        size = -1;
+        for (Run run : counter.runs) {
+            run.references.incrementAndGet();
+            runs.add(run);
+        }
+        ValueCounter otherMemory = counter.memory();
+        if (otherMemory.size() == 0) {
+            return;
+        }
+        if (memory().size() + otherMemory.size() > budget) {
+            try {
+                runs.add(writeRun(otherMemory));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        } else {
+            memory().merge(otherMemory);
+        }
+    }
+
+    /**
+     * Повертає точну кількість різних значень. Якщо є серії, кількість обчислюється їх злиттям і запам'ятовується до наступної зміни.
+     */
+    @Override
+    public int size() {
+        if (runs.isEmpty()) {
+            return memory().size();
+        }
+        if (size < 0) {
+            int[] count = {0};
+            mergeRuns((reader, total) -> count[0]++);
+            size = count[0];
+        }
+        return size;
+    }
+
+    /**
+     * Перевіряє, чи лічильник порожній, без злиття серій.
+     * @return true, якщо немає ні серій, ні значень у пам'яті
+     */
+    public boolean isEmpty() {
+        return runs.isEmpty() && memory().size() == 0;
+    }
+
+    /**
+     * Звільняє серії лічильника і очищає його. Файли серій, яких не містять інші лічильники, видаляються.
+     * Після звільнення лічильник порожній і може використовуватись далі.
+     */
+    public void release() {
+        runs.forEach(Run::release);
+        runs.clear();
+        clearMemory();
+        size = -1;
+    }
+
+    /**
+     * Повертає верхню межу кількості різних значень без злиття серій: значення в пам'яті і в усіх серіях.
+     * @return верхня межа кількості різних значень
+     */
+    public long getEntryCount() {
+        long entries = memory().size();
+        for (Run run : runs) {
+            entries += run.entries;
+        }
+        return entries;
+    }
+
+    /**
+     * Передає кожне значення та його сумарну кількість у дію. Якщо є серії, значення передаються в порядку ключів.
+     */
+    @Override
+    public void forEach(ObjLongConsumer<String> action) {
+        if (runs.isEmpty()) {
+            memory().forEach(action);
+            return;
+        }
+        mergeRuns((reader, total) -> action.accept(reader.formatKey(), total));
+    }
+
+    /**
+     * Записує значення у форматі лічильника в пам'яті, тому записане читається і звичайним лічильником.
+     */
+    @Override
+    public void write(DataOutput out) throws IOException {
+        if (runs.isEmpty()) {
+            memory().write(out);
+            return;
+        }
+        out.writeInt(size());
+        try {
+            mergeRuns((reader, total) -> {
+                reader.writeKey(out);
+                out.writeLong(total);
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Зливає всі серії і значення з пам'яті та передає кожен ключ з сумарною кількістю в дію.
+     * Якщо серій більше, ніж {@link #MERGE_WIDTH}, вони спершу зливаються групами в проміжні серії.
+     */
+    private void mergeRuns(MergeAction action) {
+        List<Path> temporary = new ArrayList<>();
+        try {
+            List<Path> sources = new ArrayList<>();
+            for (Run run : runs) {
+                sources.add(run.path);
+            }
+            if (memory().size() > 0) {
+                Path run = writeRun(memory()).path;
+                temporary.add(run);
+                sources.add(run);
+            }
+            while (sources.size() > MERGE_WIDTH) {
+                List<Path> merged = new ArrayList<>();
+                for (int i = 0; i < sources.size(); i += MERGE_WIDTH) {
+                    List<Path> group = sources.subList(i, Math.min(sources.size(), i + MERGE_WIDTH));
+                    if (group.size() == 1) {
+                        merged.add(group.get(0));
+                        continue;
+                    }
+                    Path run = createRunFile();
+                    temporary.add(run);
+                    try (DataOutputStream out = openOutput(run)) {
+                        mergeGroup(group, (reader, total) -> {
+                            out.writeBoolean(true);
+                            reader.writeKey(out);
+                            out.writeLong(total);
+                        });
+                        out.writeBoolean(false);
+                    }
+                    merged.add(run);
+                }
+                sources = merged;
+            }
+            mergeGroup(sources, action);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            temporary.forEach(SpillingCounter::deleteFile);
+        }
+    }
+
+    /**
+     * Зливає групу серій за допомогою купи читачів, впорядкованих за поточним ключем.
+     */
+    private void mergeGroup(List<Path> group, MergeAction action) throws IOException {
+        List<RunReader> readers = new ArrayList<>();
+        try {
+            PriorityQueue<RunReader> heap = new PriorityQueue<>(Math.max(1, group.size()), RunReader::compareKey);
+            for (Path run : group) {
+                RunReader reader = newReader(new DataInputStream(new BufferedInputStream(Files.newInputStream(run), BUFFER_SIZE)));
+                readers.add(reader);
+                if (reader.next()) {
+                    heap.add(reader);
+                }
+            }
+            while (!heap.isEmpty()) {
+                RunReader head = heap.poll();
+                long total = head.count;
+                while (!heap.isEmpty() && heap.peek().compareKey(head) == 0) {
+                    RunReader same = heap.poll();
+                    total += same.count;
+                    if (same.next()) {
+                        heap.add(same);
+                    }
+                }
+                action.accept(head, total);
+                if (head.next()) {
+                    heap.add(head);
+                }
+            }
+        } finally {
+            for (RunReader reader : readers) {
+                reader.in.close();
+            }
+        }
+    }
+
+    /**
+     * Записує значення лічильника в нову серію.
+     */
+    private Run writeRun(ValueCounter table) throws IOException {
+        Path run = createRunFile();
+        try (DataOutputStream out = openOutput(run)) {
+            writeSorted(table, out);
+            out.writeBoolean(false);
+        }
+        return new Run(run, table.size());
+    }
+
+    private Path createRunFile() throws IOException {
+        Files.createDirectories(directory);
+        Path run = Files.createTempFile(directory, "spill_", ".run");
+        LIVE_FILES.add(run);
+        return run;
+    }
+
+    private static void deleteFile(Path run) {
+        run.toFile().delete();
+        LIVE_FILES.remove(run);
+    }
+
+    private static DataOutputStream openOutput(Path run) throws IOException {
+        return new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(run), BUFFER_SIZE));
+    }
+
+    /**
+     * Дія для кожного ключа злиття з сумарною кількістю.
+     */
+    @FunctionalInterface
+    private interface MergeAction {
+        void accept(RunReader reader, long total) throws IOException;
+    }
+
+    /**
+     * Читач серії: зберігає поточний ключ і його кількість.
+     */
+    abstract static class RunReader {
+        final DataInputStream in; // Потік серії
+        long count; // Кількість поточного ключа
+
+        RunReader(DataInputStream in) {
+            this.in = in;
+        }
+
+        /**
+         * Читає наступне значення серії.
+         * @return false, якщо серія закінчилась
+         * @throws IOException у випадку помилки вводу/виводу
+         */
+        boolean next() throws IOException {
+            if (!in.readBoolean()) {
+                return false;
+            }
+            readKey(in);
+            count = in.readLong();
+            return true;
+        }
+
+        abstract void readKey(DataInput in) throws IOException;
+
+        /**
+         * Порівнює поточні ключі двох читачів того ж типу.
+         */
+        abstract int compareKey(RunReader other);
+
+        /**
+         * Повертає поточний ключ у текстовому вигляді.
+         */
+        abstract String formatKey();
+
+        /**
+         * Записує поточний ключ у форматі лічильника в пам'яті.
+         */
+        abstract void writeKey(DataOutput out) throws IOException;
+    }
+}
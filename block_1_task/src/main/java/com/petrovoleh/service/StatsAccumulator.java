@@ -0,0 +1,349 @@
+package com.petrovoleh.service;
+
+import com.petrovoleh.model.Attribute;
+import com.petrovoleh.model.OrderBatch;
+import com.petrovoleh.model.OrderRecord;
+
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Цей клас накопичує статистику замовлень одного потоку за одним або кількома атрибутами одночасно.
+ * Не є потокобезпечним: кожен потік має власний накопичувач, а результати об'єднуються в {@link StatsService}.
+ * Клієнти і товари з номерами в таблицях символів накопичувача рахуються в масивах за номерами
+ * і переносяться в лічильники при зверненні до них.
+ */
+public class StatsAccumulator {
+    private static final int COLUMN_CHUNK = 4096; // Скільки значень стовпця копіюється з буфера за раз
+    private static final int INITIAL_SYMBOL_COUNTS = 256; // Початковий розмір масивів кількостей за номерами
+
+    private final Set<Attribute> attributes; // Атрибути, за якими обчислюється статистика
+    private final StatsOptions options; // Налаштування обчислення статистики
+    private final IntValueCounter orderIds; // Лічильники атрибутів (null, якщо атрибут не потрібен)
+    private final LongValueCounter orderDates;
+    private final IntValueCounter amounts;
+    private final TextValueCounter clients;
+    private final TextValueCounter items;
+    private final TimeBucket dateBucket; // Групування дат замовлень
+    private final SymbolTable clientSymbols; // Таблиці символів текстових атрибутів (null, якщо атрибут не потрібен)
+    private final SymbolTable itemSymbols;
+    private long[] clientCounts; // Кількості значень за номерами в таблиці символів (null, якщо лічильник не точний)
+    private long[] itemCounts;
+    private long newClientSymbols; // Кількість номерів, вперше врахованих у масивах після останнього перенесення, значень яких ще немає в лічильнику
+    private long newItemSymbols;
+
+    /**
+     * Створює порожній накопичувач для вказаних атрибутів з налаштуваннями за замовчуванням.
+     * @param attributes атрибути, за якими обчислюється статистика
+     */
+    public StatsAccumulator(Set<Attribute> attributes) {
+        this(attributes, new StatsOptions());
+    }
+
+    /**
+     * Створює порожній накопичувач для вказаних атрибутів.
+     * @param attributes атрибути, за якими обчислюється статистика
+     * @param options    налаштування обчислення статистики
+     */
+    public StatsAccumulator(Set<Attribute> attributes, StatsOptions options) {
+        this(attributes, options, newSymbolTable(attributes, Attribute.CLIENT), newSymbolTable(attributes, Attribute.ITEM));
+    }
+
+    /**
+     * Створює порожній накопичувач для вказаних атрибутів зі спільними таблицями символів.
+     * Номери значень у записах замовлень мають бути отримані з цих самих таблиць.
+     * @param attributes    атрибути, за якими обчислюється статистика
+     * @param options       налаштування обчислення статистики
+     * @param clientSymbols таблиця символів клієнтів (null - значення рахуються за рядками)
+     * @param itemSymbols   таблиця символів товарів (null - значення рахуються за рядками)
+     */
+    public StatsAccumulator(Set<Attribute> attributes, StatsOptions options, SymbolTable clientSymbols, SymbolTable itemSymbols) {
+        this.attributes = attributes;
+        this.options = options;
+        this.orderIds = (IntValueCounter) newCounter(Attribute.ORDER_ID);
+        this.orderDates = (LongValueCounter) newCounter(Attribute.ORDER_DATE);
+        this.amounts = (IntValueCounter) newCounter(Attribute.AMOUNT);
+        this.clients = (TextValueCounter) newCounter(Attribute.CLIENT);
+        this.items = (TextValueCounter) newCounter(Attribute.ITEM);
+        this.dateBucket = options.getDateBucket();
+        this.clientSymbols = clients != null ? clientSymbols : null;
+        this.itemSymbols = items != null ? itemSymbols : null;
+        // Наближені лічильники залежать від порядку значень, тому за номерами рахуються лише точні
+        this.clientCounts = this.clientSymbols != null && clients instanceof TextCounter ? new long[INITIAL_SYMBOL_COUNTS] : null;
+        this.itemCounts = this.itemSymbols != null && items instanceof TextCounter ? new long[INITIAL_SYMBOL_COUNTS] : null;
+    }
+
+    private ValueCounter newCounter(Attribute attribute) {
+        return attributes.contains(attribute) ? options.newCounter(attribute) : null;
+    }
+
+    /**
+     * Створює таблицю символів для текстового атрибута, якщо статистика за ним обчислюється.
+     * @param attributes атрибути, за якими обчислюється статистика
+     * @param attribute  атрибут {@link Attribute#CLIENT} або {@link Attribute#ITEM}
+     * @return нова таблиця або null
+     */
+    static SymbolTable newSymbolTable(Set<Attribute> attributes, Attribute attribute) {
+        return attributes.contains(attribute) ? new SymbolTable() : null;
+    }
+
+    /**
+     * Враховує в статистиці значення атрибутів з запису замовлення.
+     * @param record запис замовлення, в якому заповнені значення потрібних атрибутів
+     */
+    public void addRecord(OrderRecord record) {
+        if (orderIds != null) {
+            orderIds.add(record.getOrderId());
+        }
+        if (orderDates != null) {
+            orderDates.add(dateBucket.key(record.getOrderDate()));
+        }
+        if (amounts != null) {
+            amounts.add(record.getAmount());
+        }
+        if (clients != null) {
+            addClient(record.getClient(), record.getClientSymbol());
+        }
+        if (items != null) {
+            List<String> recordItems = record.getItems();
+            for (int i = 0; i < recordItems.size(); i++) {
+                addItem(recordItems.get(i), record.getItemSymbol(i));
+            }
+        }
+    }
+
+    /**
+     * Враховує в статистиці пакет записів замовлень. Пакет обходиться по стовпцях: спочатку всі значення
+     * одного атрибута, потім наступного.
+     * @param batch пакет записів, в яких заповнені значення потрібних атрибутів
+     */
+    public void addBatch(OrderBatch batch) {
+        int size = batch.size();
+        if (orderIds != null) {
+            for (int i = 0; i < size; i++) {
+                orderIds.add(batch.getOrderId(i));
+            }
+        }
+        if (orderDates != null) {
+            for (int i = 0; i < size; i++) {
+                orderDates.add(dateBucket.key(batch.getOrderDate(i)));
+            }
+        }
+        if (amounts != null) {
+            for (int i = 0; i < size; i++) {
+                amounts.add(batch.getAmount(i));
+            }
+        }
+        if (clients != null) {
+            for (int i = 0; i < size; i++) {
+                addClient(batch.getClient(i), batch.getClientSymbol(i));
+            }
+        }
+        if (items != null) {
+            for (int i = 0; i < batch.getItemCount(); i++) {
+                addItem(batch.getItem(i), batch.getItemSymbol(i));
+            }
+        }
+    }
+
+    private void addClient(String client, int symbol) {
+        if (symbol >= 0 && clientCounts != null) {
+            if (symbol >= clientCounts.length) {
+                clientCounts = grow(clientCounts, symbol);
+            }
+            if (clientCounts[symbol]++ == 0 && isNew(clients, clientSymbols, symbol)) {
+                newClientSymbols++;
+            }
+        } else {
+            clients.add(client);
+        }
+    }
+
+    private void addItem(String item, int symbol) {
+        if (symbol >= 0 && itemCounts != null) {
+            if (symbol >= itemCounts.length) {
+                itemCounts = grow(itemCounts, symbol);
+            }
+            if (itemCounts[symbol]++ == 0 && isNew(items, itemSymbols, symbol)) {
+                newItemSymbols++;
+            }
+        } else {
+            items.add(item);
+        }
+    }
+
+    /**
+     * Перевіряє, чи значення з номером ще не перенесене в лічильник. Викликається лише для першого входження номера
+     * після останнього перенесення, тому не впливає на швидкість підрахунку.
+     */
+    private static boolean isNew(TextValueCounter counter, SymbolTable symbols, int symbol) {
+        return ((TextCounter) counter).get(symbols.valueOf(symbol)) == 0;
+    }
+
+    private static long[] grow(long[] counts, int symbol) {
+        return Arrays.copyOf(counts, Math.max(counts.length * 2, symbol + 1));
+    }
+
+    /**
+     * Переносить кількості за номерами в лічильник і обнуляє їх.
+     */
+    private static void flush(TextValueCounter counter, SymbolTable symbols, long[] counts) {
+        if (counts == null) {
+            return;
+        }
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] != 0) {
+                counter.add(symbols.valueOf(i), counts[i]);
+                counts[i] = 0;
+            }
+        }
+    }
+
+    /**
+     * Враховує стовпець цілочисельних значень атрибута зі сховища по стовпцях.
+     * @param attribute атрибут {@link Attribute#ORDER_ID} або {@link Attribute#AMOUNT}, статистика за яким обчислюється
+     * @param values    значення від поточної позиції до кінця буфера
+     */
+    public void addIntColumn(Attribute attribute, IntBuffer values) {
+        IntValueCounter counter = (IntValueCounter) getCounter(attribute);
+        int[] chunk = new int[COLUMN_CHUNK];
+        while (values.hasRemaining()) {
+            int length = Math.min(chunk.length, values.remaining());
+            values.get(chunk, 0, length);
+            for (int i = 0; i < length; i++) {
+                counter.add(chunk[i]);
+            }
+        }
+    }
+
+    /**
+     * Враховує стовпець дат замовлень (у мілісекундах) зі сховища по стовпцях.
+     * @param dates дати від поточної позиції до кінця буфера
+     */
+    public void addDateColumn(LongBuffer dates) {
+        long[] chunk = new long[COLUMN_CHUNK];
+        while (dates.hasRemaining()) {
+            int length = Math.min(chunk.length, dates.remaining());
+            dates.get(chunk, 0, length);
+            for (int i = 0; i < length; i++) {
+                orderDates.add(dateBucket.key(chunk[i]));
+            }
+        }
+    }
+
+    /**
+     * Враховує кількості значень текстового атрибута, закодованого словником.
+     * @param attribute  атрибут {@link Attribute#CLIENT} або {@link Attribute#ITEM}, статистика за яким обчислюється
+     * @param dictionary значення за номерами
+     * @param counts     кількість входжень кожного значення словника
+     */
+    public void addTextCounts(Attribute attribute, String[] dictionary, long[] counts) {
+        TextValueCounter counter = (TextValueCounter) getCounter(attribute);
+        for (int i = 0; i < dictionary.length; i++) {
+            if (counts[i] != 0) {
+                counter.add(dictionary[i], counts[i]);
+            }
+        }
+    }
+
+    /**
+     * Додає результати іншого накопичувача за атрибутами, які обчислюються обома накопичувачами.
+     * @param other накопичувач, який більше не змінюється
+     */
+    public void merge(StatsAccumulator other) {
+        for (Attribute attribute : other.attributes) {
+            ValueCounter counter = getCounter(attribute);
+            if (counter != null) {
+                counter.merge(other.getCounter(attribute));
+            }
+        }
+    }
+
+    /**
+     * Повертає сумарну кількість різних значень усіх атрибутів накопичувача.
+     * Кількості за номерами не переносяться в лічильники, тому метод можна викликати після кожного завдання:
+     * для текстових атрибутів до розміру лічильника додається кількість номерів, значень яких у лічильнику ще немає,
+     * а для лічильників з вивантаженням на диск береться верхня межа без злиття серій. Значення, враховане за рядком
+     * після того, як воно вже враховане за номером, до наступного перенесення рахується двічі.
+     * @return кількість різних значень
+     */
+    public long getUniqueCount() {
+        long count = 0;
+        for (Attribute attribute : attributes) {
+            count += switch (attribute) {
+                case CLIENT -> uniqueCount(clients) + newClientSymbols;
+                case ITEM -> uniqueCount(items) + newItemSymbols;
+                default -> uniqueCount(getCounter(attribute));
+            };
+        }
+        return count;
+    }
+
+    private static long uniqueCount(ValueCounter counter) {
+        return counter instanceof SpillingCounter spilling ? spilling.getEntryCount() : counter.size();
+    }
+
+    /**
+     * Звільняє файли вивантаження на диск, якщо їх не використовують інші лічильники. Після виклику накопичувач порожній.
+     * Викликається, коли накопичувач більше не потрібен, наприклад після об'єднання із загальною статистикою.
+     */
+    public void release() {
+        for (Attribute attribute : attributes) {
+            release(getCounter(attribute));
+        }
+    }
+
+    static void release(ValueCounter counter) {
+        if (counter instanceof SpillingCounter spilling) {
+            spilling.release();
+        }
+    }
+
+    /**
+     * Повертає лічильник вказаного атрибута. Для текстових атрибутів спершу переносить у лічильник кількості за номерами.
+     * @param attribute атрибут
+     * @return лічильник або null, якщо статистика за атрибутом не обчислюється
+     */
+    ValueCounter getCounter(Attribute attribute) {
+        return switch (attribute) {
+            case ORDER_ID -> orderIds;
+            case ORDER_DATE -> orderDates;
+            case AMOUNT -> amounts;
+            case CLIENT -> {
+                flush(clients, clientSymbols, clientCounts);
+                newClientSymbols = 0;
+                yield clients;
+            }
+            case ITEM -> {
+                flush(items, itemSymbols, itemCounts);
+                newItemSymbols = 0;
+                yield items;
+            }
+        };
+    }
+
+    /**
+     * Повертає таблицю символів текстового атрибута, з якої парсер має брати номери значень для цього накопичувача.
+     * @param attribute атрибут
+     * @return таблиця символів або null, якщо для атрибута вона не використовується
+     */
+    public SymbolTable getSymbolTable(Attribute attribute) {
+        return switch (attribute) {
+            case CLIENT -> clientSymbols;
+            case ITEM -> itemSymbols;
+            default -> null;
+        };
+    }
+
+    /* Гетери */
+    public Set<Attribute> getAttributes() {
+        return attributes;
+    }
+
+    public StatsOptions getOptions() {
+        return options;
+    }
+}
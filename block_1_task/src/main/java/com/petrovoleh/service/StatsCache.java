@@ -0,0 +1,198 @@
+package com.petrovoleh.service;
+
+import com.petrovoleh.model.Attribute;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Дисковий кеш часткової статистики файлів. Запис кешу містить статистику одного атрибута для одного діапазону файлу
+ * і дійсний, поки розмір та час зміни файлу не змінились. Під час повторного запуску статистика незмінених файлів
+ * завантажується з кешу замість парсингу.
+ * Розмір кешу обмежений: після запуску видаляються записи, які найдовше не використовувались.
+ * Методи можуть викликатись з кількох потоків одночасно.
+ */
+public class StatsCache {
+    public static final long DEFAULT_MAX_SIZE = 256L * 1024 * 1024;
+
+    private static final int MAGIC = 0x53544333; // "STC3" - ознака файлу кешу і версія формату
+    private static final String ENTRY_SUFFIX = ".bin";
+
+    private final Path directory; // Директорія кешу
+    private final long maxSize; // Максимальний сумарний розмір записів у байтах
+    private final AtomicInteger hits = new AtomicInteger(); // Кількість завантажених записів
+    private final AtomicInteger misses = new AtomicInteger(); // Кількість відсутніх або застарілих записів
+
+    /**
+     * Створює кеш у вказаній директорії (створює її, якщо потрібно).
+     *
+     * @param directory директорія кешу
+     * @param maxSize   максимальний сумарний розмір записів у байтах
+     * @throws IOException якщо директорію неможливо створити
+     */
+    public StatsCache(Path directory, long maxSize) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Завантажує статистику атрибута для діапазону файлу і додає її до накопичувача.
+     *
+     * @param file        файл
+     * @param start       початок діапазону
+     * @param end         кінець діапазону
+     * @param attribute   атрибут
+     * @param accumulator накопичувач, до якого додається статистика
+     * @return true, якщо дійсний запис знайдено і завантажено
+     */
+    public boolean load(File file, long start, long end, Attribute attribute, StatsAccumulator accumulator) {
+        String counterKey = accumulator.getOptions().describe(attribute);
+        Path entry = entryPath(file, start, end, counterKey);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(entry)))) {
+            if (!readHeader(in, file, start, end, counterKey)) {
+                misses.incrementAndGet();
+                return false;
+            }
+            // Спочатку читається весь запис, щоб пошкоджений файл кешу не зіпсував накопичувач
+            ValueCounter counter = accumulator.getOptions().newCounter(attribute);
+            counter.read(in);
+            accumulator.getCounter(attribute).merge(counter);
+            StatsAccumulator.release(counter);
+        } catch (NoSuchFileException e) {
+            misses.incrementAndGet();
+            return false;
+        } catch (IOException e) {
+            System.err.println("Error: Cannot read cache entry " + entry + ": " + e.getMessage());
+            misses.incrementAndGet();
+            return false;
+        }
+        touch(entry);
+        hits.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Зберігає статистику атрибута для діапазону файлу. Запис спочатку пишеться в тимчасовий файл,
+     * який потім атомарно перейменовується, тому інші процеси не бачать недописаних записів.
+     *
+     * @param file         файл
+     * @param start        початок діапазону
+     * @param end          кінець діапазону
+     * @param size         розмір файлу на момент парсингу
+     * @param lastModified час зміни файлу на момент парсингу
+     * @param attribute    атрибут
+     * @param accumulator  накопичувач зі статистикою діапазону
+     */
+    public void store(File file, long start, long end, long size, long lastModified, Attribute attribute, StatsAccumulator accumulator) {
+        String counterKey = accumulator.getOptions().describe(attribute);
+        Path entry = entryPath(file, start, end, counterKey);
+        Path temp = null;
+        try {
+            temp = Files.createTempFile(directory, "entry", ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeUTF(file.getAbsolutePath());
+                out.writeLong(start);
+                out.writeLong(end);
+                out.writeLong(size);
+                out.writeLong(lastModified);
+                out.writeUTF(counterKey);
+                accumulator.getCounter(attribute).write(out);
+            }
+            Files.move(temp, entry, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Error: Cannot write cache entry " + entry + ": " + e.getMessage());
+            if (temp != null) {
+                temp.toFile().delete();
+            }
+        }
+    }
+
+    /**
+     * Видаляє записи, які найдовше не використовувались, доки сумарний розмір кешу не стане меншим за максимальний.
+     */
+    public void evict() {
+        List<Path> entries = new ArrayList<>();
+        long totalSize = 0;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + ENTRY_SUFFIX)) {
+            for (Path entry : stream) {
+                entries.add(entry);
+                totalSize += entry.toFile().length();
+            }
+        } catch (IOException e) {
+            System.err.println("Error: Cannot list cache directory " + directory + ": " + e.getMessage());
+            return;
+        }
+        if (totalSize <= maxSize) {
+            return;
+        }
+        entries.sort(Comparator.comparingLong(entry -> entry.toFile().lastModified()));
+        for (Path entry : entries) {
+            if (totalSize <= maxSize) {
+                break;
+            }
+            long size = entry.toFile().length();
+            if (entry.toFile().delete()) {
+                totalSize -= size;
+            }
+        }
+    }
+
+    /**
+     * Перевіряє, що запис кешу належить саме цьому діапазону файлу в його поточному стані.
+     */
+    private static boolean readHeader(DataInputStream in, File file, long start, long end, String counterKey) throws IOException {
+        return in.readInt() == MAGIC
+                && in.readUTF().equals(file.getAbsolutePath())
+                && in.readLong() == start
+                && in.readLong() == end
+                && in.readLong() == file.length()
+                && in.readLong() == file.lastModified()
+                && in.readUTF().equals(counterKey);
+    }
+
+    /**
+     * Повертає шлях запису. Назва не залежить від розміру і часу зміни файлу, тому новий запис для зміненого файлу
+     * замінює застарілий замість того, щоб займати місце в кеші.
+     */
+    private Path entryPath(File file, long start, long end, String counterKey) {
+        String key = file.getAbsolutePath() + '\n' + start + '\n' + end + '\n' + counterKey;
+        return directory.resolve(UUID.nameUUIDFromBytes(key.getBytes(StandardCharsets.UTF_8)) + ENTRY_SUFFIX);
+    }
+
+    /**
+     * Оновлює час використання запису (для витіснення найдавніше використаних записів).
+     */
+    private static void touch(Path entry) {
+        try {
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            // Запис лише раніше буде витіснено
+        }
+    }
+
+    /* Гетери */
+    public int getHits() {
+        return hits.get();
+    }
+
+    public int getMisses() {
+        return misses.get();
+    }
+}
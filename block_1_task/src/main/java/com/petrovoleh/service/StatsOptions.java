@@ -0,0 +1,160 @@
+package com.petrovoleh.service;
+
+import com.petrovoleh.model.Attribute;
+
+import java.nio.file.Path;
+
+/**
+ * Цей клас містить налаштування обчислення статистики: який лічильник використовується для кожного атрибута.
+ * За замовчуванням усі атрибути рахуються точно. Режим підрахунку різних значень має пріоритет над режимом найчастіших товарів.
+ * З бюджетом пам'яті точні лічильники вивантажують значення на диск (див. {@link SpillingCounter}). Бюджет діє на кожен лічильник окремо,
+ * а лічильники мають накопичувач кожного потоку і загальна статистика, тому пам'ять значень досягає
+ * (кількість потоків + 1) × кількість атрибутів × бюджет.
+ */
+public class StatsOptions {
+    public static final int TOP_CAPACITY_FACTOR = 10; // У скільки разів більше значень відстежується, ніж виводиться
+
+    private int topItems; // Кількість найчастіших товарів у результаті (0 - точна статистика всіх товарів)
+    private int cardinalityPrecision; // Точність HyperLogLog у режимі підрахунку різних значень (0 - вимкнено)
+    private TimeBucket dateBucket = TimeBucket.MILLISECOND; // Групування дат замовлень
+    private boolean amountHistogram; // Чи рахувати для сум розподіл (гістограму) замість кількості кожного значення
+    private long spillBudget; // Бюджет пам'яті одного лічильника в байтах, після якого значення вивантажуються на диск (0 - вимкнено)
+    private Path spillDirectory = Path.of(System.getProperty("java.io.tmpdir")); // Директорія тимчасових файлів вивантаження
+
+    /**
+     * Створює лічильник, що відповідає типу атрибута та налаштуванням: у режимі підрахунку різних значень - HyperLogLog
+     * для будь-якого атрибута, для сум у режимі розподілу - гістограма, для orderId та amount - з примітивними ключами, для дат - з ключами груп дат,
+     * для товарів у режимі найчастіших значень - з фіксованою пам'яттю, для решти - з текстовими ключами.
+     * З бюджетом пам'яті точні лічильники замінюються відповідними лічильниками з вивантаженням на диск.
+     * @param attribute атрибут
+     * @return порожній лічильник
+     */
+    ValueCounter newCounter(Attribute attribute) {
+        if (cardinalityPrecision > 0) {
+            return new HyperLogLog(cardinalityPrecision);
+        }
+        if (spillBudget > 0) {
+            return switch (attribute) {
+                case ORDER_ID -> new IntSpillingCounter(spillDirectory, spillEntries(IntSpillingCounter.BYTES_PER_ENTRY));
+                case AMOUNT -> amountHistogram ? new Histogram()
+                        : new IntSpillingCounter(spillDirectory, spillEntries(IntSpillingCounter.BYTES_PER_ENTRY));
+                case ITEM -> topItems > 0 ? new TopKCounter(topItems, topItems * TOP_CAPACITY_FACTOR)
+                        : new TextSpillingCounter(spillDirectory, spillEntries(TextSpillingCounter.BYTES_PER_ENTRY));
+                case ORDER_DATE -> new DateSpillingCounter(spillDirectory, spillEntries(DateSpillingCounter.BYTES_PER_ENTRY), dateBucket);
+                case CLIENT -> new TextSpillingCounter(spillDirectory, spillEntries(TextSpillingCounter.BYTES_PER_ENTRY));
+            };
+        }
+        return switch (attribute) {
+            case ORDER_ID -> new IntCounter();
+            case AMOUNT -> amountHistogram ? new Histogram() : new IntCounter();
+            case ITEM -> topItems > 0 ? new TopKCounter(topItems, topItems * TOP_CAPACITY_FACTOR) : new TextCounter();
+            case ORDER_DATE -> new DateCounter(dateBucket);
+            case CLIENT -> new TextCounter();
+        };
+    }
+
+    /**
+     * Перераховує бюджет пам'яті в кількість значень у пам'яті лічильника.
+     * @param bytesPerEntry оцінка пам'яті на одне значення
+     * @return кількість значень (не менше одного)
+     */
+    private int spillEntries(int bytesPerEntry) {
+        return (int) Math.max(1, Math.min(Integer.MAX_VALUE, spillBudget / bytesPerEntry));
+    }
+
+    /**
+     * Повертає опис лічильника атрибута. Статистика, обчислена з різними описами, несумісна
+     * (наприклад, у кеші часткової статистики).
+     * @param attribute атрибут
+     * @return опис лічильника
+     */
+    String describe(Attribute attribute) {
+        if (cardinalityPrecision > 0) {
+            return attribute.getName() + ":hll" + cardinalityPrecision;
+        }
+        if (attribute == Attribute.ORDER_DATE && dateBucket != TimeBucket.MILLISECOND) {
+            return attribute.getName() + ":" + dateBucket.getName();
+        }
+        if (attribute == Attribute.AMOUNT && amountHistogram) {
+            return attribute.getName() + ":histogram";
+        }
+        if (attribute == Attribute.ITEM && topItems > 0) {
+            return attribute.getName() + ":top" + topItems;
+        }
+        return attribute.getName();
+    }
+
+    /* Гетери і сетери */
+    public int getTopItems() {
+        return topItems;
+    }
+
+    public void setTopItems(int topItems) {
+        if (topItems < 0) {
+            throw new IllegalArgumentException("The number of top items must not be negative.");
+        }
+        this.topItems = topItems;
+    }
+
+    public int getCardinalityPrecision() {
+        return cardinalityPrecision;
+    }
+
+    public void setCardinalityPrecision(int cardinalityPrecision) {
+        if (cardinalityPrecision != 0
+                && (cardinalityPrecision < HyperLogLog.MIN_PRECISION || cardinalityPrecision > HyperLogLog.MAX_PRECISION)) {
+            throw new IllegalArgumentException("The precision must be between " + HyperLogLog.MIN_PRECISION
+                    + " and " + HyperLogLog.MAX_PRECISION + ".");
+        }
+        this.cardinalityPrecision = cardinalityPrecision;
+    }
+
+    public boolean isCardinalityMode() {
+        return cardinalityPrecision > 0;
+    }
+
+    public TimeBucket getDateBucket() {
+        return dateBucket;
+    }
+
+    public void setDateBucket(TimeBucket dateBucket) {
+        if (dateBucket == null) {
+            throw new IllegalArgumentException("The date bucket must not be null.");
+        }
+        this.dateBucket = dateBucket;
+    }
+
+    public boolean isAmountHistogram() {
+        return amountHistogram;
+    }
+
+    public void setAmountHistogram(boolean amountHistogram) {
+        this.amountHistogram = amountHistogram;
+    }
+
+    public long getSpillBudget() {
+        return spillBudget;
+    }
+
+    public void setSpillBudget(long spillBudget) {
+        if (spillBudget < 0) {
+            throw new IllegalArgumentException("The spill budget must not be negative.");
+        }
+        this.spillBudget = spillBudget;
+    }
+
+    public boolean isSpillMode() {
+        return spillBudget > 0;
+    }
+
+    public Path getSpillDirectory() {
+        return spillDirectory;
+    }
+
+    public void setSpillDirectory(Path spillDirectory) {
+        if (spillDirectory == null) {
+            throw new IllegalArgumentException("The spill directory must not be null.");
+        }
+        this.spillDirectory = spillDirectory;
+    }
+}
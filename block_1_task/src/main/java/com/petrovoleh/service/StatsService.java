@@ -1,67 +1,239 @@
 package com.petrovoleh.service;
 
-import com.petrovoleh.model.Order;
+import com.petrovoleh.model.Attribute;
+
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.ObjLongConsumer;
 
 /**
- * Цей клас надає сервіс для обчислення статистики замовлень.
+ * Цей клас надає сервіс для обчислення статистики замовлень в межах одного запуску.
+ * Статистика за всіма вказаними атрибутами обчислюється за один прохід по файлах.
+ * Кожен потік накопичує статистику у власному {@link StatsAccumulator} без блокувань,
+ * а після завершення роботи потоку його результати об'єднуються із загальними.
  */
 public class StatsService {
-    private static final Map<String, Integer> statistics = new HashMap<>();
-    /**
-     * Обчислює статистику замовлень згідно з вказаним атрибутом.
-     * @param orders список замовлень
-     * @param attribute атрибут, за яким обчислюється статистика ("item", "orderId", "orderDate", "amount", "client")
-     */
-    public static void calculateOrderStatistics(List<Order> orders, String attribute) {
-        for (Order order : orders) {
-            List<String> items = order.getItems();
-            if (attribute.equals("item")) {
-                for (String item : items) {
-                    statistics.put(item, statistics.getOrDefault(item, 0) + 1);
-                }
-            } else {
-                String value = getValueForAttribute(order, attribute);
-                statistics.put(value, statistics.getOrDefault(value, 0) + 1);
-            }
+    private final Set<Attribute> attributes; // Атрибути, за якими обчислюється статистика
+    private final StatsOptions options; // Налаштування обчислення статистики
+    private final Map<Attribute, ValueCounter> statistics = new EnumMap<>(Attribute.class); // Об'єднана статистика кожного атрибута
+    private final SymbolTable clientSymbols; // Таблиці символів, спільні для накопичувачів усіх потоків
+    private final SymbolTable itemSymbols;
+
+    /**
+     * Створює сервіс статистики для вказаних атрибутів.
+     * @param attributes атрибути, за якими обчислюється статистика
+     */
+    public StatsService(Set<Attribute> attributes) {
+        this(attributes, new StatsOptions());
+    }
+
+    /**
+     * Створює сервіс статистики для вказаних атрибутів з вказаними налаштуваннями.
+     * @param attributes атрибути, за якими обчислюється статистика
+     * @param options    налаштування обчислення статистики
+     */
+    public StatsService(Set<Attribute> attributes, StatsOptions options) {
+        if (attributes.isEmpty()) {
+            throw new IllegalArgumentException("Error: At least one attribute is required");
         }
+        this.attributes = Collections.unmodifiableSet(attributes);
+        this.options = options;
+        for (Attribute attribute : attributes) {
+            statistics.put(attribute, options.newCounter(attribute));
+        }
+        this.clientSymbols = StatsAccumulator.newSymbolTable(attributes, Attribute.CLIENT);
+        this.itemSymbols = StatsAccumulator.newSymbolTable(attributes, Attribute.ITEM);
+    }
+
+    /**
+     * Створює сервіс статистики для атрибутів з вказаними назвами.
+     * @param attributes назви атрибутів через кому ("item", "orderId", "orderDate", "amount", "client") або "all"
+     * @throws IllegalArgumentException у разі невідомого атрибута
+     */
+    public StatsService(String attributes) {
+        this(Attribute.parseList(attributes));
     }
 
     /**
-     * Виводить повідомлення про неправильний атрибут і припиняє виконання програми.
-     * @param attribute неправильний атрибут
+     * Створює новий накопичувач для одного потоку. Накопичувачі сервісу мають спільні таблиці символів.
+     * @return порожній накопичувач
      */
-    private static void incorrectValue(String attribute) {
-        throw new IllegalArgumentException("Error: Invalid attribute value: " + attribute + "\nValid attributes: orderId, orderDate, amount, client, item");
+    public StatsAccumulator newAccumulator() {
+        return new StatsAccumulator(attributes, options, clientSymbols, itemSymbols);
     }
 
     /**
-     * Повертає значення вказаного атрибута для замовлення.
-     * @param order замовлення
+     * Повертає таблицю символів текстового атрибута, спільну для накопичувачів сервісу.
      * @param attribute атрибут
-     * @return значення атрибута
+     * @return таблиця символів або null, якщо статистика за атрибутом не обчислюється чи атрибут не текстовий
      */
-    private static String getValueForAttribute(Order order, String attribute) {
+    public SymbolTable getSymbolTable(Attribute attribute) {
         return switch (attribute) {
-            case "orderId" -> String.valueOf(order.getOrderId());
-            case "orderDate" -> String.valueOf(order.getOrderDate());
-            case "amount" -> String.valueOf(order.getAmount());
-            case "client" -> order.getClient();
-            default -> {
-                incorrectValue(attribute);
-                yield null;
-            }
+            case CLIENT -> clientSymbols;
+            case ITEM -> itemSymbols;
+            default -> null;
         };
     }
 
-    /* Гетер для статистики */
-    public static Map<String, Integer> getStatistics(){
-        return statistics;
+    /**
+     * Додає результати накопичувача до загальної статистики.
+     * @param accumulator накопичувач потоку, який більше не змінюється
+     */
+    public synchronized void merge(StatsAccumulator accumulator) {
+        for (Attribute attribute : attributes) {
+            statistics.get(attribute).merge(accumulator.getCounter(attribute));
+        }
+    }
+
+    /**
+     * Передає кожне значення атрибута (у текстовому вигляді) та його кількість у вказану дію.
+     * Числові значення перетворюються на рядки лише тут.
+     * @param attribute атрибут
+     * @param action    дія для кожної пари значення -> кількість
+     */
+    public synchronized void forEach(Attribute attribute, ObjLongConsumer<String> action) {
+        counter(attribute).forEach(action);
+    }
+
+    /**
+     * Повертає кількість різних значень атрибута.
+     * @param attribute атрибут
+     * @return кількість різних значень
+     */
+    public synchronized int size(Attribute attribute) {
+        return counter(attribute).size();
+    }
+
+    /**
+     * Повертає сумарну кількість різних значень усіх атрибутів.
+     * Для лічильників з вивантаженням на диск повертається верхня межа без злиття серій.
+     * @return кількість різних значень
+     */
+    public synchronized long getUniqueCount() {
+        long count = 0;
+        for (Attribute attribute : attributes) {
+            ValueCounter counter = counter(attribute);
+            count += counter instanceof SpillingCounter spilling ? spilling.getEntryCount() : counter.size();
+        }
+        return count;
+    }
+
+    /**
+     * Перевіряє, чи статистика атрибута порожня. Серії лічильників з вивантаженням на диск не зливаються.
+     * @param attribute атрибут
+     * @return true, якщо не враховано жодного значення
+     */
+    public synchronized boolean isEmpty(Attribute attribute) {
+        ValueCounter counter = counter(attribute);
+        return counter instanceof SpillingCounter spilling ? spilling.isEmpty() : counter.size() == 0;
+    }
+
+    /**
+     * Звільняє файли вивантаження на диск, якщо їх не використовує інша статистика. Після виклику статистика порожня.
+     */
+    public synchronized void release() {
+        statistics.values().forEach(StatsAccumulator::release);
+    }
+
+    /**
+     * Перевіряє, чи статистика атрибута обчислюється наближено (лише найчастіші значення).
+     * @param attribute атрибут
+     * @return true, якщо для атрибута рахуються лише найчастіші значення
+     */
+    public synchronized boolean isTopK(Attribute attribute) {
+        return counter(attribute) instanceof TopKCounter;
+    }
+
+    /**
+     * Повертає найчастіші значення атрибута з оцінками похибки в порядку спадання кількості.
+     * @param attribute атрибут у режимі найчастіших значень
+     * @return оцінки кількості значень
+     * @throws IllegalArgumentException якщо для атрибута рахується точна статистика
+     */
+    public synchronized List<TopKCounter.Estimate> getTopValues(Attribute attribute) {
+        if (!(counter(attribute) instanceof TopKCounter topCounter)) {
+            throw new IllegalArgumentException("Top values are not collected for attribute: " + attribute.getName());
+        }
+        return topCounter.top();
+    }
+
+    /**
+     * Перевіряє, чи для атрибута рахується розподіл значень (гістограма).
+     * @param attribute атрибут
+     * @return true, якщо для атрибута рахується гістограма
+     */
+    public synchronized boolean isHistogram(Attribute attribute) {
+        return counter(attribute) instanceof Histogram;
+    }
+
+    /**
+     * Повертає розподіл значень атрибута.
+     * @param attribute атрибут у режимі розподілу
+     * @return копія гістограми
+     * @throws IllegalArgumentException якщо для атрибута не рахується гістограма
+     */
+    public synchronized Histogram getHistogram(Attribute attribute) {
+        if (!(counter(attribute) instanceof Histogram histogram)) {
+            throw new IllegalArgumentException("Distribution is not collected for attribute: " + attribute.getName());
+        }
+        Histogram copy = new Histogram();
+        copy.merge(histogram);
+        return copy;
+    }
+
+    /**
+     * Повертає лічильник кількості різних значень атрибута.
+     * @param attribute атрибут у режимі підрахунку різних значень
+     * @return копія лічильника HyperLogLog
+     * @throws IllegalArgumentException якщо для атрибута рахується не кількість різних значень
+     */
+    public synchronized HyperLogLog getCardinality(Attribute attribute) {
+        if (!(counter(attribute) instanceof HyperLogLog sketch)) {
+            throw new IllegalArgumentException("Cardinality is not collected for attribute: " + attribute.getName());
+        }
+        HyperLogLog copy = new HyperLogLog(sketch.getPrecision());
+        copy.merge(sketch);
+        return copy;
+    }
+
+    /**
+     * Повертає статистику атрибута у вигляді мапи. Створює рядок і Long для кожного значення,
+     * тому для великих обсягів слід використовувати {@link #forEach(Attribute, ObjLongConsumer)}.
+     * @param attribute атрибут
+     * @return мапа значення -> кількість
+     */
+    public synchronized Map<String, Long> getStatistics(Attribute attribute) {
+        Map<String, Long> result = new HashMap<>();
+        counter(attribute).forEach(result::put);
+        return result;
+    }
+
+    /**
+     * Повертає статистику першого (або єдиного) атрибута у вигляді мапи.
+     * @return мапа значення -> кількість
+     */
+    public Map<String, Long> getStatistics() {
+        return getStatistics(attributes.iterator().next());
+    }
+
+    ValueCounter counter(Attribute attribute) {
+        ValueCounter counter = statistics.get(attribute);
+        if (counter == null) {
+            throw new IllegalArgumentException("Statistics are not collected for attribute: " + attribute.getName());
+        }
+        return counter;
     }
-    /*Функція для очистки статистики під час тестування */
-    public static void clearStatistics(){
-        statistics.clear();
+
+    /* Гетери */
+    public Set<Attribute> getAttributes() {
+        return attributes;
+    }
+
+    public StatsOptions getOptions() {
+        return options;
     }
 }
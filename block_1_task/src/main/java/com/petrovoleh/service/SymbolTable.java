@@ -0,0 +1,126 @@
+package com.petrovoleh.service;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Таблиця символів текстового атрибута: кожне різне значення зберігається в одному екземплярі String і отримує номер.
+ * Значення шукається за символами з буфера парсера, тому для вже відомого значення новий рядок не створюється,
+ * а накопичувач рахує кількість за номером у масиві замість хеш-таблиці рядків.
+ * Таблиця спільна для всіх потоків і не використовує блокувань: нове значення додається порівнянням із заміною комірки,
+ * а значення ніколи не видаляються. Кількість значень обмежена, щоб таблиця не росла для атрибутів з великою
+ * кількістю різних значень; після заповнення нові значення не додаються, і парсер створює для них звичайні рядки.
+ */
+public class SymbolTable {
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+
+    private final int capacity; // Максимальна кількість значень
+    private final AtomicReferenceArray<Symbol> slots; // Відкрита адресація, заповнена не більше ніж наполовину
+    private final AtomicReferenceArray<String> values; // Значення за номерами
+    private final AtomicInteger nextId = new AtomicInteger(); // Номер наступного значення
+
+    /**
+     * Значення таблиці.
+     * @param value рядок значення
+     * @param id    номер значення
+     * @param hash  хеш символів значення
+     */
+    public record Symbol(String value, int id, int hash) {}
+
+    /**
+     * Створює таблицю з місткістю за замовчуванням.
+     */
+    public SymbolTable() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Створює таблицю.
+     * @param capacity максимальна кількість значень
+     */
+    public SymbolTable(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("The symbol table capacity must be a positive number.");
+        }
+        this.capacity = capacity;
+        this.slots = new AtomicReferenceArray<>(Integer.highestOneBit(capacity * 2 - 1) << 1);
+        this.values = new AtomicReferenceArray<>(capacity);
+    }
+
+    /**
+     * Повертає значення з вказаними символами, додаючи його до таблиці, якщо його ще немає.
+     * @param chars  буфер символів
+     * @param offset початок значення в буфері
+     * @param length довжина значення
+     * @return значення таблиці або null, якщо значення немає, а таблиця заповнена
+     */
+    public Symbol intern(char[] chars, int offset, int length) {
+        int hash = hash(chars, offset, length);
+        int mask = slots.length() - 1;
+        int index = hash & mask;
+        Symbol candidate = null;
+        while (true) {
+            Symbol symbol = slots.get(index);
+            if (symbol == null) {
+                if (candidate == null) {
+                    int id = nextId.getAndIncrement();
+                    if (id >= capacity) {
+                        nextId.set(capacity);
+                        return null;
+                    }
+                    candidate = new Symbol(new String(chars, offset, length), id, hash);
+                    // Значення за номером публікується раніше за комірку, тому знайдений номер завжди має значення
+                    values.set(id, candidate.value());
+                }
+                if (slots.compareAndSet(index, null, candidate)) {
+                    return candidate;
+                }
+                // Комірку зайняв інший потік - вона перевіряється ще раз
+                continue;
+            }
+            if (symbol.hash() == hash && matches(symbol.value(), chars, offset, length)) {
+                // Якщо те саме значення одночасно додав інший потік, номер кандидата залишається невикористаним
+                return symbol;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    /**
+     * Повертає значення за номером.
+     * @param id номер значення
+     * @return рядок значення
+     */
+    public String valueOf(int id) {
+        return values.get(id);
+    }
+
+    /**
+     * Повертає кількість виданих номерів (верхню межу номерів значень).
+     * @return кількість номерів
+     */
+    public int size() {
+        return Math.min(nextId.get(), capacity);
+    }
+
+    private static int hash(char[] chars, int offset, int length) {
+        int hash = 0;
+        for (int i = offset; i < offset + length; i++) {
+            hash = 31 * hash + chars[i];
+        }
+        // Перемішування старших бітів у молодші, бо індекс береться з молодших
+        return hash ^ (hash >>> 16);
+    }
+
+    private static boolean matches(String value, char[] chars, int offset, int length) {
+        if (value.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (value.charAt(i) != chars[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
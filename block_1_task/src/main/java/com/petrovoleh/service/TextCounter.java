@@ -0,0 +1,111 @@
+package com.petrovoleh.service;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * Лічильник текстових значень (клієнтів, товарів, дат).
+ */
+public class TextCounter implements TextValueCounter {
+    private final Map<String, long[]> counts = new HashMap<>(); // Значення -> кількість (масив з одного елемента, щоб не створювати Long)
+
+    /**
+     * Збільшує кількість входжень значення на одиницю.
+     * @param value значення
+     */
+    @Override
+    public void add(String value) {
+        counts.computeIfAbsent(value, key -> new long[1])[0]++;
+    }
+
+    /**
+     * Збільшує кількість входжень значення на вказану величину.
+     * @param value значення
+     * @param count величина
+     */
+    @Override
+    public void add(String value, long count) {
+        counts.computeIfAbsent(value, key -> new long[1])[0] += count;
+    }
+
+    /**
+     * Повертає кількість входжень значення.
+     * @param value значення
+     * @return кількість входжень (0, якщо значення не зустрічалось)
+     */
+    public long get(String value) {
+        long[] count = counts.get(value);
+        return count != null ? count[0] : 0;
+    }
+
+    /**
+     * Повертає всі значення лічильника.
+     * @return нова копія значень
+     */
+    String[] keys() {
+        return counts.keySet().toArray(new String[0]);
+    }
+
+    @Override
+    public void merge(ValueCounter other) {
+        for (Map.Entry<String, long[]> entry : ((TextCounter) other).counts.entrySet()) {
+            add(entry.getKey(), entry.getValue()[0]);
+        }
+    }
+
+    @Override
+    public int size() {
+        return counts.size();
+    }
+
+    @Override
+    public void forEach(ObjLongConsumer<String> action) {
+        for (Map.Entry<String, long[]> entry : counts.entrySet()) {
+            action.accept(entry.getKey(), entry.getValue()[0]);
+        }
+    }
+
+    @Override
+    public void write(DataOutput out) throws IOException {
+        out.writeInt(counts.size());
+        for (Map.Entry<String, long[]> entry : counts.entrySet()) {
+            writeValue(out, entry.getKey());
+            out.writeLong(entry.getValue()[0]);
+        }
+    }
+
+    @Override
+    public void read(DataInput in) throws IOException {
+        int entries = in.readInt();
+        for (int i = 0; i < entries; i++) {
+            add(readValue(in), in.readLong());
+        }
+    }
+
+    /**
+     * Записує текстове значення, яке може бути відсутнім (null - замовлення без поля): ознака наявності, далі рядок.
+     * @param out   потік для запису
+     * @param value значення або null
+     * @throws IOException у випадку помилки вводу/виводу
+     */
+    static void writeValue(DataOutput out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    /**
+     * Читає текстове значення, записане {@link #writeValue}.
+     * @param in потік для читання
+     * @return значення або null
+     * @throws IOException у випадку помилки вводу/виводу
+     */
+    static String readValue(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
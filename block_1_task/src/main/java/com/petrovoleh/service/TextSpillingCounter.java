@@ -0,0 +1,107 @@
+package com.petrovoleh.service;
+
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Лічильник текстових значень (клієнтів, товарів) з вивантаженням на диск (див. {@link SpillingCounter}).
+ * У пам'яті значення рахуються в {@link TextCounter}, серії впорядковані за рядками.
+ */
+public class TextSpillingCounter extends SpillingCounter implements TextValueCounter {
+    public static final int BYTES_PER_ENTRY = 128; // Оцінка пам'яті на одне коротке значення в TextCounter (вузол мапи, рядок, лічильник)
+    private static final Comparator<String> KEY_ORDER = Comparator.nullsFirst(Comparator.naturalOrder()); // Порядок у серіях (відсутнє значення - першим)
+
+    private TextCounter memory = new TextCounter(); // Значення в пам'яті
+
+    /**
+     * Створює порожній лічильник.
+     * @param directory директорія тимчасових файлів
+     * @param budget    максимальна кількість різних значень у пам'яті
+     */
+    public TextSpillingCounter(Path directory, int budget) {
+        super(directory, budget);
+    }
+
+    @Override
+    public void add(String value) {
+        memory.add(value);
+        added();
+    }
+
+    @Override
+    public void add(String value, long count) {
+        memory.add(value, count);
+        added();
+    }
+
+    @Override
+    public void read(DataInput in) throws IOException {
+        int entries = in.readInt();
+        for (int i = 0; i < entries; i++) {
+            add(TextCounter.readValue(in), in.readLong());
+        }
+    }
+
+    @Override
+    ValueCounter memory() {
+        return memory;
+    }
+
+    @Override
+    void clearMemory() {
+        memory = new TextCounter();
+    }
+
+    @Override
+    void writeSorted(ValueCounter table, DataOutput out) throws IOException {
+        TextCounter counter = (TextCounter) table;
+        String[] keys = counter.keys();
+        Arrays.sort(keys, KEY_ORDER);
+        for (String key : keys) {
+            out.writeBoolean(true);
+            TextCounter.writeValue(out, key);
+            out.writeLong(counter.get(key));
+        }
+    }
+
+    @Override
+    RunReader newReader(DataInputStream in) {
+        return new TextRunReader(in);
+    }
+
+    /**
+     * Читач серії з текстовими ключами.
+     */
+    private static class TextRunReader extends RunReader {
+        private String key; // Поточне значення
+
+        TextRunReader(DataInputStream in) {
+            super(in);
+        }
+
+        @Override
+        void readKey(DataInput in) throws IOException {
+            key = TextCounter.readValue(in);
+        }
+
+        @Override
+        int compareKey(RunReader other) {
+            return KEY_ORDER.compare(key, ((TextRunReader) other).key);
+        }
+
+        @Override
+        String formatKey() {
+            return key;
+        }
+
+        @Override
+        void writeKey(DataOutput out) throws IOException {
+            TextCounter.writeValue(out, key);
+        }
+    }
+}
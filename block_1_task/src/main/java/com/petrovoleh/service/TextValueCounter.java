@@ -0,0 +1,20 @@
+package com.petrovoleh.service;
+
+/**
+ * Лічильник, що приймає текстові значення атрибута (клієнтів, товари).
+ */
+public interface TextValueCounter extends ValueCounter {
+
+    /**
+     * Враховує одне входження значення.
+     * @param value значення
+     */
+    void add(String value);
+
+    /**
+     * Враховує кілька входжень значення.
+     * @param value значення
+     * @param count кількість входжень
+     */
+    void add(String value, long count);
+}
@@ -0,0 +1,80 @@
+package com.petrovoleh.service;
+
+import java.time.LocalDate;
+import java.time.temporal.IsoFields;
+import java.util.Date;
+
+/**
+ * Цей перелік визначає, з якою точністю групуються дати замовлень у статистиці за атрибутом orderDate.
+ * Під час парсингу дата в мілісекундах перетворюється на ключ-число лише цілочисельною арифметикою,
+ * без створення об'єктів Date чи рядків; у текст ключ перетворюється тільки при виведенні.
+ * Години, дні, тижні та місяці рахуються за UTC, тижні починаються з понеділка (ISO 8601).
+ */
+public enum TimeBucket {
+    MILLISECOND, // Без групування: ключ - дата в мілісекундах (виводиться як Date.toString())
+    HOUR, // Ключ - кількість годин від початку епохи
+    DAY, // Ключ - кількість днів від початку епохи
+    WEEK, // Ключ - кількість тижнів від понеділка 29.12.1969
+    MONTH; // Ключ - рік * 12 + номер місяця від 0
+
+    private static final long MILLIS_PER_HOUR = 60 * 60 * 1000L;
+    private static final long MILLIS_PER_DAY = 24 * MILLIS_PER_HOUR;
+
+    /**
+     * Повертає ключ групи, до якої належить дата.
+     * @param epochMillis дата в мілісекундах від початку епохи
+     * @return ключ групи
+     */
+    public long key(long epochMillis) {
+        return switch (this) {
+            case MILLISECOND -> epochMillis;
+            case HOUR -> Math.floorDiv(epochMillis, MILLIS_PER_HOUR);
+            case DAY -> Math.floorDiv(epochMillis, MILLIS_PER_DAY);
+            // 01.01.1970 - четвер, тому зсув на 3 дні вирівнює тижні по понеділках
+            case WEEK -> Math.floorDiv(Math.floorDiv(epochMillis, MILLIS_PER_DAY) + 3, 7);
+            case MONTH -> monthOfEpochDay(Math.floorDiv(epochMillis, MILLIS_PER_DAY));
+        };
+    }
+
+    /**
+     * Перетворює ключ групи на текст: дата (Date.toString()), "2024-03-05T14:00Z", "2024-03-05", "2024-W10" або "2024-03".
+     * @param key ключ групи, отриманий методом {@link #key(long)}
+     * @return текстове представлення групи
+     */
+    public String format(long key) {
+        return switch (this) {
+            case MILLISECOND -> String.valueOf(new Date(key));
+            case HOUR -> LocalDate.ofEpochDay(Math.floorDiv(key, 24)) + String.format("T%02d:00Z", Math.floorMod(key, 24));
+            case DAY -> LocalDate.ofEpochDay(key).toString();
+            case WEEK -> {
+                LocalDate monday = LocalDate.ofEpochDay(key * 7 - 3);
+                yield String.format("%d-W%02d", monday.get(IsoFields.WEEK_BASED_YEAR), monday.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR));
+            }
+            case MONTH -> String.format("%04d-%02d", Math.floorDiv(key, 12), Math.floorMod(key, 12) + 1);
+        };
+    }
+
+    /**
+     * Повертає назву групування в командному рядку.
+     * @return назва ("millisecond", "hour", "day", "week", "month")
+     */
+    public String getName() {
+        return name().toLowerCase();
+    }
+
+    /**
+     * Обчислює місяць (рік * 12 + номер місяця від 0) для дня від початку епохи
+     * за алгоритмом перетворення на григоріанський календар з 400-річними циклами.
+     */
+    static long monthOfEpochDay(long epochDay) {
+        long days = epochDay + 719_468; // Дні від 01.03.0000: рік починається з березня, тому 29 лютого - останній день року
+        long era = Math.floorDiv(days, 146_097);
+        long dayOfEra = days - era * 146_097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36_524 - dayOfEra / 146_096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long monthFromMarch = (5 * dayOfYear + 2) / 153;
+        long year = yearOfEra + era * 400 + (monthFromMarch >= 10 ? 1 : 0);
+        long month = monthFromMarch < 10 ? monthFromMarch + 2 : monthFromMarch - 10;
+        return year * 12 + month;
+    }
+}
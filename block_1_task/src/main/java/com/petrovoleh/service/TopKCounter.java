@@ -0,0 +1,256 @@
+package com.petrovoleh.service;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ObjLongConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Наближений лічильник найчастіших значень на основі алгоритму Space-Saving з фіксованою пам'яттю.
+ * Відстежується не більше capacity значень; коли місця немає, нове значення замінює значення з найменшою кількістю
+ * і успадковує його кількість як похибку. Для кожного значення кількість є верхньою оцінкою,
+ * а кількість мінус похибка - нижньою; похибка не перевищує total / capacity.
+ * Значення зберігаються в мін-купі за кількістю, тому заміна мінімального займає O(log capacity).
+ */
+public class TopKCounter implements TextValueCounter {
+    private final int k; // Кількість значень у результаті
+    private final int capacity; // Максимальна кількість відстежуваних значень
+    private final String[] values; // Мін-купа значень за кількістю
+    private final long[] counts; // Кількості (верхні оцінки)
+    private final long[] errors; // Похибки (максимальне перевищення реальної кількості)
+    private final Map<String, Integer> positions = new HashMap<>(); // Значення -> позиція в купі
+    private int size; // Кількість відстежуваних значень
+    private long total; // Сумарна кількість усіх врахованих значень
+
+    /**
+     * Оцінка кількості одного значення.
+     * @param value значення
+     * @param count верхня оцінка кількості
+     * @param error максимальна похибка (реальна кількість не менша за count - error)
+     */
+    public record Estimate(String value, long count, long error) {}
+
+    /**
+     * Створює порожній лічильник.
+     * @param k        кількість значень у результаті
+     * @param capacity максимальна кількість відстежуваних значень (не менша за k)
+     */
+    public TopKCounter(int k, int capacity) {
+        if (k <= 0 || capacity < k) {
+            throw new IllegalArgumentException("The number of top values must be positive and not exceed the capacity.");
+        }
+        this.k = k;
+        this.capacity = capacity;
+        this.values = new String[capacity];
+        this.counts = new long[capacity];
+        this.errors = new long[capacity];
+    }
+
+    /**
+     * Збільшує кількість входжень значення на одиницю.
+     * @param value значення
+     */
+    @Override
+    public void add(String value) {
+        total++;
+        offer(value, 1, 0);
+    }
+
+    /**
+     * Збільшує кількість входжень значення на вказану величину (зважений варіант Space-Saving).
+     * @param value значення
+     * @param count величина
+     */
+    @Override
+    public void add(String value, long count) {
+        total += count;
+        offer(value, count, 0);
+    }
+
+    private void offer(String value, long count, long error) {
+        Integer position = positions.get(value);
+        if (position != null) {
+            counts[position] += count;
+            errors[position] += error;
+            siftDown(position);
+        } else if (size < capacity) {
+            set(size, value, count, error);
+            siftUp(size++);
+        } else {
+            // Заміна значення з найменшою кількістю: його кількість стає похибкою нового значення
+            long min = counts[0];
+            positions.remove(values[0]);
+            set(0, value, min + count, min + error);
+            siftDown(0);
+        }
+    }
+
+    /**
+     * Об'єднує зведення двох лічильників. Значення, відсутнє в одному зі зведень, могло зустрітися в ньому
+     * не більше за мінімальну кількість цього зведення, тому ця кількість додається і до оцінки, і до похибки.
+     * Залишаються capacity значень з найбільшою кількістю.
+     */
+    @Override
+    public void merge(ValueCounter other) {
+        TopKCounter counter = (TopKCounter) other;
+        long thisMin = minCount();
+        long otherMin = counter.minCount();
+        int mergedSize = 0;
+        String[] mergedValues = new String[size + counter.size];
+        long[] mergedCounts = new long[mergedValues.length];
+        long[] mergedErrors = new long[mergedValues.length];
+        for (int i = 0; i < size; i++) {
+            Integer position = counter.positions.get(values[i]);
+            mergedValues[mergedSize] = values[i];
+            mergedCounts[mergedSize] = counts[i] + (position != null ? counter.counts[position] : otherMin);
+            mergedErrors[mergedSize++] = errors[i] + (position != null ? counter.errors[position] : otherMin);
+        }
+        for (int i = 0; i < counter.size; i++) {
+            if (!positions.containsKey(counter.values[i])) {
+                mergedValues[mergedSize] = counter.values[i];
+                mergedCounts[mergedSize] = counter.counts[i] + thisMin;
+                mergedErrors[mergedSize++] = counter.errors[i] + thisMin;
+            }
+        }
+        int[] order = orderByCount(mergedCounts, mergedSize);
+        positions.clear();
+        size = Math.min(capacity, mergedSize);
+        for (int i = 0; i < size; i++) {
+            set(i, mergedValues[order[i]], mergedCounts[order[i]], mergedErrors[order[i]]);
+        }
+        for (int i = size / 2 - 1; i >= 0; i--) {
+            siftDown(i);
+        }
+        total += counter.total;
+    }
+
+    /**
+     * Повертає k значень з найбільшою кількістю в порядку її спадання.
+     * @return оцінки кількості значень
+     */
+    public List<Estimate> top() {
+        int[] order = orderByCount(counts, size);
+        List<Estimate> result = new ArrayList<>(size());
+        for (int i = 0; i < size(); i++) {
+            int index = order[i];
+            result.add(new Estimate(values[index], counts[index], errors[index]));
+        }
+        return result;
+    }
+
+    @Override
+    public int size() {
+        return Math.min(k, size);
+    }
+
+    @Override
+    public void forEach(ObjLongConsumer<String> action) {
+        for (Estimate estimate : top()) {
+            action.accept(estimate.value(), estimate.count());
+        }
+    }
+
+    @Override
+    public void write(DataOutput out) throws IOException {
+        out.writeLong(total);
+        out.writeInt(size);
+        for (int i = 0; i < size; i++) {
+            TextCounter.writeValue(out, values[i]);
+            out.writeLong(counts[i]);
+            out.writeLong(errors[i]);
+        }
+    }
+
+    @Override
+    public void read(DataInput in) throws IOException {
+        TopKCounter counter = new TopKCounter(k, capacity);
+        counter.total = in.readLong();
+        int entries = in.readInt();
+        for (int i = 0; i < entries; i++) {
+            counter.offer(TextCounter.readValue(in), in.readLong(), in.readLong());
+        }
+        merge(counter);
+    }
+
+    /**
+     * Повертає найменшу кількість серед відстежуваних значень (0, якщо місце ще є):
+     * будь-яке не відстежуване значення зустрілося не більше цієї кількості разів.
+     * @return найменша кількість
+     */
+    public long minCount() {
+        return size < capacity ? 0 : counts[0];
+    }
+
+    /**
+     * Повертає сумарну кількість усіх врахованих значень.
+     * @return сумарна кількість
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    private static int[] orderByCount(long[] counts, int size) {
+        return IntStream.range(0, size).boxed()
+                .sorted((a, b) -> Long.compare(counts[b], counts[a]))
+                .mapToInt(Integer::intValue).toArray();
+    }
+
+    private void set(int index, String value, long count, long error) {
+        values[index] = value;
+        counts[index] = count;
+        errors[index] = error;
+        positions.put(value, index);
+    }
+
+    private void swap(int i, int j) {
+        String value = values[i];
+        long count = counts[i];
+        long error = errors[i];
+        set(i, values[j], counts[j], errors[j]);
+        set(j, value, count, error);
+    }
+
+    private void siftUp(int index) {
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (counts[parent] <= counts[index]) {
+                return;
+            }
+            swap(index, parent);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int index) {
+        while (true) {
+            int smallest = index;
+            int left = 2 * index + 1;
+            int right = left + 1;
+            if (left < size && counts[left] < counts[smallest]) {
+                smallest = left;
+            }
+            if (right < size && counts[right] < counts[smallest]) {
+                smallest = right;
+            }
+            if (smallest == index) {
+                return;
+            }
+            swap(index, smallest);
+            index = smallest;
+        }
+    }
+
+    /* Гетери */
+    public int getK() {
+        return k;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+}
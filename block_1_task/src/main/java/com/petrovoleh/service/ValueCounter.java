@@ -0,0 +1,45 @@
+package com.petrovoleh.service;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * Лічильник кількості входжень значень одного атрибута.
+ * Реалізації не є потокобезпечними.
+ */
+public interface ValueCounter {
+
+    /**
+     * Додає до лічильника значення іншого лічильника того ж типу.
+     * @param other лічильник, який більше не змінюється
+     */
+    void merge(ValueCounter other);
+
+    /**
+     * Повертає кількість різних значень.
+     * @return кількість різних значень
+     */
+    int size();
+
+    /**
+     * Передає кожне значення (у текстовому вигляді) та його кількість у вказану дію.
+     * @param action дія для кожної пари значення -> кількість
+     */
+    void forEach(ObjLongConsumer<String> action);
+
+    /**
+     * Записує значення та їх кількості у двійковому вигляді.
+     * @param out потік для запису
+     * @throws IOException у випадку помилки вводу/виводу
+     */
+    void write(DataOutput out) throws IOException;
+
+    /**
+     * Додає до лічильника значення, записані методом {@link #write(DataOutput)}.
+     * @param in потік для читання
+     * @throws IOException у випадку помилки вводу/виводу
+     */
+    void read(DataInput in) throws IOException;
+}
@@ -1,20 +1,38 @@
 package com.petrovoleh.util;
 
-import com.fasterxml.jackson.databind.SerializationFeature;
-import com.fasterxml.jackson.dataformat.xml.XmlMapper;
-import com.petrovoleh.model.Statistics;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.dataformat.xml.XmlFactory;
+import com.fasterxml.jackson.dataformat.xml.ser.ToXmlGenerator;
+import com.fasterxml.jackson.dataformat.xml.util.DefaultXmlPrettyPrinter;
+import com.petrovoleh.model.Attribute;
+import com.petrovoleh.service.Histogram;
+import com.petrovoleh.service.HyperLogLog;
+import com.petrovoleh.service.StatsService;
+import com.petrovoleh.service.TopKCounter;
 
+import javax.xml.namespace.QName;
+import java.io.BufferedOutputStream;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.LinkedHashMap;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.ObjLongConsumer;
 
 /**
  * Цей клас надає утилітарний метод для запису статистики замовлень у форматі XML.
+ * Елементи пишуться потоково через {@link ToXmlGenerator} одразу під час обходу статистики,
+ * без проміжних колекцій.
  */
 public class XmlWriter {
+    private static final XmlFactory xmlFactory = new XmlFactory();
+    private static final int BUFFER_SIZE = 64 * 1024;
+    public static final String CARDINALITY_FILE_NAME = "order_cardinality.xml";
 
     /**
      * Записує статистику замовлень у форматі XML у вказаний файл.
@@ -25,26 +43,177 @@ public class XmlWriter {
      * @throws IllegalArgumentException у разі, якщо атрибут порожній або містить лише пробіли
      * @throws RuntimeException         у разі помилки при записі у файл
      */
-    public static void writeStatisticsToXML(String directoryPath, Map<String, Integer> orderStatistics, String attribute) {
-        validateInputs(orderStatistics, attribute);
+    public static void writeStatisticsToXML(String directoryPath, Map<String, ? extends Number> orderStatistics, String attribute) {
+        writeStatisticsToXML(directoryPath, orderStatistics, attribute, false);
+    }
+
+    /**
+     * Записує статистику замовлень у форматі XML у вказаний файл.
+     *
+     * @param directoryPath    шлях до директорії для запису файлу
+     * @param orderStatistics  мапа, що містить статистику замовлень (атрибут -> кількість)
+     * @param attribute        атрибут, за яким обчислюється статистика
+     * @param sortByCount      чи сортувати значення за кількістю (від найбільшої)
+     * @throws IllegalArgumentException у разі, якщо атрибут порожній або містить лише пробіли
+     * @throws RuntimeException         у разі помилки при записі у файл
+     */
+    public static void writeStatisticsToXML(String directoryPath, Map<String, ? extends Number> orderStatistics, String attribute, boolean sortByCount) {
+        validateInputs(orderStatistics == null || orderStatistics.isEmpty(), attribute);
 
         String fileName = generateFileName(directoryPath, attribute);
         createDirectoryIfNotExists(directoryPath);
-        writeStatisticsToFile(orderStatistics, fileName);
+        writeStatisticsToFile(action -> orderStatistics.forEach((value, count) -> action.accept(value, count.longValue())),
+                orderStatistics.size(), sortByCount, fileName);
+    }
+
+    /**
+     * Записує статистику замовлень з сервісу статистики у форматі XML у вказаний файл.
+     * Числові значення перетворюються на рядки лише під час запису.
+     *
+     * @param directoryPath шлях до директорії для запису файлу
+     * @param statsService  сервіс зі статистикою замовлень
+     * @param attribute     атрибут, статистика якого записується
+     * @throws IllegalArgumentException у разі, якщо статистика порожня
+     * @throws RuntimeException         у разі помилки при записі у файл
+     */
+    public static void writeStatisticsToXML(String directoryPath, StatsService statsService, Attribute attribute) {
+        writeStatisticsToXML(directoryPath, statsService, attribute, false);
+    }
+
+    /**
+     * Записує статистику замовлень з сервісу статистики у форматі XML у вказаний файл.
+     * Для атрибута в режимі найчастіших значень записуються лише вони (за спаданням кількості) з похибкою {@code <error>},
+     * для атрибута в режимі розподілу - характеристики розподілу та кошики гістограми.
+     *
+     * @param directoryPath шлях до директорії для запису файлу
+     * @param statsService  сервіс зі статистикою замовлень
+     * @param attribute     атрибут, статистика якого записується
+     * @param sortByCount   чи сортувати значення за кількістю (від найбільшої)
+     * @throws IllegalArgumentException у разі, якщо статистика порожня
+     * @throws RuntimeException         у разі помилки при записі у файл
+     */
+    public static void writeStatisticsToXML(String directoryPath, StatsService statsService, Attribute attribute, boolean sortByCount) {
+        validateInputs(statsService.isEmpty(attribute), attribute.getName());
+
+        String fileName = generateFileName(directoryPath, attribute.getName());
+        createDirectoryIfNotExists(directoryPath);
+        if (statsService.isHistogram(attribute)) {
+            writeDistribution(fileName, statsService.getHistogram(attribute));
+            return;
+        }
+        if (statsService.isTopK(attribute)) {
+            // Найчастіші значення вже впорядковані за кількістю і записуються разом з похибкою
+            List<TopKCounter.Estimate> estimates = statsService.getTopValues(attribute);
+            writeXml(fileName, "statistics", generator -> {
+                for (TopKCounter.Estimate estimate : estimates) {
+                    writeItem(generator, estimate.value(), estimate.count());
+                    generator.writeNumberField("error", estimate.error());
+                    generator.writeEndObject();
+                }
+            });
+            return;
+        }
+        // Кількість значень потрібна лише для сортування, а для лічильника з вивантаженням на диск вона обчислюється злиттям серій
+        int size = sortByCount ? statsService.size(attribute) : 0;
+        writeStatisticsToFile(action -> statsService.forEach(attribute, action), size, sortByCount, fileName);
+    }
+
+    /**
+     * Записує статистику всіх атрибутів сервісу: у режимі підрахунку різних значень - один файл з оцінками,
+     * інакше - окремий файл для кожного атрибута з непорожньою статистикою.
+     *
+     * @param directoryPath шлях до директорії для запису файлів
+     * @param statsService  сервіс зі статистикою замовлень
+     * @param sortByCount   чи сортувати значення за кількістю (від найбільшої)
+     * @return кількість записаних файлів (0, якщо статистика порожня)
+     * @throws RuntimeException у разі помилки при записі у файл
+     */
+    public static int writeStatisticsToXML(String directoryPath, StatsService statsService, boolean sortByCount) {
+        boolean hasStatistics = statsService.getAttributes().stream().anyMatch(attribute -> !statsService.isEmpty(attribute));
+        if (!hasStatistics) {
+            return 0;
+        }
+        if (statsService.getOptions().isCardinalityMode()) {
+            writeCardinalityToXML(directoryPath, statsService);
+            return 1;
+        }
+        int files = 0;
+        for (Attribute attribute : statsService.getAttributes()) {
+            if (!statsService.isEmpty(attribute)) {
+                writeStatisticsToXML(directoryPath, statsService, attribute, sortByCount);
+                files++;
+            }
+        }
+        return files;
+    }
+
+    /**
+     * Записує розподіл значень: точні кількість, суму, мінімум, максимум і середнє, перцентилі p50/p90/p99
+     * та кількість значень у кожному непорожньому кошику гістограми.
+     *
+     * @param fileName  ім'я файлу для запису
+     * @param histogram гістограма значень
+     * @throws RuntimeException у разі помилки при записі у файл
+     */
+    private static void writeDistribution(String fileName, Histogram histogram) {
+        writeXml(fileName, "distribution", generator -> {
+            generator.writeNumberField("count", histogram.getCount());
+            generator.writeNumberField("sum", histogram.getSum());
+            generator.writeNumberField("min", histogram.getMin());
+            generator.writeNumberField("max", histogram.getMax());
+            generator.writeNumberField("mean", histogram.mean());
+            generator.writeNumberField("p50", histogram.percentile(50));
+            generator.writeNumberField("p90", histogram.percentile(90));
+            generator.writeNumberField("p99", histogram.percentile(99));
+            histogram.forEachBucket((from, to, count) -> {
+                try {
+                    generator.writeFieldName("bucket");
+                    generator.writeStartObject();
+                    generator.writeNumberField("from", from);
+                    generator.writeNumberField("to", to);
+                    generator.writeNumberField("count", count);
+                    generator.writeEndObject();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        });
+    }
+
+    /**
+     * Записує оцінки кількості різних значень усіх атрибутів у файл order_cardinality.xml.
+     *
+     * @param directoryPath шлях до директорії для запису файлу
+     * @param statsService  сервіс у режимі підрахунку різних значень
+     * @throws RuntimeException у разі помилки при записі у файл
+     */
+    public static void writeCardinalityToXML(String directoryPath, StatsService statsService) {
+        createDirectoryIfNotExists(directoryPath);
+        writeXml(directoryPath + "/" + CARDINALITY_FILE_NAME, "cardinality", generator -> {
+            for (Attribute attribute : statsService.getAttributes()) {
+                HyperLogLog sketch = statsService.getCardinality(attribute);
+                generator.writeFieldName("attribute");
+                generator.writeStartObject();
+                generator.writeStringField("name", attribute.getName());
+                generator.writeNumberField("estimate", sketch.estimate());
+                generator.writeNumberField("standardError", sketch.standardError());
+                generator.writeEndObject();
+            }
+        });
     }
 
     /**
      * Перевіряє вхідні дані на валідність.
      *
-     * @param orderStatistics мапа, що містить статистику замовлень
-     * @param attribute       атрибут, за яким обчислюється статистика
+     * @param isEmpty   чи порожня статистика замовлень
+     * @param attribute атрибут, за яким обчислюється статистика
      * @throws IllegalArgumentException у разі невалідності вхідних даних
      */
-    private static void validateInputs(Map<String, Integer> orderStatistics, String attribute) {
+    private static void validateInputs(boolean isEmpty, String attribute) {
         if (attribute == null || attribute.trim().isEmpty()) {
             throw new IllegalArgumentException("Error writing order statistics to XML file: The attribute cannot be empty");
         }
-        if (orderStatistics == null || orderStatistics.isEmpty()) {
+        if (isEmpty) {
             throw new IllegalArgumentException("Error writing order statistics to XML file: The orderStatistics cannot be empty");
         }
     }
@@ -60,6 +229,17 @@ public class XmlWriter {
         return directoryPath + "/" + "order_statistics_by_" + attribute.trim() + ".xml";
     }
 
+    /**
+     * Перевіряє, чи є файл результатом роботи програми (файлом статистики), а не файлом замовлень.
+     *
+     * @param file шлях до файлу
+     * @return true, якщо це файл статистики
+     */
+    public static boolean isStatisticsFile(Path file) {
+        String name = file.getFileName().toString();
+        return name.startsWith("order_statistics_by_") && name.endsWith(".xml") || name.equals(CARDINALITY_FILE_NAME);
+    }
+
     /**
      * Створює директорію, якщо вона не існує.
      *
@@ -73,43 +253,111 @@ public class XmlWriter {
     }
 
     /**
-     * Записує статистику у файл у форматі XML.
+     * Записує статистику у файл у форматі XML. Кожен елемент {@code <item>} пишеться в буферизований потік
+     * одразу, як тільки обхід статистики передає чергову пару значення -> кількість.
      *
-     * @param orderStatistics мапа, що містить статистику замовлень
+     * @param orderStatistics джерело статистики, що передає кожну пару значення -> кількість у вказану дію
+     * @param size            кількість різних значень
+     * @param sortByCount     чи сортувати значення за кількістю (від найбільшої)
      * @param fileName        ім'я файлу для запису
      * @throws RuntimeException у разі помилки при записі у файл
      */
-    private static void writeStatisticsToFile(Map<String, Integer> orderStatistics, String fileName) {
-        try {
-            XmlMapper xmlMapper = new XmlMapper();
-            xmlMapper.enable(SerializationFeature.INDENT_OUTPUT);
+    private static void writeStatisticsToFile(Consumer<ObjLongConsumer<String>> orderStatistics, int size, boolean sortByCount, String fileName) {
+        Consumer<ObjLongConsumer<String>> source = sortByCount ? sortedByCount(orderStatistics, size) : orderStatistics;
+        writeXml(fileName, "statistics", generator -> source.accept((value, count) -> {
+            try {
+                writeItem(generator, value, count);
+                generator.writeEndObject();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }));
+    }
 
-            List<Map<String, Object>> items = prepareDataForXML(orderStatistics);
+    /**
+     * Дія, що записує елементи {@code <item>} у відкритий генератор XML.
+     */
+    @FunctionalInterface
+    private interface ItemsWriter {
+        void write(ToXmlGenerator generator) throws IOException;
+    }
 
-            File outputFile = new File(fileName);
-            xmlMapper.writeValue(outputFile, new Statistics(items));
-            System.out.println("Order statistics written to " + fileName);
-        } catch (IOException e) {
+    /**
+     * Відкриває файл, записує кореневий елемент і передає генератор для запису вкладених елементів.
+     *
+     * @param fileName ім'я файлу для запису
+     * @param rootName назва кореневого елемента
+     * @param items    дія, що записує елементи
+     * @throws RuntimeException у разі помилки при записі у файл
+     */
+    private static void writeXml(String fileName, String rootName, ItemsWriter items) {
+        try (ToXmlGenerator generator = xmlFactory.createGenerator(
+                new BufferedOutputStream(new FileOutputStream(fileName), BUFFER_SIZE), JsonEncoding.UTF8)) {
+            generator.setPrettyPrinter(new DefaultXmlPrettyPrinter());
+            generator.setNextName(new QName(rootName));
+            generator.writeStartObject();
+            items.write(generator);
+            generator.writeEndObject();
+        } catch (IOException | UncheckedIOException e) {
             System.err.println("Error writing order statistics to XML file: " + e.getMessage());
             throw new RuntimeException("Error writing order statistics to XML file", e);
         }
+        System.out.println("Order statistics written to " + fileName);
     }
 
+    /**
+     * Починає елемент {@code <item>} і записує в нього значення та кількість. Елемент закриває той, хто викликає.
+     */
+    private static void writeItem(ToXmlGenerator generator, String value, long count) throws IOException {
+        generator.writeFieldName("item");
+        generator.writeStartObject();
+        generator.writeStringField("value", value);
+        generator.writeNumberField("count", count);
+    }
 
     /**
-     * Підготовлює дані для запису у файл у форматі XML.
+     * Повертає джерело статистики, що передає значення в порядку спадання кількості (при однаковій кількості -
+     * в порядку обходу). Зберігаються лише посилання на значення та примітивні масиви кількостей і порядку;
+     * порядок сортується як масив long, де старші біти - кількість, а молодші - номер значення.
      *
-     * @param orderStatistics мапа, що містить статистику замовлень (атрибут -> кількість)
-     * @return список мап, що містить дані для запису у файл
-     */
-    private static List<Map<String, Object>> prepareDataForXML(Map<String, Integer> orderStatistics) {
-        List<Map<String, Object>> items = new ArrayList<>();
-        for (Map.Entry<String, Integer> entry : orderStatistics.entrySet()) {
-            Map<String, Object> itemMap = new LinkedHashMap<>();
-            itemMap.put("value", entry.getKey());
-            itemMap.put("count", entry.getValue());
-            items.add(itemMap);
+     * @param orderStatistics джерело статистики
+     * @param size            кількість різних значень
+     * @return джерело статистики, відсортоване за кількістю
+     */
+    private static Consumer<ObjLongConsumer<String>> sortedByCount(Consumer<ObjLongConsumer<String>> orderStatistics, int size) {
+        String[] values = new String[size];
+        long[] counts = new long[size];
+        int[] length = new int[1];
+        orderStatistics.accept((value, count) -> {
+            values[length[0]] = value;
+            counts[length[0]++] = count;
+        });
+        int n = length[0];
+        long maxCount = 0;
+        for (int i = 0; i < n; i++) {
+            maxCount = Math.max(maxCount, counts[i]);
+        }
+        if (maxCount > Integer.MAX_VALUE) {
+            // Кількість не вміщується в старші біти - сортування індексів з компаратором
+            Integer[] order = new Integer[n];
+            Arrays.setAll(order, i -> i);
+            Arrays.sort(order, Comparator.comparingLong((Integer i) -> counts[i]).reversed());
+            return action -> {
+                for (int i : order) {
+                    action.accept(values[i], counts[i]);
+                }
+            };
+        }
+        long[] order = new long[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = counts[i] << 32 | (Integer.MAX_VALUE - i);
         }
-        return items;
+        Arrays.sort(order);
+        return action -> {
+            for (int k = n - 1; k >= 0; k--) {
+                int i = Integer.MAX_VALUE - (int) order[k];
+                action.accept(values[i], counts[i]);
+            }
+        };
     }
 }
@@ -0,0 +1,108 @@
+package test.filecreator;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.petrovoleh.filecreator.GeneratorOptions;
+import com.petrovoleh.filecreator.JsonFileCreator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Клас для тестування генератора JSON-файлів.
+ */
+public class JsonFileCreatorTest {
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Тест для перевірки, що файл з кількома частинами є коректним масивом JSON із замовленнями по порядку,
+     * а копії файлу однакові.
+     */
+    @Test
+    void testMain_OrdersInSequence() throws IOException {
+        int numberOfEntries = 10_000;
+        JsonFileCreator.main(new String[]{String.valueOf(numberOfEntries), tempDir.toString(), "2"});
+
+        JsonNode orders = new ObjectMapper().readTree(tempDir.resolve("orders_1.json").toFile());
+        assertTrue(orders.isArray());
+        assertEquals(numberOfEntries, orders.size());
+        for (int i = 0; i < numberOfEntries; i++) {
+            JsonNode order = orders.get(i);
+            assertEquals(i + 1, order.get("orderId").asInt());
+            assertTrue(order.get("items").size() >= 1);
+        }
+        assertEquals(-1, Files.mismatch(tempDir.resolve("orders_1.json"), tempDir.resolve("orders_2.json")));
+    }
+
+    /**
+     * Тест для перевірки файлу з меншою кількістю замовлень, ніж кроків прогресу.
+     */
+    @Test
+    void testMain_FewEntries() throws IOException {
+        JsonFileCreator.main(new String[]{"3", tempDir.toString(), "1"});
+
+        JsonNode orders = new ObjectMapper().readTree(tempDir.resolve("orders_1.json").toFile());
+        assertEquals(3, orders.size());
+    }
+
+    /**
+     * Тест для перевірки, що з однаковим початковим значенням унікальні файли однакові між запусками,
+     * відрізняються між собою і мають ідентифікатори, що продовжуються з файлу у файл.
+     */
+    @Test
+    void testCreateJsonFiles_UniqueWithSeed() throws IOException {
+        GeneratorOptions options = new GeneratorOptions();
+        options.setUniqueFiles(true);
+        options.setSeed(7L);
+        options.setItemsPerOrder(0, 3);
+        JsonFileCreator.createJsonFiles(tempDir.resolve("first").toString(), 5000, 2, options);
+        JsonFileCreator.createJsonFiles(tempDir.resolve("second").toString(), 5000, 2, options);
+
+        for (int file = 1; file <= 2; file++) {
+            Path path = tempDir.resolve("first").resolve("orders_" + file + ".json");
+            assertEquals(-1, Files.mismatch(path, tempDir.resolve("second").resolve("orders_" + file + ".json")));
+            JsonNode orders = new ObjectMapper().readTree(path.toFile());
+            assertEquals(5000, orders.size());
+            for (int i = 0; i < orders.size(); i++) {
+                assertEquals((file - 1) * 5000 + i + 1, orders.get(i).get("orderId").asInt());
+                int items = orders.get(i).get("items").size();
+                assertTrue(items >= 0 && items <= 3);
+            }
+        }
+        assertNotEquals(-1, Files.mismatch(tempDir.resolve("first").resolve("orders_1.json"), tempDir.resolve("first").resolve("orders_2.json")));
+    }
+
+    /**
+     * Тест для перевірки, що при розподілі Ципфа популярність значень спадає з номером,
+     * а клієнтів може бути більше, ніж імен.
+     */
+    @Test
+    void testCreateJsonFiles_Skewed() throws IOException {
+        GeneratorOptions options = new GeneratorOptions();
+        options.setSeed(1L);
+        options.setItemSkew(1.2);
+        options.setClientCount(50_000);
+        options.setClientSkew(1.0);
+        JsonFileCreator.createJsonFiles(tempDir.toString(), 20_000, 1, options);
+
+        Map<String, Integer> items = new HashMap<>();
+        Map<String, Integer> clients = new HashMap<>();
+        for (JsonNode order : new ObjectMapper().readTree(tempDir.resolve("orders_1.json").toFile())) {
+            order.get("items").forEach(item -> items.merge(item.asText(), 1, Integer::sum));
+            clients.merge(order.get("client").asText(), 1, Integer::sum);
+        }
+        assertTrue(items.get("Item 1") > items.get("Item 2"));
+        assertTrue(items.get("Item 2") > items.getOrDefault("Item 100", 0));
+        assertTrue(clients.get("Client 1") > clients.getOrDefault("Client 1000", 0));
+        assertTrue(clients.size() > 1000);
+    }
+}
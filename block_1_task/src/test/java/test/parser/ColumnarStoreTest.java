@@ -0,0 +1,94 @@
+package test.parser;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.petrovoleh.model.Attribute;
+import com.petrovoleh.parser.ColumnarStore;
+import com.petrovoleh.parser.Parser;
+import com.petrovoleh.parser.ParserOptions;
+import com.petrovoleh.service.StatsOptions;
+import com.petrovoleh.service.StatsService;
+import com.petrovoleh.service.TimeBucket;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import test.util.TestOrderFiles;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Клас для тестування сховища замовлень по стовпцях.
+ */
+public class ColumnarStoreTest {
+
+    private static final JsonFactory jsonFactory = new JsonFactory();
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Тест для перевірки, що статистика зі сховища збігається зі статистикою парсингу JSON,
+     * включно з пошкодженим файлом і групуванням дат.
+     */
+    @Test
+    void testScan_SameAsJson() throws IOException {
+        Path dataDir = Files.createDirectory(tempDir.resolve("data"));
+        for (int i = 0; i < 4; i++) {
+            TestOrderFiles.writeOrders(dataDir.resolve("orders_" + i + ".json").toFile(), i * 3000, 3000);
+        }
+        byte[] json = Files.readAllBytes(dataDir.resolve("orders_0.json"));
+        Files.write(dataDir.resolve("broken.json"), Arrays.copyOf(json, json.length / 3));
+        StatsOptions statsOptions = new StatsOptions();
+        statsOptions.setDateBucket(TimeBucket.HOUR);
+
+        StatsService expected = new StatsService(EnumSet.allOf(Attribute.class), statsOptions);
+        Parser.parseOrders(jsonFactory, dataDir.toString(), expected, new ParserOptions(2));
+        ParserOptions options = new ParserOptions(3);
+        options.setColumnarStore(new ColumnarStore(tempDir.resolve("store")));
+        // Перший запуск перетворює файли, другий - лише читає стовпці
+        for (int run = 0; run < 2; run++) {
+            StatsService actual = new StatsService(EnumSet.allOf(Attribute.class), statsOptions);
+            Parser.parseOrders(jsonFactory, dataDir.toString(), actual, options);
+            for (Attribute attribute : Attribute.values()) {
+                assertEquals(expected.getStatistics(attribute), actual.getStatistics(attribute), attribute.getName());
+            }
+        }
+    }
+
+    /**
+     * Тест для перевірки, що сховище вважається застарілим після зміни набору файлів і перестворюється.
+     */
+    @Test
+    void testIsUpToDate_FilesChanged() throws IOException {
+        Path dataDir = Files.createDirectory(tempDir.resolve("data"));
+        TestOrderFiles.writeOrders(dataDir.resolve("orders_0.json").toFile(), 0, 100);
+        ColumnarStore store = new ColumnarStore(tempDir.resolve("store"));
+        assertFalse(store.isUpToDate(listFiles(dataDir)));
+
+        store.convert(jsonFactory, listFiles(dataDir));
+        assertTrue(store.isUpToDate(listFiles(dataDir)));
+        // Файли статистики не враховуються
+        Files.writeString(dataDir.resolve("order_statistics_by_item.xml"), "<statistics/>");
+        assertTrue(store.isUpToDate(listFiles(dataDir)));
+
+        TestOrderFiles.writeOrders(dataDir.resolve("orders_1.json").toFile(), 100, 50);
+        assertFalse(store.isUpToDate(listFiles(dataDir)));
+        ParserOptions options = new ParserOptions(1);
+        options.setColumnarStore(store);
+        StatsService statsService = Parser.parseOrders(jsonFactory, dataDir.toString(), "orderId", options);
+        assertEquals(150, statsService.size(Attribute.ORDER_ID));
+        assertTrue(store.isUpToDate(listFiles(dataDir)));
+    }
+
+    private static List<File> listFiles(Path directory) throws IOException {
+        try (var files = Files.list(directory)) {
+            return files.map(Path::toFile).toList();
+        }
+    }
+}
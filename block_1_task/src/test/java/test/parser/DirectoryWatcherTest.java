@@ -0,0 +1,152 @@
+package test.parser;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.petrovoleh.model.Attribute;
+import com.petrovoleh.parser.DirectoryWatcher;
+import com.petrovoleh.parser.ParserOptions;
+import com.petrovoleh.service.StatsOptions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import test.util.TestOrderFiles;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Клас для тестування спостереження за директорією без WatchService: події передаються напряму, а час задається тестом.
+ */
+public class DirectoryWatcherTest {
+
+    private static final long DEBOUNCE_MILLIS = 1000;
+
+    @TempDir
+    Path tempDir;
+
+    private DirectoryWatcher watcher;
+    private ExecutorService executor;
+    private long now; // Поточний час годинника спостерігача
+
+    @BeforeEach
+    void setUp() {
+        watcher = new DirectoryWatcher(new JsonFactory(), tempDir.toString(), EnumSet.of(Attribute.ORDER_ID, Attribute.CLIENT),
+                new StatsOptions(), new ParserOptions(2), DEBOUNCE_MILLIS);
+        watcher.setClock(() -> now);
+        executor = Executors.newFixedThreadPool(2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Тест для перевірки, що файл обробляється лише після інтервалу затримки, зміна файлу замінює його внесок,
+     * а не додається вдруге, і видалення файлу прибирає його внесок.
+     */
+    @Test
+    void testCreateModifyDelete() throws IOException, InterruptedException {
+        Path file = tempDir.resolve("orders.json");
+        TestOrderFiles.writeOrders(file.toFile(), 0, 100);
+        watcher.onEvent(StandardWatchEventKinds.ENTRY_CREATE, file.getFileName());
+        now = DEBOUNCE_MILLIS - 1;
+        watcher.processSettledFiles(executor);
+        assertTrue(watcher.getStatistics().isEmpty(Attribute.ORDER_ID));
+
+        now = DEBOUNCE_MILLIS;
+        watcher.processSettledFiles(executor);
+        assertEquals(100, watcher.getStatistics().size(Attribute.ORDER_ID));
+
+        // Файл перезаписано меншою кількістю замовлень
+        TestOrderFiles.writeOrders(file.toFile(), 0, 40);
+        watcher.onEvent(StandardWatchEventKinds.ENTRY_MODIFY, file.getFileName());
+        now += DEBOUNCE_MILLIS;
+        watcher.processSettledFiles(executor);
+        Map<String, Long> orders = watcher.getStatistics().getStatistics(Attribute.ORDER_ID);
+        assertEquals(40, orders.size());
+        assertEquals(1L, orders.get("0"));
+        assertEquals(40L, watcher.getStatistics().getStatistics(Attribute.CLIENT).values().stream().mapToLong(Long::longValue).sum());
+
+        Files.delete(file);
+        watcher.onEvent(StandardWatchEventKinds.ENTRY_DELETE, file.getFileName());
+        now += DEBOUNCE_MILLIS;
+        watcher.processSettledFiles(executor);
+        assertTrue(watcher.getStatistics().isEmpty(Attribute.ORDER_ID));
+    }
+
+    /**
+     * Тест для перевірки, що з вивантаженням на диск заміна і видалення файлу звільняють файли серій
+     * його старої статистики і попередньої загальної статистики.
+     */
+    @Test
+    void testSpillFilesReleased() throws IOException, InterruptedException {
+        Path spillDir = tempDir.resolve("spill");
+        StatsOptions statsOptions = new StatsOptions();
+        statsOptions.setSpillBudget(1024);
+        statsOptions.setSpillDirectory(spillDir);
+        watcher = new DirectoryWatcher(new JsonFactory(), tempDir.toString(), EnumSet.of(Attribute.ORDER_ID, Attribute.CLIENT),
+                statsOptions, new ParserOptions(2), DEBOUNCE_MILLIS);
+        watcher.setClock(() -> now);
+        Path file = TestOrderFiles.writeOrders(tempDir.resolve("orders.json").toFile(), 0, 500).toPath();
+        watcher.onEvent(StandardWatchEventKinds.ENTRY_CREATE, file.getFileName());
+        now += DEBOUNCE_MILLIS;
+        watcher.processSettledFiles(executor);
+        assertEquals(500, watcher.getStatistics().size(Attribute.ORDER_ID));
+        long files = spillFiles(spillDir);
+        assertTrue(files > 0);
+
+        for (int i = 0; i < 3; i++) {
+            watcher.onEvent(StandardWatchEventKinds.ENTRY_MODIFY, file.getFileName());
+            now += DEBOUNCE_MILLIS;
+            watcher.processSettledFiles(executor);
+        }
+        assertEquals(500, watcher.getStatistics().size(Attribute.ORDER_ID));
+        assertEquals(files, spillFiles(spillDir));
+
+        Files.delete(file);
+        watcher.onEvent(StandardWatchEventKinds.ENTRY_DELETE, file.getFileName());
+        now += DEBOUNCE_MILLIS;
+        watcher.processSettledFiles(executor);
+        assertTrue(watcher.getStatistics().isEmpty(Attribute.ORDER_ID));
+        assertEquals(0, spillFiles(spillDir));
+    }
+
+    private static long spillFiles(Path spillDir) throws IOException {
+        try (Stream<Path> files = Files.list(spillDir)) {
+            return files.count();
+        }
+    }
+
+    /**
+     * Тест для перевірки, що наявні файли обробляються одразу, власні XML-файли ігноруються,
+     * а після переповнення подій відомі файли перечитуються без подвоєння статистики.
+     */
+    @Test
+    void testScanIgnoresStatisticsFilesAndOverflowRereads() throws IOException, InterruptedException {
+        Path first = TestOrderFiles.writeOrders(tempDir.resolve("orders_1.json").toFile(), 0, 50).toPath();
+        TestOrderFiles.writeOrders(tempDir.resolve("orders_2.json").toFile(), 50, 50);
+        Files.writeString(tempDir.resolve("order_statistics_by_orderId.xml"), "<statistics></statistics>");
+        watcher.scan();
+        watcher.processSettledFiles(executor);
+        assertEquals(100, watcher.getStatistics().size(Attribute.ORDER_ID));
+
+        watcher.onEvent(StandardWatchEventKinds.ENTRY_MODIFY, Path.of("order_statistics_by_client.xml"));
+        TestOrderFiles.writeOrders(first.toFile(), 0, 10);
+        watcher.onEvent(StandardWatchEventKinds.OVERFLOW, null);
+        now += DEBOUNCE_MILLIS;
+        watcher.processSettledFiles(executor);
+        Map<String, Long> orders = watcher.getStatistics().getStatistics(Attribute.ORDER_ID);
+        assertEquals(60, orders.size());
+        assertTrue(orders.values().stream().allMatch(count -> count == 1));
+    }
+}
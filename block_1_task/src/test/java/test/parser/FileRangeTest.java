@@ -0,0 +1,106 @@
+package test.parser;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.petrovoleh.model.Attribute;
+import com.petrovoleh.parser.FileRange;
+import com.petrovoleh.parser.InputMode;
+import com.petrovoleh.parser.Parser;
+import com.petrovoleh.service.StatsAccumulator;
+import com.petrovoleh.service.StatsService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import test.util.TestOrderFiles;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Клас для тестування розбиття великого JSON-файлу на діапазони.
+ */
+public class FileRangeTest {
+
+    private static final JsonFactory jsonFactory = new JsonFactory();
+    private static final int numberOfOrders = 60000;
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Тест для перевірки, що кожне замовлення потрапляє рівно в один діапазон.
+     */
+    @Test
+    void testSplit_EveryOrderParsedOnce() throws IOException {
+        File file = TestOrderFiles.writeOrders(tempDir.resolve("orders.json").toFile(), 1, numberOfOrders);
+
+        List<FileRange> ranges = FileRange.split(jsonFactory, file, 4);
+        assertEquals(4, ranges.size());
+        assertEquals(0, ranges.get(0).getStart());
+        assertEquals(file.length(), ranges.get(ranges.size() - 1).getEnd());
+
+        StatsService statsService = new StatsService("orderId");
+        for (FileRange range : ranges) {
+            StatsAccumulator accumulator = statsService.newAccumulator();
+            Parser.parseRange(jsonFactory, range, accumulator, InputMode.STREAM);
+            statsService.merge(accumulator);
+        }
+        Map<String, Long> stats = statsService.getStatistics();
+        assertEquals(numberOfOrders, stats.size());
+        for (long count : stats.values()) {
+            assertEquals(1, count);
+        }
+    }
+
+    /**
+     * Тест для перевірки, що малий файл не розбивається.
+     */
+    @Test
+    void testSplit_SmallFile() throws IOException {
+        File file = TestOrderFiles.writeOrders(tempDir.resolve("small.json").toFile(), 1, 10);
+
+        List<FileRange> ranges = FileRange.split(jsonFactory, file, 4);
+        assertEquals(1, ranges.size());
+        assertTrue(ranges.get(0).isWholeFile());
+    }
+
+    /**
+     * Тест для перевірки, що всі способи читання дають однакову статистику для цілих файлів і діапазонів,
+     * а буфер потоку коректно перевикористовується для файлів різного розміру (більший, менший, знову більший).
+     */
+    @Test
+    void testParseRange_AllInputModesEqual() throws IOException {
+        File large = TestOrderFiles.writeOrders(tempDir.resolve("large.json").toFile(), 0, numberOfOrders);
+        File small = TestOrderFiles.writeOrders(tempDir.resolve("small.json").toFile(), numberOfOrders, 100);
+        File medium = TestOrderFiles.writeOrders(tempDir.resolve("medium.json").toFile(), numberOfOrders + 100, 5000);
+
+        Map<String, Long> expected = null;
+        for (InputMode mode : InputMode.values()) {
+            for (boolean split : new boolean[]{false, true}) {
+                StatsService statsService = new StatsService("all");
+                for (File file : new File[]{large, small, medium}) {
+                    List<FileRange> ranges = split ? FileRange.split(jsonFactory, file, 3) : List.of(FileRange.wholeFile(file));
+                    for (FileRange range : ranges) {
+                        StatsAccumulator accumulator = statsService.newAccumulator();
+                        assertTrue(Parser.parseRange(jsonFactory, range, accumulator, mode) > 0, mode + " " + range);
+                        statsService.merge(accumulator);
+                    }
+                }
+                Map<String, Long> actual = new HashMap<>();
+                for (Attribute attribute : statsService.getAttributes()) {
+                    statsService.forEach(attribute, (value, count) -> actual.put(attribute.getName() + ":" + value, count));
+                }
+                if (expected == null) {
+                    expected = actual;
+                    assertEquals(numberOfOrders + 5100, statsService.getStatistics(Attribute.ORDER_ID).size());
+                } else {
+                    assertEquals(expected, actual, mode + (split ? " (split)" : ""));
+                }
+            }
+        }
+    }
+}
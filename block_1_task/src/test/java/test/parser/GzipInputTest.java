@@ -0,0 +1,129 @@
+package test.parser;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.petrovoleh.model.Attribute;
+import com.petrovoleh.parser.ParallelGzipInputStream;
+import com.petrovoleh.parser.Parser;
+import com.petrovoleh.parser.ParserOptions;
+import com.petrovoleh.service.StatsService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import test.util.TestOrderFiles;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Клас для тестування читання стиснених gzip файлів.
+ */
+public class GzipInputTest {
+
+    private static final JsonFactory jsonFactory = new JsonFactory();
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Тест для перевірки, що файл з багатьох gzip-блоків розпаковується паралельно в початковому порядку.
+     */
+    @Test
+    void testRead_MultiMemberInOrder() throws IOException {
+        byte[] json = Files.readAllBytes(TestOrderFiles.writeOrders(tempDir.resolve("orders.json").toFile(), 0, 20_000).toPath());
+        File compressed = tempDir.resolve("orders.json.gz").toFile();
+        // Межі блоків не збігаються з межами замовлень
+        Files.write(compressed.toPath(), gzipMembers(json, 37));
+
+        for (int window : new int[]{1, 4}) {
+            try (InputStream input = new ParallelGzipInputStream(compressed, window)) {
+                assertArrayEquals(json, input.readAllBytes());
+            }
+        }
+    }
+
+    /**
+     * Тест для перевірки, що статистика стиснених файлів (за розширенням і за сигнатурою) збігається зі статистикою звичайних.
+     */
+    @Test
+    void testParseOrders_CompressedEqualsPlain() throws IOException {
+        Path plainDir = Files.createDirectory(tempDir.resolve("plain"));
+        Path compressedDir = Files.createDirectory(tempDir.resolve("compressed"));
+        for (int i = 0; i < 3; i++) {
+            File plain = TestOrderFiles.writeOrders(plainDir.resolve("orders_" + i + ".json").toFile(), i * 1000, 1000);
+            String name = i == 0 ? "orders_0.dump" : "orders_" + i + ".json.gz";
+            Files.write(compressedDir.resolve(name), gzipMembers(Files.readAllBytes(plain.toPath()), i + 1));
+        }
+        assertTrue(ParallelGzipInputStream.isGzip(compressedDir.resolve("orders_0.dump").toFile()));
+        assertFalse(ParallelGzipInputStream.isGzip(plainDir.resolve("orders_0.json").toFile()));
+
+        StatsService expected = Parser.parseOrders(jsonFactory, plainDir.toString(), "all", new ParserOptions(2));
+        StatsService actual = Parser.parseOrders(jsonFactory, compressedDir.toString(), "all", new ParserOptions(2));
+        for (Attribute attribute : Attribute.values()) {
+            assertEquals(expected.getStatistics(attribute), actual.getStatistics(attribute));
+        }
+    }
+
+    /**
+     * Тест для перевірки, що файл з одного блока читається повністю, дані після останнього блока ігноруються,
+     * а файл без заголовка gzip не приймається.
+     */
+    @Test
+    void testRead_SingleMemberAndTrailingData() throws IOException {
+        byte[] json = Files.readAllBytes(TestOrderFiles.writeOrders(tempDir.resolve("orders.json").toFile(), 0, 1000).toPath());
+        byte[] member = gzipMembers(json, 1);
+        File single = tempDir.resolve("single.json.gz").toFile();
+        Files.write(single.toPath(), member);
+        File trailing = tempDir.resolve("trailing.json.gz").toFile();
+        byte[] withTrailing = Arrays.copyOf(member, member.length + 16);
+        Files.write(trailing.toPath(), withTrailing);
+
+        for (File file : new File[]{single, trailing}) {
+            try (InputStream input = new ParallelGzipInputStream(file, 4)) {
+                assertArrayEquals(json, input.readAllBytes());
+            }
+        }
+        try (InputStream input = new ParallelGzipInputStream(tempDir.resolve("orders.json").toFile(), 4)) {
+            assertThrows(IOException.class, input::readAllBytes);
+        }
+    }
+
+    /**
+     * Тест для перевірки, що пошкоджений блок призводить до помилки, а не до неповних даних.
+     */
+    @Test
+    void testRead_CorruptedMemberFails() throws IOException {
+        byte[] json = Files.readAllBytes(TestOrderFiles.writeOrders(tempDir.resolve("orders.json").toFile(), 0, 1000).toPath());
+        byte[] bytes = gzipMembers(json, 2);
+        // Зміна байта CRC32 останнього блока
+        bytes[bytes.length - 6] ^= 1;
+        File compressed = tempDir.resolve("orders.json.gz").toFile();
+        Files.write(compressed.toPath(), bytes);
+
+        try (InputStream input = new ParallelGzipInputStream(compressed, 2)) {
+            assertThrows(IOException.class, input::readAllBytes);
+        }
+    }
+
+    /**
+     * Стискає дані, розбиті на вказану кількість частин, кожна з яких - окремий gzip-блок.
+     */
+    private static byte[] gzipMembers(byte[] data, int members) throws IOException {
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        int partSize = (data.length + members - 1) / members;
+        for (int start = 0; start < data.length; start += partSize) {
+            ByteArrayOutputStream member = new ByteArrayOutputStream();
+            try (GZIPOutputStream gzip = new GZIPOutputStream(member)) {
+                gzip.write(Arrays.copyOfRange(data, start, Math.min(data.length, start + partSize)));
+            }
+            member.writeTo(result);
+        }
+        return result.toByteArray();
+    }
+}
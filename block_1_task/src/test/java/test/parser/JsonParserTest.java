@@ -2,38 +2,38 @@ package test.parser;
 
 import com.fasterxml.jackson.core.JsonFactory;
 import com.petrovoleh.parser.Parser;
-import com.petrovoleh.service.StatsService;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import test.util.TestOrderFiles;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
- * Клас для тестування парсера JSON-файлів.
+ * Клас для тестування парсера JSON-файлів. Тестові файли створюються в тимчасовій директорії.
  */
 public class JsonParserTest {
 
     private static final JsonFactory jsonFactory = new JsonFactory();
-    private static final String emptyDirectory = "./test_jsons/empty_directory";
-    private static final String noDirectory = "./test_jsons/nodir";
-    private static final String invalidJsons = "./test_jsons/invalid_json";
-    private static final String jsonDirectory = "./test_jsons/valid_json";
-    private static final String bigFileDirectory = "./test_jsons/big_file";
-    private static final String manyFilesDirectory = "./test_jsons/many_files";
     private static final String nonExistentFile = "nonexistent_orders.json";
     private static final String attribute = "item";
 
+    @TempDir
+    Path tempDir;
+
     /**
      * Тест для перевірки парсингу валідного JSON-файлу.
      */
     @Test
-    void testParseOrders_ValidJson() {
-        Parser.parseOrdersOneThread(jsonFactory, jsonDirectory, attribute);
-        Map<String, Integer> stats = StatsService.getStatistics();
+    void testParseOrders_ValidJson() throws IOException {
+        Path jsonDirectory = orderFiles(3, 100);
+        Map<String, Long> stats = Parser.parseOrdersOneThread(jsonFactory, jsonDirectory.toString(), attribute).getStatistics();
         assertNotNull(stats);
         assertFalse(stats.isEmpty());
-        StatsService.clearStatistics();
     }
 
     /**
@@ -41,8 +41,7 @@ public class JsonParserTest {
      */
     @Test
     void testParseOrders_FileNotFound() {
-        Parser.parseOrdersOneThread(jsonFactory, nonExistentFile, attribute);
-        Map<String, Integer> stats = StatsService.getStatistics();
+        Map<String, Long> stats = Parser.parseOrdersOneThread(jsonFactory, nonExistentFile, attribute).getStatistics();
         assertNotNull(stats);
         assertTrue(stats.isEmpty());
     }
@@ -51,9 +50,9 @@ public class JsonParserTest {
      * Тест для перевірки поведінки при парсингу невалідного JSON-файлу.
      */
     @Test
-    void testParseOrders_InvalidJson() {
-        Parser.parseOrdersOneThread(jsonFactory, invalidJsons, attribute);
-        Map<String, Integer> stats = StatsService.getStatistics();
+    void testParseOrders_InvalidJson() throws IOException {
+        Files.writeString(tempDir.resolve("a.json"), "[{\"orderId\": 1, \"bad\": }");
+        Map<String, Long> stats = Parser.parseOrdersOneThread(jsonFactory, tempDir.toString(), attribute).getStatistics();
         assertNotNull(stats);
         assertTrue(stats.isEmpty());
     }
@@ -63,8 +62,7 @@ public class JsonParserTest {
      */
     @Test
     void testParseOrders_EmptyDirectory() {
-        Parser.parseOrdersOneThread(jsonFactory, emptyDirectory, attribute);
-        Map<String, Integer> stats = StatsService.getStatistics();
+        Map<String, Long> stats = Parser.parseOrdersOneThread(jsonFactory, tempDir.toString(), attribute).getStatistics();
         assertNotNull(stats);
         assertTrue(stats.isEmpty());
     }
@@ -74,11 +72,9 @@ public class JsonParserTest {
      */
     @Test
     void testParseOrders_DirectoryDoesNotExist() {
-        Parser.parseOrdersOneThread(jsonFactory, noDirectory, attribute);
-        Map<String, Integer> stats = StatsService.getStatistics();
+        Map<String, Long> stats = Parser.parseOrdersOneThread(jsonFactory, tempDir.resolve("nodir").toString(), attribute).getStatistics();
         assertNotNull(stats);
         assertTrue(stats.isEmpty());
-        StatsService.clearStatistics();
     }
 
 
@@ -86,22 +82,27 @@ public class JsonParserTest {
      * Тест для перевірки парсингу багатьох JSON-файлів.
      */
     @Test
-    void testParseOrders_ManyFiles() {
-        Parser.parseOrdersOneThread(jsonFactory, manyFilesDirectory, attribute);
-        Map<String, Integer> stats = StatsService.getStatistics();
+    void testParseOrders_ManyFiles() throws IOException {
+        Path manyFilesDirectory = orderFiles(20, 500);
+        Map<String, Long> stats = Parser.parseOrdersOneThread(jsonFactory, manyFilesDirectory.toString(), attribute).getStatistics();
         assertNotNull(stats);
         assertFalse(stats.isEmpty());
-        StatsService.clearStatistics();
     }
     /**
      * Тест для перевірки парсингу великого JSON-файлу.
      */
     @Test
-    void testParseOrders_BigFile() {
-        Parser.parseOrdersOneThread(jsonFactory, bigFileDirectory, attribute);
-        Map<String, Integer> stats = StatsService.getStatistics();
+    void testParseOrders_BigFile() throws IOException {
+        Path bigFileDirectory = orderFiles(1, 100_000);
+        Map<String, Long> stats = Parser.parseOrdersOneThread(jsonFactory, bigFileDirectory.toString(), attribute).getStatistics();
         assertNotNull(stats);
         assertFalse(stats.isEmpty());
-        StatsService.clearStatistics();
+    }
+
+    private Path orderFiles(int files, int ordersPerFile) throws IOException {
+        for (int i = 0; i < files; i++) {
+            TestOrderFiles.writeOrders(tempDir.resolve("orders_" + (i + 1) + ".json").toFile(), i * ordersPerFile, ordersPerFile);
+        }
+        return tempDir;
     }
 }
@@ -1,25 +1,155 @@
 package test.parser;
 
 import com.fasterxml.jackson.core.JsonFactory;
+import com.petrovoleh.model.Attribute;
+import com.petrovoleh.model.OrderBatch;
+import com.petrovoleh.parser.ExecutionMode;
 import com.petrovoleh.parser.Parser;
+import com.petrovoleh.parser.ParserOptions;
+import com.petrovoleh.service.StatsAccumulator;
+import com.petrovoleh.service.StatsService;
+import com.petrovoleh.service.SymbolTable;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import test.util.TestOrderFiles;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class MultiThreadTest {
 
-    private static final String DIRECTORY_PATH = "./test_jsons/many_files"; // Replace with actual directory path
     private static final String ATTRIBUTE = "amount"; // Replace with actual attribute
 
+    @TempDir
+    Path tempDir;
+
     @Test
-    public void testParsingSpeed() {
+    public void testParsingSpeed() throws IOException {
         JsonFactory jsonFactory = new JsonFactory();
+        for (int i = 0; i < 20; i++) {
+            TestOrderFiles.writeOrders(tempDir.resolve("orders_" + i + ".json").toFile(), i * 6000, 6000);
+        }
         int[] threadCounts = {1, 1, 2, 4, 8, 10}; // Test with different numbers of threads
 
         for (int threadCount : threadCounts) {
             long startTime = System.currentTimeMillis();
-            Parser.parseOrders(jsonFactory, DIRECTORY_PATH, ATTRIBUTE, threadCount);
+            Parser.parseOrders(jsonFactory, tempDir.toString(), ATTRIBUTE, threadCount);
             long endTime = System.currentTimeMillis();
             long duration = endTime - startTime;
             System.out.println("Time taken with " + threadCount + " thread(s): " + duration + " ms");
         }
     }
+
+    @Test
+    public void testExecutionModes_SameStatistics() throws IOException {
+        JsonFactory jsonFactory = new JsonFactory();
+        for (int i = 0; i < 20; i++) {
+            TestOrderFiles.writeOrders(tempDir.resolve("orders_" + i + ".json").toFile(), i * 500, 500);
+        }
+        ParserOptions pool = new ParserOptions(4);
+        ParserOptions virtual = new ParserOptions(4);
+        virtual.setExecutionMode(ExecutionMode.VIRTUAL);
+
+        ParserOptions pipeline = new ParserOptions(4);
+        pipeline.setExecutionMode(ExecutionMode.PIPELINE);
+        pipeline.setPipelineThreads(2, 3, 2);
+
+        StatsService expected = Parser.parseOrders(jsonFactory, tempDir.toString(), "all", pool);
+        for (ParserOptions options : new ParserOptions[]{virtual, pipeline}) {
+            StatsService actual = Parser.parseOrders(jsonFactory, tempDir.toString(), "all", options);
+            for (Attribute attribute : Attribute.values()) {
+                assertEquals(expected.getStatistics(attribute), actual.getStatistics(attribute));
+            }
+        }
+    }
+
+    @Test
+    public void testPipeline_InvalidFileSameAsPool() throws IOException {
+        JsonFactory jsonFactory = new JsonFactory();
+        for (int i = 0; i < 3; i++) {
+            // Більше ніж одна частина файлу конвеєра
+            TestOrderFiles.writeOrders(tempDir.resolve("orders_" + i + ".json").toFile(), i * 5000, 5000);
+        }
+        byte[] json = Files.readAllBytes(tempDir.resolve("orders_0.json"));
+        Files.write(tempDir.resolve("broken.json"), Arrays.copyOf(json, json.length / 2));
+        ParserOptions pipeline = new ParserOptions(2);
+        pipeline.setExecutionMode(ExecutionMode.PIPELINE);
+
+        // Замовлення, прочитані до помилки, враховуються так само, як у пулі потоків
+        StatsService expected = Parser.parseOrders(jsonFactory, tempDir.toString(), "all", new ParserOptions(2));
+        StatsService actual = Parser.parseOrders(jsonFactory, tempDir.toString(), "all", pipeline);
+        for (Attribute attribute : Attribute.values()) {
+            assertEquals(expected.getStatistics(attribute), actual.getStatistics(attribute));
+        }
+    }
+
+    @Test
+    public void testWorkerFailure_Reported() throws IOException {
+        JsonFactory jsonFactory = new JsonFactory();
+        for (int i = 0; i < 4; i++) {
+            TestOrderFiles.writeOrders(tempDir.resolve("orders_" + i + ".json").toFile(), i * 100, 100);
+        }
+        for (ExecutionMode mode : new ExecutionMode[]{ExecutionMode.POOL, ExecutionMode.VIRTUAL}) {
+            ParserOptions options = new ParserOptions(2);
+            options.setExecutionMode(mode);
+            // Непередбачений виняток у потоці не повинен мовчки відкидати статистику потоку
+            StatsService failing = new StatsService(Attribute.parseList("amount")) {
+                @Override
+                public StatsAccumulator newAccumulator() {
+                    return new StatsAccumulator(getAttributes()) {
+                        @Override
+                        public long getUniqueCount() {
+                            throw new IllegalStateException("Broken accumulator");
+                        }
+                    };
+                }
+            };
+            IllegalStateException e = assertThrows(IllegalStateException.class,
+                    () -> Parser.parseOrders(jsonFactory, tempDir.toString(), failing, options), mode.name());
+            assertEquals("Broken accumulator", e.getCause().getMessage(), mode.name());
+        }
+    }
+
+    @Test
+    public void testPipeline_StageFailureReported() throws IOException {
+        JsonFactory jsonFactory = new JsonFactory();
+        for (int i = 0; i < 3; i++) {
+            TestOrderFiles.writeOrders(tempDir.resolve("orders_" + i + ".json").toFile(), i * 5000, 5000);
+        }
+        // Виняток етапу парсингу (ознаки кінця пакетів не передаються звичайним шляхом)
+        StatsService failingParser = new StatsService(Attribute.parseList("client,amount")) {
+            @Override
+            public SymbolTable getSymbolTable(Attribute attribute) {
+                throw new IllegalStateException("Broken parser");
+            }
+        };
+        // Виняток етапу підрахунку (потоки парсингу чекають на місце в кільцевому буфері)
+        StatsService failingAggregator = new StatsService(Attribute.parseList("client,amount")) {
+            @Override
+            public StatsAccumulator newAccumulator() {
+                return new StatsAccumulator(getAttributes()) {
+                    @Override
+                    public void addBatch(OrderBatch batch) {
+                        throw new IllegalStateException("Broken aggregator");
+                    }
+                };
+            }
+        };
+        for (StatsService statsService : new StatsService[]{failingParser, failingAggregator}) {
+            ParserOptions options = new ParserOptions(2);
+            options.setExecutionMode(ExecutionMode.PIPELINE);
+            options.setPipelineThreads(1, 2, 1);
+            IllegalStateException e = assertTimeoutPreemptively(Duration.ofSeconds(30), () -> assertThrows(IllegalStateException.class,
+                    () -> Parser.parseOrders(jsonFactory, tempDir.toString(), statsService, options)));
+            assertTrue(e.getCause().getMessage().startsWith("Broken"));
+        }
+    }
 }
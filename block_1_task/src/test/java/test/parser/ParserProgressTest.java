@@ -0,0 +1,101 @@
+package test.parser;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.petrovoleh.parser.ExecutionMode;
+import com.petrovoleh.parser.Parser;
+import com.petrovoleh.parser.ParserOptions;
+import com.petrovoleh.parser.ParserProgress;
+import com.petrovoleh.service.StatsService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import test.util.TestOrderFiles;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Клас для тестування показників ходу парсингу.
+ */
+public class ParserProgressTest {
+
+    private static final JsonFactory jsonFactory = new JsonFactory();
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Тест для перевірки показників після парсингу в кожному режимі, включно з розбитим на діапазони і пошкодженим файлом.
+     */
+    @Test
+    void testProgress_AfterParsing() throws IOException {
+        for (int i = 0; i < 3; i++) {
+            TestOrderFiles.writeOrders(tempDir.resolve("orders_" + i + ".json").toFile(), i * 1000, 1000);
+        }
+        TestOrderFiles.writeOrders(tempDir.resolve("large.json").toFile(), 3000, 20_000);
+        Files.writeString(tempDir.resolve("broken.json"), "[{\"orderId\": 1, \"client\": ");
+        long totalBytes = 0;
+        for (Path file : Files.list(tempDir).toList()) {
+            totalBytes += Files.size(file);
+        }
+
+        for (ExecutionMode mode : ExecutionMode.values()) {
+            ParserOptions options = new ParserOptions(4);
+            options.setExecutionMode(mode);
+            options.setSplitThreshold(1024 * 1024);
+            StatsService statsService = Parser.parseOrders(jsonFactory, tempDir.toString(), "client,amount", options);
+
+            ParserProgress progress = options.getProgress();
+            assertEquals(5, progress.getFilesTotal(), mode.name());
+            assertEquals(5, progress.getFilesDone(), mode.name());
+            assertEquals(totalBytes, progress.getBytesTotal(), mode.name());
+            assertEquals(totalBytes, progress.getBytesDone(), mode.name());
+            assertEquals(23_000, progress.getOrders(), mode.name());
+            assertEquals(1, progress.getErrors(), mode.name());
+            // 20 клієнтів (звичайні і з "}, {" в імені) і 100 різних сум
+            assertEquals(120, progress.getUniqueKeys(), mode.name());
+            assertEquals(statsService.getUniqueCount(), progress.getUniqueKeys(), mode.name());
+            assertTrue(progress.getTaskLatencyHistogram().length > 0, mode.name());
+            assertTrue(progress.getTaskLatencyP50Millis() <= progress.getTaskLatencyMaxMillis(), mode.name());
+        }
+    }
+
+    /**
+     * Тест для перевірки, що повторний запуск додає файли до загальної кількості, а кількість різних значень
+     * береться лише з останнього запуску.
+     */
+    @Test
+    void testProgress_SecondRun() throws IOException {
+        TestOrderFiles.writeOrders(tempDir.resolve("orders.json").toFile(), 0, 1000);
+        ParserOptions options = new ParserOptions(2);
+        Parser.parseOrders(jsonFactory, tempDir.toString(), "client,amount", options);
+        StatsService statsService = Parser.parseOrders(jsonFactory, tempDir.toString(), "client", options);
+
+        ParserProgress progress = options.getProgress();
+        assertEquals(2, progress.getFilesTotal());
+        assertEquals(2, progress.getFilesDone());
+        assertEquals(2000, progress.getOrders());
+        assertEquals(statsService.getUniqueCount(), progress.getUniqueKeys());
+    }
+
+    /**
+     * Тест для перевірки, що показники доступні через JMX.
+     */
+    @Test
+    void testRegisterMBean_AttributesReadable() throws IOException, JMException {
+        TestOrderFiles.writeOrders(tempDir.resolve("orders.json").toFile(), 0, 100);
+        ParserOptions options = new ParserOptions(1);
+        options.getProgress().registerMBean();
+        Parser.parseOrders(jsonFactory, tempDir.toString(), "item", options);
+
+        ObjectName name = new ObjectName(ParserProgress.OBJECT_NAME);
+        assertEquals(1L, ManagementFactory.getPlatformMBeanServer().getAttribute(name, "FilesDone"));
+        assertEquals(100L, ManagementFactory.getPlatformMBeanServer().getAttribute(name, "Orders"));
+        ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+    }
+}
@@ -0,0 +1,122 @@
+package test.service;
+
+import com.petrovoleh.service.Histogram;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Клас для тестування гістограми сум замовлень.
+ */
+public class HistogramTest {
+
+    /**
+     * Тест для перевірки точних кількості, суми, мінімуму, максимуму і середнього та меж похибки перцентилів.
+     */
+    @Test
+    void testPercentile_WithinBucketError() {
+        Random random = new Random(42);
+        int[] values = new int[100_000];
+        Histogram histogram = new Histogram();
+        long sum = 0;
+        for (int i = 0; i < values.length; i++) {
+            // Логнормальний розподіл охоплює кілька порядків величини
+            values[i] = (int) Math.exp(random.nextGaussian() * 2 + 8);
+            histogram.add(values[i]);
+            sum += values[i];
+        }
+        Arrays.sort(values);
+
+        assertEquals(values.length, histogram.getCount());
+        assertEquals(sum, histogram.getSum());
+        assertEquals(values[0], histogram.getMin());
+        assertEquals(values[values.length - 1], histogram.getMax());
+        assertEquals((double) sum / values.length, histogram.mean(), 1e-9);
+        for (double percentile : new double[]{50, 90, 99}) {
+            long exact = values[(int) Math.ceil(percentile / 100 * values.length) - 1];
+            long estimate = histogram.percentile(percentile);
+            assertTrue(estimate <= exact && exact - estimate <= Math.max(0, exact / 64),
+                    "p" + percentile + ": exact " + exact + ", estimate " + estimate);
+        }
+    }
+
+    /**
+     * Тест для перевірки, що малі значення рахуються точно, а кошики покривають значення без пропусків.
+     */
+    @Test
+    void testForEachBucket_SmallValuesExact() {
+        Histogram histogram = new Histogram();
+        for (int value = 0; value < 128; value++) {
+            histogram.add(value);
+        }
+        histogram.add(Integer.MAX_VALUE);
+        int[] buckets = {0};
+        histogram.forEachBucket((from, to, count) -> {
+            if (from < 128) {
+                assertEquals(from, to);
+            } else {
+                assertEquals(Integer.MAX_VALUE, to);
+            }
+            assertEquals(1, count);
+            buckets[0]++;
+        });
+        assertEquals(129, buckets[0]);
+        assertEquals(129, histogram.size());
+    }
+
+    /**
+     * Тест для перевірки, що об'єднання гістограм частин дорівнює гістограмі всіх значень.
+     */
+    @Test
+    void testMerge_EqualsCombined() {
+        Histogram all = new Histogram();
+        Histogram merged = new Histogram();
+        Random random = new Random(7);
+        for (int part = 0; part < 4; part++) {
+            Histogram histogram = new Histogram();
+            for (int i = 0; i < 10_000; i++) {
+                int value = random.nextInt(1_000_000);
+                histogram.add(value);
+                all.add(value);
+            }
+            merged.merge(histogram);
+        }
+        assertSameDistribution(all, merged);
+    }
+
+    /**
+     * Тест для перевірки запису і читання гістограми у двійковому вигляді.
+     */
+    @Test
+    void testWriteRead_RoundTrip() throws IOException {
+        Histogram histogram = new Histogram();
+        for (int i = 1; i <= 10_000; i++) {
+            histogram.add(i * 37);
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        histogram.write(new DataOutputStream(bytes));
+
+        Histogram copy = new Histogram();
+        copy.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        assertSameDistribution(histogram, copy);
+    }
+
+    private static void assertSameDistribution(Histogram expected, Histogram actual) {
+        assertEquals(expected.getCount(), actual.getCount());
+        assertEquals(expected.getSum(), actual.getSum());
+        assertEquals(expected.getMin(), actual.getMin());
+        assertEquals(expected.getMax(), actual.getMax());
+        assertEquals(expected.size(), actual.size());
+        for (double percentile : new double[]{50, 90, 99}) {
+            assertEquals(expected.percentile(percentile), actual.percentile(percentile));
+        }
+    }
+}
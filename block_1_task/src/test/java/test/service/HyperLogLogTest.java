@@ -0,0 +1,118 @@
+package test.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.petrovoleh.model.Attribute;
+import com.petrovoleh.parser.Parser;
+import com.petrovoleh.parser.ParserOptions;
+import com.petrovoleh.service.HyperLogLog;
+import com.petrovoleh.service.StatsOptions;
+import com.petrovoleh.service.StatsService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Клас для тестування наближеного лічильника кількості різних значень.
+ */
+public class HyperLogLogTest {
+
+    private static final int precision = 12;
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Тест для перевірки, що оцінка для цілих і текстових значень лежить у межах трьох стандартних похибок.
+     */
+    @Test
+    void testEstimate_WithinThreeStandardErrors() {
+        for (int distinct : new int[]{10, 1_000, 100_000, 1_000_000}) {
+            HyperLogLog ints = new HyperLogLog(precision);
+            HyperLogLog texts = new HyperLogLog(precision);
+            for (int repeat = 0; repeat < 2; repeat++) {
+                for (int i = 0; i < distinct; i++) {
+                    ints.add(i);
+                    texts.add("Client " + i);
+                }
+            }
+            assertWithinBounds(distinct, ints);
+            assertWithinBounds(distinct, texts);
+        }
+    }
+
+    /**
+     * Тест для перевірки, що об'єднання лічильників частин дорівнює лічильнику всіх значень.
+     */
+    @Test
+    void testMerge_EqualsUnion() {
+        HyperLogLog all = new HyperLogLog(precision);
+        HyperLogLog merged = new HyperLogLog(precision);
+        for (int part = 0; part < 4; part++) {
+            HyperLogLog sketch = new HyperLogLog(precision);
+            // Частини перетинаються наполовину
+            for (int i = part * 50_000; i < part * 50_000 + 100_000; i++) {
+                sketch.add(i);
+                all.add(i);
+            }
+            merged.merge(sketch);
+        }
+        assertEquals(all.estimate(), merged.estimate());
+        assertWithinBounds(250_000, merged);
+    }
+
+    /**
+     * Тест для перевірки запису і читання лічильника у двійковому вигляді.
+     */
+    @Test
+    void testWriteRead_RoundTrip() throws IOException {
+        HyperLogLog sketch = new HyperLogLog(precision);
+        for (int i = 0; i < 10_000; i++) {
+            sketch.add("Item " + i);
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        sketch.write(new DataOutputStream(bytes));
+        assertEquals(1 + (1 << precision), bytes.size());
+
+        HyperLogLog copy = new HyperLogLog(precision);
+        copy.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        assertEquals(sketch.estimate(), copy.estimate());
+    }
+
+    /**
+     * Тест для перевірки, що замовлення без клієнта рахується як окреме значення і не зупиняє підрахунок інших атрибутів.
+     */
+    @Test
+    void testParseOrders_MissingClient() throws IOException {
+        Files.writeString(tempDir.resolve("orders.json"), """
+                [{"orderId": 1, "client": "Alice", "amount": 10},
+                 {"orderId": 2, "amount": 20},
+                 {"orderId": 3, "client": "Bob", "amount": 30}]
+                """);
+        StatsOptions options = new StatsOptions();
+        options.setCardinalityPrecision(precision);
+        StatsService statsService = new StatsService(EnumSet.of(Attribute.CLIENT, Attribute.AMOUNT), options);
+        Parser.parseOrders(new JsonFactory(), tempDir.toString(), statsService, new ParserOptions(1));
+
+        assertEquals(3, statsService.getCardinality(Attribute.CLIENT).estimate());
+        assertEquals(3, statsService.getCardinality(Attribute.AMOUNT).estimate());
+        HyperLogLog sketch = new HyperLogLog(precision);
+        sketch.add(null);
+        sketch.add(null, 5);
+        assertEquals(1, sketch.estimate());
+    }
+
+    private static void assertWithinBounds(long expected, HyperLogLog sketch) {
+        double error = Math.abs(sketch.estimate() - expected) / (double) expected;
+        assertTrue(error <= 3 * sketch.standardError(), "distinct: " + expected + ", estimate: " + sketch.estimate());
+    }
+}
@@ -0,0 +1,55 @@
+package test.service;
+
+import com.petrovoleh.service.IntCounter;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Клас для тестування лічильника цілочисельних значень.
+ */
+public class IntCounterTest {
+
+    /**
+     * Тест для перевірки, що лічильник рахує так само, як HashMap, включно з від'ємними значеннями, нулем та розширенням таблиці.
+     */
+    @Test
+    void testAdd_MatchesHashMap() {
+        IntCounter counter = new IntCounter();
+        Map<Integer, Long> expected = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 200000; i++) {
+            int key = random.nextInt(50000) - 25000;
+            counter.add(key);
+            expected.merge(key, 1L, Long::sum);
+        }
+        assertEquals(expected.size(), counter.size());
+        for (Map.Entry<Integer, Long> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), counter.get(entry.getKey()));
+        }
+        assertEquals(0, counter.get(1_000_000));
+    }
+
+    /**
+     * Тест для перевірки об'єднання двох лічильників та виведення ключів у текстовому вигляді.
+     */
+    @Test
+    void testMerge() {
+        IntCounter first = new IntCounter();
+        IntCounter second = new IntCounter();
+        first.add(1);
+        first.add(2);
+        second.add(2);
+        second.add(3, 5);
+
+        first.merge(second);
+
+        Map<String, Long> result = new HashMap<>();
+        first.forEach(result::put);
+        assertEquals(Map.of("1", 1L, "2", 2L, "3", 5L), result);
+    }
+}
@@ -0,0 +1,126 @@
+package test.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.petrovoleh.model.Attribute;
+import com.petrovoleh.parser.FileShard;
+import com.petrovoleh.parser.Parser;
+import com.petrovoleh.parser.ParserOptions;
+import com.petrovoleh.service.PartialStats;
+import com.petrovoleh.service.StatsOptions;
+import com.petrovoleh.service.StatsService;
+import com.petrovoleh.service.TimeBucket;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import test.util.TestOrderFiles;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Клас для тестування розподіленої обробки: частин файлів директорії та злиття файлів часткової статистики.
+ */
+public class PartialStatsTest {
+
+    private static final JsonFactory jsonFactory = new JsonFactory();
+    private static final int FILE_COUNT = 7;
+
+    @TempDir
+    Path tempDir;
+
+    private Path dataDir;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        dataDir = Files.createDirectory(tempDir.resolve("data"));
+        for (int i = 0; i < FILE_COUNT; i++) {
+            TestOrderFiles.writeOrders(dataDir.resolve("orders_" + i + ".json").toFile(), i * 500, 500);
+        }
+    }
+
+    /**
+     * Тест для перевірки, що частини за номером і за залишком покривають кожен файл рівно один раз,
+     * а злиття їх часткової статистики збігається зі статистикою всієї директорії.
+     */
+    @Test
+    void testMerge_ShardsEqualFullRun() throws IOException {
+        StatsService expected = Parser.parseOrders(jsonFactory, dataDir.toString(), "all", new ParserOptions(2));
+        for (boolean modulo : new boolean[]{false, true}) {
+            Path partialDir = Files.createDirectories(tempDir.resolve(modulo ? "modulo" : "index"));
+            Set<File> covered = new HashSet<>();
+            for (int index = 0; index < 3; index++) {
+                ParserOptions options = new ParserOptions(2);
+                options.setShard(modulo ? FileShard.byModulo(index, 3) : FileShard.byIndex(index, 3));
+                for (File file : Parser.listFiles(dataDir.toString(), options)) {
+                    assertTrue(covered.add(file), "File in two shards: " + file);
+                }
+                writePartial(partialDir.resolve("part_" + index + PartialStats.FILE_SUFFIX), new StatsOptions(), options);
+            }
+            assertEquals(FILE_COUNT, covered.size());
+
+            StatsService merged = PartialStats.merge(PartialStats.resolve(List.of(partialDir)), new StatsOptions());
+            for (Attribute attribute : Attribute.values()) {
+                assertEquals(expected.getStatistics(attribute), merged.getStatistics(attribute), attribute.getName());
+            }
+        }
+    }
+
+    /**
+     * Тест для перевірки, що злиття відхиляє файл замовлень, врахований у двох файлах часткової статистики.
+     */
+    @Test
+    void testMerge_DuplicateFileRejected() throws IOException {
+        ParserOptions first = new ParserOptions(2);
+        first.setShard(FileShard.ofFiles(List.of("orders_0.json", "orders_1.json")));
+        ParserOptions second = new ParserOptions(2);
+        second.setShard(FileShard.ofFiles(List.of("orders_1.json")));
+        List<Path> partials = List.of(
+                writePartial(tempDir.resolve("first.partial"), new StatsOptions(), first),
+                writePartial(tempDir.resolve("second.partial"), new StatsOptions(), second));
+
+        IOException e = assertThrows(IOException.class, () -> PartialStats.merge(partials, new StatsOptions()));
+        assertTrue(e.getMessage().contains("orders_1.json"));
+    }
+
+    /**
+     * Тест для перевірки, що налаштування статистики беруться з файлів, а файли з різними налаштуваннями не зливаються.
+     */
+    @Test
+    void testMerge_OptionsFromPartials() throws IOException {
+        StatsOptions daily = new StatsOptions();
+        daily.setDateBucket(TimeBucket.DAY);
+        List<Path> partials = new ArrayList<>();
+        for (int index = 0; index < 2; index++) {
+            ParserOptions options = new ParserOptions(2);
+            options.setShard(FileShard.byIndex(index, 2));
+            partials.add(writePartial(tempDir.resolve("part_" + index + PartialStats.FILE_SUFFIX), daily, options));
+        }
+        StatsService expected = new StatsService(Attribute.parseList("all"), daily);
+        Parser.parseOrders(jsonFactory, dataDir.toString(), expected, new ParserOptions(2));
+
+        StatsService merged = PartialStats.merge(partials, new StatsOptions());
+        assertEquals(TimeBucket.DAY, merged.getOptions().getDateBucket());
+        assertEquals(expected.getStatistics(Attribute.ORDER_DATE), merged.getStatistics(Attribute.ORDER_DATE));
+
+        ParserOptions second = new ParserOptions(2);
+        second.setShard(FileShard.byIndex(1, 2));
+        partials.set(1, writePartial(tempDir.resolve("exact.partial"), new StatsOptions(), second));
+        IOException e = assertThrows(IOException.class, () -> PartialStats.merge(partials, new StatsOptions()));
+        assertTrue(e.getMessage().contains("different"));
+    }
+
+    private Path writePartial(Path path, StatsOptions statsOptions, ParserOptions options) throws IOException {
+        StatsService statsService = new StatsService(Attribute.parseList("all"), statsOptions);
+        Parser.parseOrders(jsonFactory, dataDir.toString(), statsService, options);
+        PartialStats.write(path, statsService, Parser.listFiles(dataDir.toString(), options));
+        return path;
+    }
+}
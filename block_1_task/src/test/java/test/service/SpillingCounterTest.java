@@ -0,0 +1,174 @@
+package test.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.petrovoleh.model.Attribute;
+import com.petrovoleh.parser.Parser;
+import com.petrovoleh.parser.ParserOptions;
+import com.petrovoleh.service.IntCounter;
+import com.petrovoleh.service.IntSpillingCounter;
+import com.petrovoleh.service.SpillingCounter;
+import com.petrovoleh.service.StatsOptions;
+import com.petrovoleh.service.StatsService;
+import com.petrovoleh.service.TextSpillingCounter;
+import com.petrovoleh.service.ValueCounter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import test.util.TestOrderFiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Клас для тестування лічильників з вивантаженням на диск.
+ */
+public class SpillingCounterTest {
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Тест для перевірки, що при кількості серій, більшій за ширину злиття, значення збігаються зі звичайним лічильником
+     * і виводяться в порядку ключів.
+     */
+    @Test
+    void testForEach_ManyRunsMatchesInMemoryCounter() {
+        IntCounter expected = new IntCounter();
+        IntSpillingCounter counter = new IntSpillingCounter(tempDir, 100);
+        Random random = new Random(42);
+        for (int i = 0; i < 50_000; i++) {
+            int value = random.nextInt(20_000) - 10_000;
+            expected.add(value);
+            counter.add(value);
+        }
+
+        assertTrue(runFiles() > SpillingCounter.MERGE_WIDTH);
+        assertEquals(toMap(expected), toMap(counter));
+        assertEquals(expected.size(), counter.size());
+        assertTrue(counter.getEntryCount() >= counter.size());
+        List<Integer> keys = new ArrayList<>();
+        counter.forEach((value, count) -> keys.add(Integer.parseInt(value)));
+        for (int i = 1; i < keys.size(); i++) {
+            assertTrue(keys.get(i - 1) < keys.get(i));
+        }
+    }
+
+    /**
+     * Тест для перевірки, що об'єднання не змінює другий лічильник, тому його можна об'єднати повторно.
+     */
+    @Test
+    void testMerge_LeavesOtherCounterUnchanged() {
+        TextSpillingCounter part = new TextSpillingCounter(tempDir, 10);
+        for (int i = 0; i < 1000; i++) {
+            part.add("Item " + i % 300);
+        }
+        Map<String, Long> partStatistics = toMap(part);
+
+        TextSpillingCounter merged = new TextSpillingCounter(tempDir, 10);
+        merged.add("Item 0");
+        merged.merge(part);
+        merged.merge(part);
+
+        assertEquals(partStatistics, toMap(part));
+        assertEquals(300, merged.size());
+        assertEquals(2 * partStatistics.get("Item 0") + 1, toMap(merged).get("Item 0"));
+        assertEquals(2 * partStatistics.get("Item 299"), toMap(merged).get("Item 299"));
+    }
+
+    /**
+     * Тест для перевірки, що звільнення лічильника видаляє лише серії, яких не містить інший лічильник,
+     * а порожнеча перевіряється без злиття серій.
+     */
+    @Test
+    void testRelease_DeletesUnsharedRuns() {
+        IntSpillingCounter part = new IntSpillingCounter(tempDir, 10);
+        for (int i = 0; i < 100; i++) {
+            part.add(i);
+        }
+        IntSpillingCounter merged = new IntSpillingCounter(tempDir, 10);
+        assertTrue(merged.isEmpty());
+        merged.merge(part);
+        assertFalse(merged.isEmpty());
+        long files = runFiles();
+
+        part.release();
+        assertTrue(part.isEmpty());
+        assertEquals(files, runFiles());
+        assertEquals(100, merged.size());
+
+        merged.release();
+        assertTrue(merged.isEmpty());
+        assertEquals(0, runFiles());
+    }
+
+    /**
+     * Тест для перевірки, що записаний лічильник читається звичайним лічильником.
+     */
+    @Test
+    void testWrite_ReadableByInMemoryCounter() throws IOException {
+        IntSpillingCounter counter = new IntSpillingCounter(tempDir, 16);
+        for (int i = 0; i < 500; i++) {
+            counter.add(i % 70, 2);
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        counter.write(new DataOutputStream(bytes));
+
+        IntCounter restored = new IntCounter();
+        restored.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        assertEquals(toMap(counter), toMap(restored));
+    }
+
+    /**
+     * Тест для перевірки, що статистика всіх атрибутів з малим бюджетом пам'яті збігається зі звичайною,
+     * а серії записуються у вказану директорію.
+     */
+    @Test
+    void testParseOrders_SmallBudgetMatchesInMemory() throws IOException {
+        Path dataDir = Files.createDirectory(tempDir.resolve("data"));
+        Path spillDir = tempDir.resolve("spill");
+        TestOrderFiles.writeOrders(dataDir.resolve("orders_1.json").toFile(), 0, 3000);
+        TestOrderFiles.writeOrders(dataDir.resolve("orders_2.json").toFile(), 3000, 3000);
+        JsonFactory jsonFactory = new JsonFactory();
+        StatsService expected = Parser.parseOrders(jsonFactory, dataDir.toString(), "all", new ParserOptions(2));
+
+        StatsOptions statsOptions = new StatsOptions();
+        statsOptions.setSpillBudget(4096);
+        statsOptions.setSpillDirectory(spillDir);
+        StatsService actual = new StatsService(Attribute.parseList("all"), statsOptions);
+        Parser.parseOrders(jsonFactory, dataDir.toString(), actual, new ParserOptions(2));
+
+        for (Attribute attribute : Attribute.values()) {
+            assertEquals(expected.getStatistics(attribute), actual.getStatistics(attribute), attribute.getName());
+            assertEquals(expected.size(attribute), actual.size(attribute));
+        }
+        try (Stream<Path> files = Files.list(spillDir)) {
+            assertTrue(files.findAny().isPresent());
+        }
+    }
+
+    private long runFiles() {
+        try (Stream<Path> files = Files.list(tempDir)) {
+            return files.count();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static Map<String, Long> toMap(ValueCounter counter) {
+        Map<String, Long> statistics = new HashMap<>();
+        counter.forEach(statistics::put);
+        return statistics;
+    }
+}
@@ -0,0 +1,130 @@
+package test.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.petrovoleh.model.Attribute;
+import com.petrovoleh.parser.Parser;
+import com.petrovoleh.parser.ParserOptions;
+import com.petrovoleh.service.StatsCache;
+import com.petrovoleh.service.StatsOptions;
+import com.petrovoleh.service.StatsService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import test.util.TestOrderFiles;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumSet;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Клас для тестування дискового кешу часткової статистики файлів.
+ */
+public class StatsCacheTest {
+
+    private static final JsonFactory jsonFactory = new JsonFactory();
+    private static final int numberOfFiles = 10;
+    private static final int ordersPerFile = 1000;
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Тест для перевірки, що повторний запуск завантажує статистику з кешу і дає той самий результат,
+     * а змінений файл парситься заново.
+     */
+    @Test
+    void testParseOrders_ReusesCacheForUnchangedFiles() throws IOException {
+        Path ordersDir = Files.createDirectory(tempDir.resolve("orders"));
+        for (int i = 0; i < numberOfFiles; i++) {
+            TestOrderFiles.writeOrders(ordersDir.resolve("orders_" + i + ".json").toFile(), i * ordersPerFile, ordersPerFile);
+        }
+        Map<String, Long> expected = Parser.parseOrders(jsonFactory, ordersDir.toString(), "client,item", new ParserOptions(4))
+                .getStatistics(Attribute.ITEM);
+
+        StatsCache firstCache = newCache();
+        Map<String, Long> first = parseWithCache(ordersDir, "client,item", firstCache).getStatistics(Attribute.ITEM);
+        assertEquals(0, firstCache.getHits());
+        assertEquals(expected, first);
+
+        StatsCache secondCache = newCache();
+        Map<String, Long> second = parseWithCache(ordersDir, "client,item", secondCache).getStatistics(Attribute.ITEM);
+        assertEquals(2 * numberOfFiles, secondCache.getHits());
+        assertEquals(0, secondCache.getMisses());
+        assertEquals(expected, second);
+
+        // Змінений файл парситься заново, решта береться з кешу
+        File changed = ordersDir.resolve("orders_0.json").toFile();
+        TestOrderFiles.writeOrders(changed, 0, ordersPerFile / 2);
+        changed.setLastModified(changed.lastModified() + 2000);
+        StatsCache thirdCache = newCache();
+        StatsService third = parseWithCache(ordersDir, "item", thirdCache);
+        assertEquals(numberOfFiles - 1, thirdCache.getHits());
+        assertEquals(1, thirdCache.getMisses());
+        long total = third.getStatistics(Attribute.ITEM).values().stream().mapToLong(Long::longValue).sum();
+        assertEquals(2L * ((numberOfFiles - 1) * ordersPerFile + ordersPerFile / 2), total);
+    }
+
+    /**
+     * Тест для перевірки, що розмір кешу не перевищує максимальний після запуску.
+     */
+    @Test
+    void testEvict_KeepsCacheWithinLimit() throws IOException {
+        Path ordersDir = Files.createDirectory(tempDir.resolve("orders"));
+        for (int i = 0; i < numberOfFiles; i++) {
+            TestOrderFiles.writeOrders(ordersDir.resolve("orders_" + i + ".json").toFile(), i * ordersPerFile, ordersPerFile);
+        }
+        long maxSize = 64 * 1024;
+        StatsCache cache = new StatsCache(tempDir.resolve("cache"), maxSize);
+        parseWithCache(ordersDir, "orderId,item", cache);
+
+        long cacheSize = 0;
+        try (var entries = Files.list(tempDir.resolve("cache"))) {
+            for (Path entry : (Iterable<Path>) entries::iterator) {
+                cacheSize += Files.size(entry);
+            }
+        }
+        assertTrue(cacheSize > 0);
+        assertTrue(cacheSize <= maxSize, "cache size: " + cacheSize);
+    }
+
+    /**
+     * Тест для перевірки, що замовлення без клієнта (відсутнє значення) зберігається в кеші і завантажується з нього,
+     * у тому числі з вивантаженням на диск.
+     */
+    @Test
+    void testParseOrders_MissingClientRoundTrip() throws IOException {
+        Path ordersDir = Files.createDirectory(tempDir.resolve("orders"));
+        Files.writeString(ordersDir.resolve("orders.json"), "[ {\"orderId\": 1, \"items\": [\"Item 1\"]},"
+                + " {\"orderId\": 2, \"client\": \"John\", \"items\": [\"Item 1\"]},"
+                + " {\"orderId\": 3, \"client\": \"Jane\", \"items\": []} ]");
+
+        StatsService first = parseWithCache(ordersDir, "client", newCache());
+        StatsCache cache = newCache();
+        StatsService second = parseWithCache(ordersDir, "client", cache);
+        assertEquals(1, cache.getHits());
+        assertEquals(first.getStatistics(Attribute.CLIENT), second.getStatistics(Attribute.CLIENT));
+        assertEquals(1L, second.getStatistics(Attribute.CLIENT).get(null));
+        assertEquals(3, second.size(Attribute.CLIENT));
+
+        StatsOptions spill = new StatsOptions();
+        spill.setSpillBudget(1);
+        spill.setSpillDirectory(tempDir.resolve("spill"));
+        StatsService spilled = new StatsService(EnumSet.of(Attribute.CLIENT), spill);
+        Parser.parseOrders(jsonFactory, ordersDir.toString(), spilled, new ParserOptions(1));
+        assertEquals(first.getStatistics(Attribute.CLIENT), spilled.getStatistics(Attribute.CLIENT));
+    }
+
+    private StatsCache newCache() throws IOException {
+        return new StatsCache(tempDir.resolve("cache"), StatsCache.DEFAULT_MAX_SIZE);
+    }
+
+    private static StatsService parseWithCache(Path directory, String attributes, StatsCache cache) {
+        ParserOptions options = new ParserOptions(4);
+        options.setCache(cache);
+        return Parser.parseOrders(jsonFactory, directory.toString(), attributes, options);
+    }
+}
@@ -0,0 +1,128 @@
+package test.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.petrovoleh.model.Attribute;
+import com.petrovoleh.model.OrderRecord;
+import com.petrovoleh.parser.Parser;
+import com.petrovoleh.parser.ParserOptions;
+import com.petrovoleh.service.StatsAccumulator;
+import com.petrovoleh.service.StatsService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import test.util.TestOrderFiles;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Клас для тестування сервісу статистики при паралельній обробці.
+ */
+public class StatsServiceTest {
+
+    private static final JsonFactory jsonFactory = new JsonFactory();
+    private static final int[] threadCounts = {1, 2, 4, 8, 16, 32};
+    private static final int numberOfFiles = 40;
+    private static final int ordersPerFile = 1000;
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Тест для перевірки точних значень статистики при парсингу директорії різною кількістю потоків.
+     */
+    @Test
+    void testParseOrders_ExactCountsForAnyThreadCount() throws IOException {
+        for (int i = 0; i < numberOfFiles; i++) {
+            TestOrderFiles.writeOrders(tempDir.resolve("orders_" + i + ".json").toFile(), i * ordersPerFile, ordersPerFile);
+        }
+        int totalOrders = numberOfFiles * ordersPerFile;
+
+        for (int threadCount : threadCounts) {
+            ParserOptions options = new ParserOptions(threadCount);
+            Map<String, Long> amounts = Parser.parseOrders(jsonFactory, tempDir.toString(), "amount", options).getStatistics();
+            assertEquals(100, amounts.size(), "threads: " + threadCount);
+            for (long count : amounts.values()) {
+                assertEquals(totalOrders / 100, count, "threads: " + threadCount);
+            }
+
+            Map<String, Long> items = Parser.parseOrders(jsonFactory, tempDir.toString(), "item", options).getStatistics();
+            assertEquals(1000, items.size(), "threads: " + threadCount);
+            for (long count : items.values()) {
+                assertEquals(2L * totalOrders / 1000, count, "threads: " + threadCount);
+            }
+        }
+    }
+
+    /**
+     * Тест для перевірки, що одночасне об'єднання накопичувачів з багатьох потоків не втрачає значень.
+     */
+    @Test
+    void testMerge_ConcurrentAccumulators() throws InterruptedException {
+        for (int threadCount : threadCounts) {
+            StatsService statsService = new StatsService("client");
+            List<Thread> threads = new ArrayList<>();
+            for (int t = 0; t < threadCount; t++) {
+                Thread thread = new Thread(() -> {
+                    StatsAccumulator accumulator = statsService.newAccumulator();
+                    OrderRecord record = new OrderRecord();
+                    for (int i = 0; i < 10000; i++) {
+                        record.setClient("Client " + i % 10);
+                        accumulator.addRecord(record);
+                    }
+                    statsService.merge(accumulator);
+                });
+                threads.add(thread);
+                thread.start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            Map<String, Long> stats = statsService.getStatistics();
+            assertEquals(10, stats.size());
+            for (long count : stats.values()) {
+                assertEquals(1000L * threadCount, count, "threads: " + threadCount);
+            }
+        }
+    }
+
+    /**
+     * Тест для перевірки, що статистика за всіма атрибутами, обчислена за один прохід, збігається з окремими запусками.
+     */
+    @Test
+    void testParseOrders_AllAttributesInOnePass() throws IOException {
+        for (int i = 0; i < 4; i++) {
+            TestOrderFiles.writeOrders(tempDir.resolve("orders_" + i + ".json").toFile(), i * ordersPerFile, ordersPerFile);
+        }
+        ParserOptions options = new ParserOptions(4);
+        StatsService all = Parser.parseOrders(jsonFactory, tempDir.toString(), "all", options);
+        assertEquals(EnumSet.allOf(Attribute.class), all.getAttributes());
+
+        for (Attribute attribute : Attribute.values()) {
+            StatsService single = Parser.parseOrders(jsonFactory, tempDir.toString(), attribute.getName(), options);
+            assertEquals(single.getStatistics(), all.getStatistics(attribute), attribute.getName());
+        }
+    }
+
+    /**
+     * Тест для перевірки, що статистика різних запусків не змішується.
+     */
+    @Test
+    void testStatsService_InstancesAreIndependent() {
+        StatsService first = new StatsService("client");
+        StatsService second = new StatsService("client");
+        StatsAccumulator accumulator = first.newAccumulator();
+        OrderRecord record = new OrderRecord();
+        record.setClient("John");
+        accumulator.addRecord(record);
+        first.merge(accumulator);
+
+        assertEquals(1L, first.getStatistics().get("John"));
+        assertTrue(second.getStatistics().isEmpty());
+    }
+}
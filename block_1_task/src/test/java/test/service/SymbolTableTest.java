@@ -0,0 +1,143 @@
+package test.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.petrovoleh.model.Attribute;
+import com.petrovoleh.parser.FileRange;
+import com.petrovoleh.parser.InputMode;
+import com.petrovoleh.parser.Parser;
+import com.petrovoleh.service.StatsAccumulator;
+import com.petrovoleh.service.StatsOptions;
+import com.petrovoleh.service.StatsService;
+import com.petrovoleh.service.SymbolTable;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import test.util.TestOrderFiles;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Клас для тестування таблиці символів.
+ */
+public class SymbolTableTest {
+
+    private static final JsonFactory jsonFactory = new JsonFactory();
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Тест для перевірки, що однакові символи дають той самий екземпляр рядка і номер, а різні - різні номери.
+     */
+    @Test
+    void testIntern_SameSymbolForSameChars() {
+        SymbolTable table = new SymbolTable();
+        char[] buffer = "[Laptop][Phone][Laptop]".toCharArray();
+
+        SymbolTable.Symbol first = table.intern(buffer, 1, 6);
+        SymbolTable.Symbol second = table.intern(buffer, 9, 5);
+        SymbolTable.Symbol third = table.intern(buffer, 16, 6);
+
+        assertEquals("Laptop", first.value());
+        assertEquals("Phone", second.value());
+        assertSame(first, third);
+        assertNotEquals(first.id(), second.id());
+        assertSame(first.value(), table.valueOf(first.id()));
+        assertEquals(2, table.size());
+    }
+
+    /**
+     * Тест для перевірки, що заповнена таблиця не додає нових значень, але знаходить наявні.
+     */
+    @Test
+    void testIntern_FullTable() {
+        SymbolTable table = new SymbolTable(2);
+        assertNotNull(table.intern("a".toCharArray(), 0, 1));
+        assertNotNull(table.intern("b".toCharArray(), 0, 1));
+
+        assertNull(table.intern("c".toCharArray(), 0, 1));
+        assertNull(table.intern("d".toCharArray(), 0, 1));
+        assertEquals("a", table.intern("a".toCharArray(), 0, 1).value());
+        assertEquals(2, table.size());
+    }
+
+    /**
+     * Тест для перевірки, що потоки, які одночасно додають ті самі значення, отримують однакові символи.
+     */
+    @Test
+    void testIntern_Concurrent() throws InterruptedException, ExecutionException {
+        SymbolTable table = new SymbolTable();
+        int threads = 4;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Callable<SymbolTable.Symbol[]>> tasks = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            tasks.add(() -> {
+                SymbolTable.Symbol[] symbols = new SymbolTable.Symbol[5000];
+                for (int i = 0; i < symbols.length; i++) {
+                    char[] chars = ("value_" + i).toCharArray();
+                    symbols[i] = table.intern(chars, 0, chars.length);
+                }
+                return symbols;
+            });
+        }
+        List<Future<SymbolTable.Symbol[]>> results = executor.invokeAll(tasks);
+        executor.shutdown();
+
+        SymbolTable.Symbol[] expected = results.get(0).get();
+        for (Future<SymbolTable.Symbol[]> result : results) {
+            SymbolTable.Symbol[] symbols = result.get();
+            for (int i = 0; i < symbols.length; i++) {
+                assertSame(expected[i], symbols[i]);
+                assertEquals(expected[i].value(), table.valueOf(symbols[i].id()));
+            }
+        }
+    }
+
+    /**
+     * Тест для перевірки, що статистика з номерами символів збігається зі статистикою за рядками,
+     * у тому числі коли значення не вміщуються в таблиці.
+     */
+    @Test
+    void testAccumulator_SameAsWithoutSymbols() throws IOException {
+        File file = TestOrderFiles.writeOrders(tempDir.resolve("orders.json").toFile(), 0, 5000);
+        Set<Attribute> attributes = EnumSet.of(Attribute.CLIENT, Attribute.ITEM);
+        StatsOptions options = new StatsOptions();
+
+        StatsService expected = new StatsService(attributes, options);
+        StatsAccumulator plain = new StatsAccumulator(attributes, options, null, null);
+        Parser.parseRange(jsonFactory, FileRange.wholeFile(file), plain, InputMode.STREAM);
+        expected.merge(plain);
+
+        for (int capacity : new int[]{3, SymbolTable.DEFAULT_CAPACITY}) {
+            StatsService actual = new StatsService(attributes, options);
+            StatsAccumulator accumulator = new StatsAccumulator(attributes, options, new SymbolTable(capacity), new SymbolTable(capacity));
+            Parser.parseRange(jsonFactory, FileRange.wholeFile(file), accumulator, InputMode.STREAM);
+            assertEquals(expected.getUniqueCount(), accumulator.getUniqueCount());
+            // Кількість різних значень не переносить кількості в лічильники, а накопичувач продовжує рахувати після перенесення
+            Parser.parseRange(jsonFactory, FileRange.wholeFile(file), accumulator, InputMode.STREAM);
+            assertEquals(expected.getUniqueCount(), accumulator.getUniqueCount());
+            actual.merge(accumulator);
+            assertEquals(expected.getUniqueCount(), accumulator.getUniqueCount());
+            for (Attribute attribute : attributes) {
+                expected.getStatistics(attribute).forEach((value, count) ->
+                        assertEquals(count * 2, actual.getStatistics(attribute).get(value), value));
+                assertEquals(expected.size(attribute), actual.size(attribute));
+            }
+            // Значення, вже перенесені в лічильники, не рахуються повторно як нові
+            Parser.parseRange(jsonFactory, FileRange.wholeFile(file), accumulator, InputMode.STREAM);
+            assertEquals(expected.getUniqueCount(), accumulator.getUniqueCount());
+        }
+    }
+}
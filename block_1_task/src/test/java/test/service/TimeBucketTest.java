@@ -0,0 +1,85 @@
+package test.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.petrovoleh.model.Attribute;
+import com.petrovoleh.parser.Parser;
+import com.petrovoleh.parser.ParserOptions;
+import com.petrovoleh.service.StatsOptions;
+import com.petrovoleh.service.StatsService;
+import com.petrovoleh.service.TimeBucket;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import test.util.TestOrderFiles;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.IsoFields;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Клас для тестування групування дат замовлень.
+ */
+public class TimeBucketTest {
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Тест для перевірки, що групи дат збігаються з обчисленими через java.time, зокрема для дат до 1970 року
+     * і на межах високосних років.
+     */
+    @Test
+    void testKeyAndFormat_MatchJavaTime() {
+        Random random = new Random(42);
+        long[] dates = new long[10_000];
+        for (int i = 0; i < dates.length; i++) {
+            // Від 1600 до 2400 року
+            dates[i] = -11_676_096_000_000L + (long) (random.nextDouble() * 25_245_000_000_000L);
+        }
+        dates[0] = Instant.parse("2024-02-29T23:59:59.999Z").toEpochMilli();
+        dates[1] = Instant.parse("2000-03-01T00:00:00Z").toEpochMilli();
+        dates[2] = Instant.parse("1969-12-31T23:59:59.999Z").toEpochMilli();
+        for (long date : dates) {
+            ZonedDateTime time = Instant.ofEpochMilli(date).atZone(ZoneOffset.UTC);
+            assertEquals(time.truncatedTo(ChronoUnit.HOURS).format(DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:00'Z'")),
+                    format(TimeBucket.HOUR, date));
+            assertEquals(time.toLocalDate().toString(), format(TimeBucket.DAY, date));
+            assertEquals(String.format("%d-W%02d", time.get(IsoFields.WEEK_BASED_YEAR), time.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR)),
+                    format(TimeBucket.WEEK, date));
+            assertEquals(time.format(DateTimeFormatter.ofPattern("yyyy-MM")), format(TimeBucket.MONTH, date));
+        }
+    }
+
+    /**
+     * Тест для перевірки статистики за днями при парсингу директорії.
+     */
+    @Test
+    void testParseOrders_ByDay() throws IOException {
+        // Замовлення йдуть щохвилини з 01.01.2023 00:00 UTC
+        TestOrderFiles.writeOrders(tempDir.resolve("orders.json").toFile(), 0, 5000);
+        StatsOptions statsOptions = new StatsOptions();
+        statsOptions.setDateBucket(TimeBucket.DAY);
+        StatsService statsService = new StatsService(EnumSet.of(Attribute.ORDER_DATE), statsOptions);
+        Parser.parseOrders(new JsonFactory(), tempDir.toString(), statsService, new ParserOptions(2));
+
+        Map<String, Long> statistics = new LinkedHashMap<>();
+        statsService.forEach(Attribute.ORDER_DATE, statistics::put);
+        assertEquals(Map.of("2023-01-01", 1440L, "2023-01-02", 1440L, "2023-01-03", 1440L, "2023-01-04", 680L), statistics);
+        // Групи виводяться в хронологічному порядку
+        assertEquals("2023-01-01", statistics.keySet().iterator().next());
+    }
+
+    private static String format(TimeBucket bucket, long date) {
+        return bucket.format(bucket.key(date));
+    }
+}
@@ -0,0 +1,118 @@
+package test.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.petrovoleh.model.Attribute;
+import com.petrovoleh.parser.Parser;
+import com.petrovoleh.parser.ParserOptions;
+import com.petrovoleh.service.StatsOptions;
+import com.petrovoleh.service.StatsService;
+import com.petrovoleh.service.TopKCounter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import test.util.TestOrderFiles;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Клас для тестування лічильника найчастіших значень.
+ */
+public class TopKCounterTest {
+
+    private static final int k = 10;
+    private static final int capacity = 100;
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Тест для перевірки, що найчастіші значення знайдено, а оцінки відповідають межам похибки.
+     */
+    @Test
+    void testTop_FindsHeavyHittersWithinErrorBounds() {
+        Map<String, Long> exact = new HashMap<>();
+        TopKCounter counter = new TopKCounter(k, capacity);
+        addSkewedStream(counter, exact, new Random(42), 200_000);
+
+        assertTopWithinBounds(counter, exact);
+    }
+
+    /**
+     * Тест для перевірки, що об'єднання зведень частин потоку зберігає межі похибки.
+     */
+    @Test
+    void testMerge_KeepsErrorBounds() {
+        Map<String, Long> exact = new HashMap<>();
+        TopKCounter merged = new TopKCounter(k, capacity);
+        for (int part = 0; part < 8; part++) {
+            TopKCounter counter = new TopKCounter(k, capacity);
+            addSkewedStream(counter, exact, new Random(part), 25_000);
+            merged.merge(counter);
+        }
+
+        assertEquals(200_000, merged.getTotal());
+        assertTopWithinBounds(merged, exact);
+    }
+
+    /**
+     * Тест для перевірки режиму найчастіших товарів при парсингу директорії.
+     */
+    @Test
+    void testParseOrders_TopItems() throws IOException {
+        TestOrderFiles.writeOrders(tempDir.resolve("orders.json").toFile(), 0, 5000);
+        StatsOptions statsOptions = new StatsOptions();
+        statsOptions.setTopItems(5);
+        StatsService statsService = new StatsService(EnumSet.of(Attribute.ITEM), statsOptions);
+        Parser.parseOrders(new JsonFactory(), tempDir.toString(), statsService, new ParserOptions(2));
+
+        assertTrue(statsService.isTopK(Attribute.ITEM));
+        List<TopKCounter.Estimate> top = statsService.getTopValues(Attribute.ITEM);
+        assertEquals(5, top.size());
+        for (TopKCounter.Estimate estimate : top) {
+            // Кожен товар зустрічається рівно 10 разів (5000 замовлень по 2 товари з 1000)
+            assertTrue(estimate.count() >= 10 && estimate.count() - estimate.error() <= 10);
+        }
+    }
+
+    /**
+     * Додає потік значень з розподілом, близьким до Ціпфа: значення i зустрічається з імовірністю ~ 1 / i.
+     */
+    private static void addSkewedStream(TopKCounter counter, Map<String, Long> exact, Random random, int length) {
+        int distinct = 10_000;
+        double[] cumulative = new double[distinct];
+        double sum = 0;
+        for (int i = 0; i < distinct; i++) {
+            sum += 1.0 / (i + 1);
+            cumulative[i] = sum;
+        }
+        for (int n = 0; n < length; n++) {
+            double target = random.nextDouble() * sum;
+            int index = Arrays.binarySearch(cumulative, target);
+            String value = "Item " + (index >= 0 ? index : -index - 1);
+            counter.add(value);
+            exact.merge(value, 1L, Long::sum);
+        }
+    }
+
+    private static void assertTopWithinBounds(TopKCounter counter, Map<String, Long> exact) {
+        List<TopKCounter.Estimate> top = counter.top();
+        assertEquals(k, top.size());
+        long maxError = counter.getTotal() / capacity;
+        for (int i = 0; i < top.size(); i++) {
+            TopKCounter.Estimate estimate = top.get(i);
+            long actual = exact.get(estimate.value());
+            assertTrue(estimate.count() >= actual, "Count must not underestimate: " + estimate);
+            assertTrue(estimate.count() - estimate.error() <= actual, "Lower bound must hold: " + estimate);
+            assertTrue(estimate.error() <= maxError, "Error exceeds total / capacity: " + estimate);
+            assertEquals("Item " + i, estimate.value());
+        }
+    }
+}
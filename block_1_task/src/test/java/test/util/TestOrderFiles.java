@@ -0,0 +1,59 @@
+package test.util;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Допоміжний клас для створення JSON-файлів із замовленнями з передбачуваним вмістом.
+ * Замовлення з номером i має клієнта "Client (i % 10)", суму i % 100 та товари "Item (i % 1000)" і "Item ((i + 1) % 1000)".
+ */
+public class TestOrderFiles {
+    public static final long START_DATE_MILLIS = 1672531200000L;
+
+    private static final JsonFactory jsonFactory = new JsonFactory();
+
+    /**
+     * Записує у файл масив замовлень з номерами від first до first + count - 1.
+     *
+     * @param file  файл для запису
+     * @param first номер першого замовлення
+     * @param count кількість замовлень
+     * @return записаний файл
+     * @throws IOException у випадку помилки вводу/виводу
+     */
+    public static File writeOrders(File file, int first, int count) throws IOException {
+        try (JsonGenerator generator = jsonFactory.createGenerator(file, JsonEncoding.UTF8)) {
+            generator.useDefaultPrettyPrinter();
+            generator.writeStartArray();
+            for (int i = first; i < first + count; i++) {
+                generator.writeStartObject();
+                generator.writeNumberField("orderId", i);
+                generator.writeNumberField("orderDate", START_DATE_MILLIS + i * 60_000L);
+                generator.writeStringField("client", clientName(i));
+                generator.writeNumberField("amount", i % 100);
+                generator.writeArrayFieldStart("items");
+                generator.writeString("Item " + i % 1000);
+                generator.writeString("Item " + (i + 1) % 1000);
+                generator.writeEndArray();
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+        }
+        return file;
+    }
+
+    /**
+     * Повертає ім'я клієнта замовлення. Кожне сьоме ім'я містить послідовність "}, {",
+     * яка не повинна сприйматись парсером як межа об'єкта.
+     *
+     * @param i номер замовлення
+     * @return ім'я клієнта
+     */
+    public static String clientName(int i) {
+        return i % 7 == 0 ? "Tricky\"}, {\"client " + i % 10 : "Client " + i % 10;
+    }
+}
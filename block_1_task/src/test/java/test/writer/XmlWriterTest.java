@@ -2,10 +2,12 @@ package test.writer;
 
 import com.petrovoleh.util.XmlWriter;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import java.io.File;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -16,6 +18,9 @@ import static org.junit.jupiter.api.Assertions.*;
  */
 public class XmlWriterTest {
 
+    @TempDir
+    Path tempDir;
+
     /**
      * Тест для перевірки запису статистики у XML з валідними даними.
      *
@@ -59,6 +64,35 @@ public class XmlWriterTest {
         assertEquals(expectedXmlString.strip(), actualXmlString.strip(), "XML content mismatch");
     }
 
+    /**
+     * Тест для перевірки сортування значень за кількістю (від найбільшої).
+     *
+     * @throws IOException у випадку помилки вводу/виводу
+     */
+    @Test
+    void testWriteStatisticsToXML_SortedByCount() throws IOException {
+        Map<String, Integer> orderStatistics = new HashMap<>();
+        for (int i = 0; i < 100; i++) {
+            orderStatistics.put("value" + i, (i * 37) % 100 + 1);
+        }
+
+        XmlWriter.writeStatisticsToXML(tempDir.toString(), orderStatistics, "sorted", true);
+
+        String actualXmlString = java.nio.file.Files.readString(tempDir.resolve("order_statistics_by_sorted.xml"));
+        long previous = Long.MAX_VALUE;
+        int items = 0;
+        for (String line : actualXmlString.split("\\R")) {
+            line = line.trim();
+            if (line.startsWith("<count>")) {
+                long count = Long.parseLong(line.substring("<count>".length(), line.indexOf("</count>")));
+                assertTrue(count <= previous, "Counts are not in descending order");
+                previous = count;
+                items++;
+            }
+        }
+        assertEquals(100, items);
+    }
+
     /**
      * Тест для перевірки винятку під час запису у XML з порожнім іменем атрибуту.
      */